@@ -0,0 +1,62 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Bounded in-memory caches in front of the session read paths (see SessionService) and simulated trajectories
+ * (see TrajectoryService).
+ * Each cache has its own size and expiry (a Caffeine spec from golf.cache.*) and records hit/miss/eviction counts.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Sessions by id */
+    public static final String SESSIONS = "sessions";
+
+    /** Shot lists by session id; entries are large, so this cache is kept small */
+    public static final String SESSION_SHOTS = "sessionShots";
+
+    /** Unfiltered session stats by session id */
+    public static final String SESSION_STATS = "sessionStats";
+
+    /** Simulated trajectories by shot id and number of points */
+    public static final String SHOT_TRAJECTORIES = "shotTrajectories";
+
+    @Value("${golf.cache.sessions.spec:maximumSize=1000,expireAfterWrite=10m}")
+    private String sessionsSpec;
+
+    @Value("${golf.cache.session-shots.spec:maximumSize=50,expireAfterWrite=10m}")
+    private String sessionShotsSpec;
+
+    @Value("${golf.cache.session-stats.spec:maximumSize=1000,expireAfterWrite=10m}")
+    private String sessionStatsSpec;
+
+    @Value("${golf.cache.trajectories.spec:maximumSize=20000,expireAfterAccess=1h}")
+    private String trajectoriesSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered here exist; a typo in a cache name fails instead of creating an unbounded cache
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(SESSIONS, build(sessionsSpec));
+        cacheManager.registerCustomCache(SESSION_SHOTS, build(sessionShotsSpec));
+        cacheManager.registerCustomCache(SESSION_STATS, build(sessionStatsSpec));
+        cacheManager.registerCustomCache(SHOT_TRAJECTORIES, build(trajectoriesSpec));
+        return cacheManager;
+    }
+
+    private static Cache<Object, Object> build(String spec) {
+        return Caffeine.from(spec).recordStats().build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Shot;
+import com.example.demo.service.ShotColumnarEncoder;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes a List&lt;Shot&gt; response as ShotColumnarEncoder binary when the client asks for it in the Accept header.
+ * Write-only; JSON stays the default representation.
+ */
+public class ShotColumnarMessageConverter extends AbstractGenericHttpMessageConverter<List<Shot>> {
+
+    public ShotColumnarMessageConverter() {
+        super(ShotColumnarEncoder.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        // Only List<Shot>: other list responses must not be offered in this format
+        return type instanceof ParameterizedType listType
+                && listType.getRawType() == List.class
+                && listType.getActualTypeArguments()[0] == Shot.class
+                && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(List<Shot> shots, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        byte[] encoded = ShotColumnarEncoder.encode(shots);
+        outputMessage.getHeaders().setContentLength(encoded.length);
+        outputMessage.getBody().write(encoded);
+    }
+
+    @Override
+    public List<Shot> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Shot columns are a response format only", inputMessage);
+    }
+
+    @Override
+    protected List<Shot> readInternal(Class<? extends List<Shot>> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Shot columns are a response format only", inputMessage);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.AnalyticsQuery;
+import com.example.demo.service.AnalyticsService;
+import com.example.demo.service.ClubTrendService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Statistics across sessions, e.g. average carry by club over every session of a year
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*") // Enable CORS - adjust this in production
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ClubTrendService clubTrendService;
+
+    /**
+     * Summarize shot metrics across sessions, grouped by dimensions. For example
+     * /api/analytics?groupBy=club,month&metrics=carryDistance&from=2025-01-01&to=2025-12-31
+     * gives the carry of every club in every month of 2025.
+     *
+     * @param groupBy Comma-separated dimensions: club, session, month, sourceType (default club; empty for no grouping)
+     * @param metrics Comma-separated metric names (default carryDistance, totalDistance, ballSpeed)
+     * @param sessionIds Comma-separated session ids to include (default all)
+     * @param from Sessions dated on or after this day (ISO date)
+     * @param to Sessions dated on or before this day (ISO date)
+     * @param club Only shots with this club
+     */
+    @GetMapping
+    public ResponseEntity<Object> analyze(
+            @RequestParam(defaultValue = "club") String groupBy,
+            @RequestParam(required = false) String metrics,
+            @RequestParam(required = false) String sessionIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String club) {
+        try {
+            // The date range is inclusive of both days
+            AnalyticsQuery query = new AnalyticsQuery(
+                    list(groupBy, AnalyticsQuery.Dimension::of),
+                    list(metrics, AnalyticsQuery::metric),
+                    new HashSet<>(list(sessionIds, id -> Long.valueOf(id.trim()))),
+                    from != null ? from.atStartOfDay() : null,
+                    to != null ? to.plusDays(1).atStartOfDay() : null,
+                    club != null && !club.isEmpty() ? club : null);
+            return new ResponseEntity<>(analyticsService.analyze(query), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Percentiles of carry and lateral carry across sessions, merged from the quantile sketches stored with each
+     * session; values are within 1.5 percentage points of rank (see QuantileSketch). For example
+     * /api/analytics/percentiles?groupBy=club&percentiles=10,50,90&from=2025-01-01 gives every club's P10/P50/P90
+     * carry and lateral spread since the start of 2025.
+     *
+     * @param groupBy Comma-separated dimensions: club, session, month, sourceType (default club; empty for no grouping)
+     * @param metrics carryDistance and/or carryLateralDistance (default both)
+     * @param percentiles Comma-separated percentiles between 0 and 100 (default 10, 50, 90)
+     * @param sessionIds Comma-separated session ids to include (default all)
+     * @param from Sessions dated on or after this day (ISO date)
+     * @param to Sessions dated on or before this day (ISO date)
+     * @param club Only shots with this club
+     */
+    @GetMapping("/percentiles")
+    public ResponseEntity<Object> percentiles(
+            @RequestParam(defaultValue = "club") String groupBy,
+            @RequestParam(defaultValue = "carryDistance,carryLateralDistance") String metrics,
+            @RequestParam(defaultValue = "10,50,90") String percentiles,
+            @RequestParam(required = false) String sessionIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String club) {
+        try {
+            AnalyticsQuery query = new AnalyticsQuery(
+                    list(groupBy, AnalyticsQuery.Dimension::of),
+                    list(metrics, AnalyticsQuery::metric),
+                    new HashSet<>(list(sessionIds, id -> Long.valueOf(id.trim()))),
+                    from != null ? from.atStartOfDay() : null,
+                    to != null ? to.plusDays(1).atStartOfDay() : null,
+                    club != null && !club.isEmpty() ? club : null);
+            return new ResponseEntity<>(analyticsService.percentiles(query, list(percentiles, p -> Double.valueOf(p.trim()))),
+                    HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * A player's club gapping over time: carry and ball speed per club per week (count, mean, stdDev, min, max and
+     * a moving average), read from rollups kept as sessions come and go. For example
+     * /api/analytics/trends?player=Chris&from=2024-01-01 charts two years in a few hundred rows.
+     *
+     * @param player The player (default: sessions without a player)
+     * @param club Only this club
+     * @param from Weeks containing or after this day (ISO date)
+     * @param to Weeks starting on or before this day (ISO date)
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<Object> trends(
+            @RequestParam(required = false) String player,
+            @RequestParam(required = false) String club,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new ResponseEntity<>(clubTrendService.getTrend(player, club != null && !club.isEmpty() ? club : null, from, to),
+                HttpStatus.OK);
+    }
+
+    /**
+     * The items of a comma-separated parameter, or none if it is missing or empty
+     */
+    private static <T> List<T> list(String parameter, Function<String, T> parse) {
+        if (parameter == null || parameter.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(parameter.split(",")).map(parse).toList();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hit, miss and eviction counts of the in-memory caches (see CacheConfig)
+ */
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*") // Enable CORS - adjust this in production
+public class CacheController {
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    /**
+     * Get statistics for every cache, by cache name
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> caches = new HashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache cache)) {
+                continue;
+            }
+            CacheStats stats = cache.getNativeCache().stats();
+            
+            Map<String, Object> cacheStats = new HashMap<>();
+            cacheStats.put("size", cache.getNativeCache().estimatedSize());
+            cacheStats.put("hitCount", stats.hitCount());
+            cacheStats.put("missCount", stats.missCount());
+            cacheStats.put("hitRate", stats.hitRate());
+            cacheStats.put("evictionCount", stats.evictionCount());
+            caches.put(name, cacheStats);
+        }
+        return new ResponseEntity<>(caches, HttpStatus.OK);
+    }
+}
@@ -2,20 +2,48 @@ package com.example.demo.controller;
 
 import com.example.demo.model.Session;
 import com.example.demo.model.Shot;
+import com.example.demo.model.ShotQuery;
+import com.example.demo.model.ShotStatsFilter;
+import com.example.demo.service.BallFlightSimulator;
+import com.example.demo.service.BulkImportResult;
+import com.example.demo.service.BulkImportService;
 import com.example.demo.service.CsvService;
+import com.example.demo.service.DuplicateUploadException;
 import com.example.demo.service.SessionService;
+import com.example.demo.service.ShotColumnarEncoder;
+import com.example.demo.service.SizeLimitedInputStream;
+import com.example.demo.service.TrajectoryService;
+import com.example.demo.service.UploadTooLargeException;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Semaphore;
 
 @RestController
 @RequestMapping("/api/sessions")
@@ -24,12 +52,38 @@ public class SessionController {
     
     private static final Logger logger = LoggerFactory.getLogger(SessionController.class);
     
+    // Seconds a client is asked to wait before retrying when too many raw uploads are in progress
+    private static final String RETRY_AFTER_SECONDS = "5";
+    
     @Autowired
     private SessionService sessionService;
     
     @Autowired
     private CsvService csvService;
     
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private TrajectoryService trajectoryService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${golf.upload.max-body-size:52428800}")
+    private long maxBodySize;
+    
+    @Value("${golf.upload.raw.max-concurrent:2}")
+    private int maxConcurrentRawUploads;
+    
+    // A raw upload holds a database connection while its body arrives, so only a few may run at once
+    private Semaphore rawUploads;
+    
+    @PostConstruct
+    void start() {
+        rawUploads = new Semaphore(maxConcurrentRawUploads);
+    }
+    
     /**
      * Get all sessions
      */
@@ -39,14 +93,37 @@ public class SessionController {
         return new ResponseEntity<>(sessions, HttpStatus.OK);
     }
     
+    /**
+     * Get one page of the session list with shot counts, newest first
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<Object> getSessionList(
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        try {
+            return new ResponseEntity<>(sessionService.getSessionList(title, cursor, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
     /**
      * Get a specific session by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Session> getSessionById(@PathVariable Long id) {
+    public ResponseEntity<Session> getSessionById(@PathVariable Long id, WebRequest request) {
         Optional<Session> session = sessionService.getSessionById(id);
-        return session.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
-                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        if (session.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        
+        if (notModified(request, session.get(), "session", lastUpdated(session.get()))) {
+            return new ResponseEntity<>(revalidate(), HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(session.get(), revalidate(), HttpStatus.OK);
     }
     
     /**
@@ -68,10 +145,11 @@ public class SessionController {
             } else {
                 // Default to Garmin R10 processing
                 session = csvService.processGarminR10Csv(file, title, locationString);
-                session.setSourceType("GARMIN_R10");
             }
             
             return new ResponseEntity<>(session, HttpStatus.CREATED);
+        } catch (DuplicateUploadException e) {
+            return existingSession(e);
         } catch (Exception e) {
             logger.error("Error processing CSV file: " + e.getMessage(), e);
             Map<String, String> error = new HashMap<>();
@@ -80,6 +158,106 @@ public class SessionController {
         }
     }
     
+    /**
+     * Upload a CSV file sent as the raw request body and create a new session.
+     * Unlike a multipart upload nothing is buffered first: rows are parsed and saved while the body is still arriving.
+     * Bodies over golf.upload.max-body-size are refused with 413, and beyond golf.upload.raw.max-concurrent
+     * uploads at once with 429.
+     */
+    @PostMapping(value = "/upload", consumes = {"text/csv", "application/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<Object> uploadCsvStream(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            @RequestParam("title") String title,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "source", required = false, defaultValue = "GARMIN_R10") String source) {
+        
+        // A declared length is checked up front; a chunked body is counted as it is read
+        if (contentLength != null && contentLength > maxBodySize) {
+            return tooLarge(maxBodySize);
+        }
+        if (!rawUploads.tryAcquire()) {
+            logger.warn("Too many raw uploads in progress, rejecting " + title);
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Too many uploads in progress. Please try again shortly.");
+            return new ResponseEntity<>(error, headers, HttpStatus.TOO_MANY_REQUESTS);
+        }
+        
+        try {
+            CsvFormat format = "AWESOME_GOLF".equalsIgnoreCase(source) ? CsvFormat.AWESOME_GOLF : CsvFormat.GARMIN_R10;
+            Session session = csvService.processCsv(format, new SizeLimitedInputStream(body, maxBodySize),
+                    title, location != null ? location : "", ParseListener.NONE);
+            
+            return new ResponseEntity<>(session, HttpStatus.CREATED);
+        } catch (DuplicateUploadException e) {
+            return existingSession(e);
+        } catch (UploadTooLargeException e) {
+            return tooLarge(e.getMaxSize());
+        } catch (Exception e) {
+            logger.error("Error processing CSV upload: " + e.getMessage(), e);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } finally {
+            rawUploads.release();
+        }
+    }
+    
+    /**
+     * Import many CSV files and/or ZIP archives of CSV files, one session per file.
+     * The format of each file is detected from its header unless source is given.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> bulkImport(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "source", required = false) String source) {
+        
+        try {
+            CsvFormat format = null;
+            if ("AWESOME_GOLF".equalsIgnoreCase(source)) {
+                format = CsvFormat.AWESOME_GOLF;
+            } else if ("GARMIN_R10".equalsIgnoreCase(source)) {
+                format = CsvFormat.GARMIN_R10;
+            }
+            
+            List<BulkImportResult> results = bulkImportService.importFiles(files, location != null ? location : "", format);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("files", results);
+            for (BulkImportResult.Status status : BulkImportResult.Status.values()) {
+                response.put(status.name().toLowerCase(), results.stream().filter(result -> result.getStatus() == status).count());
+            }
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            logger.error("Error importing CSV files: " + e.getMessage(), e);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * Refuse an upload body over the size limit
+     */
+    private static ResponseEntity<Object> tooLarge(long maxSize) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Upload is larger than " + maxSize + " bytes");
+        return new ResponseEntity<>(error, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+    
+    /**
+     * Answer a repeated upload with the session that already holds its data
+     */
+    private ResponseEntity<Object> existingSession(DuplicateUploadException e) {
+        logger.info(e.getMessage());
+        return sessionService.getSessionById(e.getSessionId())
+                .<ResponseEntity<Object>>map(existing -> new ResponseEntity<>(existing, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.CONFLICT));
+    }
+    
     /**
      * Update a session
      */
@@ -105,31 +283,249 @@ public class SessionController {
     }
     
     /**
-     * Get all shots for a session
+     * Get all shots for a session, as JSON or (Accept: application/vnd.golf.shot-columns) as ShotColumnarEncoder binary
      */
     @GetMapping("/{id}/shots")
-    public ResponseEntity<List<Shot>> getSessionShots(@PathVariable Long id) {
+    public ResponseEntity<List<Shot>> getSessionShots(@PathVariable Long id, WebRequest request) {
         // Verify session exists
-        if (!sessionService.getSessionById(id).isPresent()) {
+        Optional<Session> session = sessionService.getSessionById(id);
+        if (session.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         
+        // Shots never change after upload, so a client holding them is answered without reading the shot table.
+        // The JSON and binary representations need different ETags.
+        String representation = acceptsShotColumns(request) ? "shot-columns" : "shots";
+        HttpHeaders headers = revalidate();
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        if (notModified(request, session.get(), representation, session.get().getUploadDate())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        
         List<Shot> shots = sessionService.getShotsBySessionId(id);
-        return new ResponseEntity<>(shots, HttpStatus.OK);
+        return new ResponseEntity<>(shots, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * Get chosen fields of a session's shots, filtered on the server. For example
+     * /shots/query?fields=club,carryDistance,apex&club=Driver&min.carryDistance=200&max.carryDistance=260
+     * returns only those three fields of the Drivers carrying 200 to 260 yards.
+     * Any numeric field can take min.* and max.* bounds (inclusive); without fields, every field is returned.
+     */
+    @GetMapping("/{id}/shots/query")
+    public ResponseEntity<Object> queryShots(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String club,
+            @RequestParam Map<String, String> parameters,
+            WebRequest request) {
+        Optional<Session> session = sessionService.getSessionById(id);
+        if (session.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        
+        try {
+            ShotQuery query = shotQuery(fields, club, parameters);
+            
+            // Shots never change after upload; each query is its own representation
+            if (notModified(request, session.get(), "shots-query-" + Integer.toHexString(query.hashCode()), session.get().getUploadDate())) {
+                return new ResponseEntity<>(revalidate(), HttpStatus.NOT_MODIFIED);
+            }
+            return new ResponseEntity<>(sessionService.queryShots(id, query), revalidate(), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * Stream a session's shots as JSON while they are read from the database, for sessions too large to
+     * build in memory. Takes the same fields, club and min.* / max.* parameters as /shots/query and returns
+     * the same JSON; without parameters that is every field of every shot, like /shots.
+     */
+    @GetMapping("/{id}/shots/stream")
+    public ResponseEntity<StreamingResponseBody> streamShots(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String club,
+            @RequestParam Map<String, String> parameters,
+            WebRequest request) {
+        Optional<Session> session = sessionService.getSessionById(id);
+        if (session.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        
+        HttpHeaders headers = revalidate();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        
+        ShotQuery query;
+        try {
+            query = shotQuery(fields, club, parameters);
+        } catch (IllegalArgumentException e) {
+            // Only a streaming body can be returned from here, so the usual error map is written as one
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(out -> objectMapper.writeValue(out, response), headers, HttpStatus.BAD_REQUEST);
+        }
+        
+        if (notModified(request, session.get(), "shots-stream-" + Integer.toHexString(query.hashCode()), session.get().getUploadDate())) {
+            return new ResponseEntity<>(revalidate(), HttpStatus.NOT_MODIFIED);
+        }
+        
+        StreamingResponseBody body = out -> sessionService.streamShots(id, query, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * Shot query from the request parameters of /shots/query and /shots/stream
+     * 
+     * @throws IllegalArgumentException If a field is unknown or a bound is not a number
+     */
+    private static ShotQuery shotQuery(String fields, String club, Map<String, String> parameters) {
+        return new ShotQuery(
+                fields == null || fields.isBlank() ? List.of()
+                        : Arrays.stream(fields.split(",")).map(String::trim).filter(field -> !field.isEmpty()).distinct().toList(),
+                club != null && !club.isEmpty() ? club : null,
+                bounds(parameters, "min."),
+                bounds(parameters, "max."));
+    }
+    
+    /**
+     * Range bounds from request parameters named prefix + field, e.g. min.carryDistance=200
+     */
+    private static Map<String, Double> bounds(Map<String, String> parameters, String prefix) {
+        Map<String, Double> bounds = new HashMap<>();
+        parameters.forEach((name, value) -> {
+            if (!name.startsWith(prefix)) return;
+            try {
+                bounds.put(name.substring(prefix.length()), Double.valueOf(value));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number for " + name + ": " + value);
+            }
+        });
+        return bounds;
     }
     
     /**
-     * Get statistics for a session
+     * Get the simulated flight of every shot in a session, each path sampled at the given number of points
+     * (see TrajectoryService)
+     */
+    @GetMapping("/{id}/trajectories")
+    public ResponseEntity<Object> getSessionTrajectories(
+            @PathVariable Long id,
+            @RequestParam(value = "points", required = false, defaultValue = "" + TrajectoryService.DEFAULT_POINTS) int points,
+            WebRequest request) {
+        Optional<Session> session = sessionService.getSessionById(id);
+        if (session.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        
+        try {
+            TrajectoryService.checkPoints(points);
+            
+            // Like the shots, trajectories are fixed at upload, unless the flight model itself changes
+            String representation = "trajectories-v" + BallFlightSimulator.VERSION + "-" + points;
+            if (notModified(request, session.get(), representation, session.get().getUploadDate())) {
+                return new ResponseEntity<>(revalidate(), HttpStatus.NOT_MODIFIED);
+            }
+            return new ResponseEntity<>(trajectoryService.getTrajectories(id, points), revalidate(), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * Get a session with its shots and stats in one response, for the session page.
+     * With shots=false the shots are left out, for a client that fetches them as shot columns instead.
+     */
+    @GetMapping("/{id}/bundle")
+    public ResponseEntity<Map<String, Object>> getSessionBundle(
+            @PathVariable Long id,
+            @RequestParam(value = "shots", required = false, defaultValue = "true") boolean includeShots,
+            WebRequest request) {
+        // The bundle includes the session metadata, so it is versioned by the session's last update
+        Optional<Session> session = sessionService.getSessionById(id);
+        String representation = includeShots ? "bundle" : "bundle-without-shots";
+        if (session.isPresent() && notModified(request, session.get(), representation, lastUpdated(session.get()))) {
+            return new ResponseEntity<>(revalidate(), HttpStatus.NOT_MODIFIED);
+        }
+        
+        return (includeShots ? sessionService.getSessionBundle(id) : sessionService.getSessionBundleWithoutShots(id))
+            .map(bundle -> new ResponseEntity<>(bundle, revalidate(), HttpStatus.OK))
+            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    /**
+     * Get statistics for a session, optionally restricted to one club, a date range (ISO dates) or a minimum carry
      */
     @GetMapping("/{id}/stats")
-    public ResponseEntity<Map<String, Object>> getSessionStats(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getSessionStats(
+            @PathVariable Long id,
+            @RequestParam(required = false) String club,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Double minCarry,
+            WebRequest request) {
         // Verify session exists
-        if (!sessionService.getSessionById(id).isPresent()) {
+        Optional<Session> session = sessionService.getSessionById(id);
+        if (session.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         
-        Map<String, Object> stats = sessionService.getSessionStats(id);
-        return new ResponseEntity<>(stats, HttpStatus.OK);
+        // The date range is inclusive of both days
+        ShotStatsFilter filter = new ShotStatsFilter(
+                club != null && !club.isEmpty() ? club : null,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                minCarry);
+        
+        // Like the shots, stats are fixed at upload; each filter is its own representation
+        String representation = filter.isEmpty() ? "stats" : "stats-" + Integer.toHexString(filter.hashCode());
+        if (notModified(request, session.get(), representation, session.get().getUploadDate())) {
+            return new ResponseEntity<>(revalidate(), HttpStatus.NOT_MODIFIED);
+        }
+        
+        Map<String, Object> stats = sessionService.getSessionStats(id, filter);
+        return new ResponseEntity<>(stats, revalidate(), HttpStatus.OK);
+    }
+    
+    /**
+     * Handle a conditional GET for one representation of a session. Sets a strong ETag and Last-Modified
+     * derived from the given version timestamp, and returns true if the client's If-None-Match or
+     * If-Modified-Since shows its copy is still current (the response is then a 304).
+     */
+    private static boolean notModified(WebRequest request, Session session, String representation, LocalDateTime version) {
+        if (version == null) {
+            return false;
+        }
+        long lastModified = version.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String etag = "\"" + session.getId() + "-" + representation + "-" + lastModified + "\"";
+        return request.checkNotModified(etag, lastModified);
+    }
+    
+    private static boolean acceptsShotColumns(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        try {
+            return accept != null && MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(ShotColumnarEncoder.MEDIA_TYPE));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+    
+    // Sessions from before updatedAt was tracked have only been changed at upload, as far as anyone knows
+    private static LocalDateTime lastUpdated(Session session) {
+        return session.getUpdatedAt() != null ? session.getUpdatedAt() : session.getUploadDate();
+    }
+    
+    // Browsers may keep these responses but must check with the server (a cheap 304) before reusing them
+    private static HttpHeaders revalidate() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache());
+        return headers;
     }
     
     /**
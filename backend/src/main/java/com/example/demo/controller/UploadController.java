@@ -0,0 +1,79 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UploadJob;
+import com.example.demo.service.UploadJobService;
+import com.example.demo.service.csv.CsvFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous CSV uploads: accept the file, answer 202 with a job id, and let the client poll for the result
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@CrossOrigin(origins = "*", exposedHeaders = {"Location", "Retry-After"}) // Enable CORS - adjust this in production
+public class UploadController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+    
+    // Seconds a client is asked to wait before retrying when the queue is full
+    private static final String RETRY_AFTER_SECONDS = "5";
+    
+    @Autowired
+    private UploadJobService uploadJobService;
+    
+    /**
+     * Queue a CSV file for processing into a new session
+     */
+    @PostMapping
+    public ResponseEntity<Object> submitUpload(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("title") String title,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "source", required = false, defaultValue = "GARMIN_R10") String source) {
+        
+        CsvFormat format = "AWESOME_GOLF".equalsIgnoreCase(source) ? CsvFormat.AWESOME_GOLF : CsvFormat.GARMIN_R10;
+        
+        try {
+            UploadJob job = uploadJobService.submit(format, file, title, location != null ? location : "");
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.LOCATION, "/api/uploads/" + job.getId());
+            return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Upload queue is full, rejecting " + file.getOriginalFilename());
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return new ResponseEntity<>(error("Too many uploads in progress. Please try again shortly."), headers, HttpStatus.TOO_MANY_REQUESTS);
+        } catch (Exception e) {
+            logger.error("Error accepting CSV file: " + e.getMessage(), e);
+            return new ResponseEntity<>(error(e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * Get the progress of an upload job
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<UploadJob> getUpload(@PathVariable String jobId) {
+        return uploadJobService.getJob(jobId)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    private static Map<String, String> error(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return error;
+    }
+}
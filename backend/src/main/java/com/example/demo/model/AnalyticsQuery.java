@@ -0,0 +1,85 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A cross-session analysis: which sessions' shots to include, how to group them, and which metrics to summarize.
+ *
+ * @param groupBy Dimensions to group by, in order; empty for one group over everything
+ * @param metrics Metrics to summarize in each group; empty for carry, total and ball speed
+ * @param sessionIds Only these sessions, or empty for all
+ * @param from Only sessions dated at or after this time, or null
+ * @param to Only sessions dated before this time, or null
+ * @param club Only shots with this club, or null for all
+ */
+public record AnalyticsQuery(List<Dimension> groupBy, List<ShotMetric> metrics, Set<Long> sessionIds,
+                             LocalDateTime from, LocalDateTime to, String club) {
+
+    private static final List<ShotMetric> DEFAULT_METRICS =
+            List.of(ShotMetric.CARRY_DISTANCE, ShotMetric.TOTAL_DISTANCE, ShotMetric.BALL_SPEED);
+
+    /**
+     * What shots can be grouped by. Month and source type are those of the shot's session.
+     */
+    public enum Dimension {
+        CLUB("club"),
+        SESSION("sessionId"),
+        MONTH("month"),
+        SOURCE_TYPE("sourceType");
+
+        private final String property;
+
+        Dimension(String property) {
+            this.property = property;
+        }
+
+        /**
+         * Name of the dimension's value in results
+         */
+        public String getProperty() {
+            return property;
+        }
+
+        /**
+         * The dimension with the given name: club, session, month or sourceType (case insensitive)
+         *
+         * @throws IllegalArgumentException If there is no such dimension
+         */
+        public static Dimension of(String name) {
+            String key = name.trim().toLowerCase(Locale.ROOT);
+            for (Dimension dimension : values()) {
+                if (dimension.property.toLowerCase(Locale.ROOT).equals(key) || dimension.name().toLowerCase(Locale.ROOT).equals(key)) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dimension: " + name + " (use club, session, month or sourceType)");
+        }
+    }
+
+    public AnalyticsQuery {
+        groupBy = List.copyOf(groupBy);
+        metrics = List.copyOf(metrics.isEmpty() ? DEFAULT_METRICS : metrics);
+        sessionIds = Set.copyOf(sessionIds);
+
+        if (Set.copyOf(groupBy).size() != groupBy.size()) {
+            throw new IllegalArgumentException("A dimension can only be grouped by once");
+        }
+    }
+
+    /**
+     * The metric with the given property name, e.g. carryDistance
+     *
+     * @throws IllegalArgumentException If there is no such metric
+     */
+    public static ShotMetric metric(String property) {
+        for (ShotMetric metric : ShotMetric.values()) {
+            if (metric.getProperty().equals(property.trim())) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unknown metric: " + property);
+    }
+}
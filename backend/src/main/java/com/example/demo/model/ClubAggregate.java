@@ -0,0 +1,338 @@
+package com.example.demo.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Aggregates over one club's shots in a session, as computed by the database (or from ShotColumns).
+ * Sums and counts (rather than averages) are kept so groups can be combined into session totals.
+ */
+public class ClubAggregate {
+
+    private String club;
+    private long shots;
+
+    private long carryCount;
+    private double carrySum;
+    private Double carryStdDev;
+    private Double carryMedian;
+
+    private long totalCount;
+    private double totalSum;
+    private Double totalStdDev;
+    private Double totalMedian;
+
+    private long ballSpeedCount;
+    private double ballSpeedSum;
+
+    // Not computed by the database; null when the aggregate came from SQL
+    private QuantileSketch carrySketch;
+    private QuantileSketch lateralSketch;
+
+    public ClubAggregate() {
+    }
+
+    /**
+     * The same aggregates as ShotStatsRepository.aggregateByClub, plus quantile sketches, computed from shots
+     * already in memory.
+     * Shots are grouped by club with null and empty clubs kept apart, as GROUP BY does.
+     */
+    public static List<ClubAggregate> fromShots(List<Shot> shots) {
+        Map<String, List<Shot>> byClub = new HashMap<>();
+        for (Shot shot : shots) {
+            byClub.computeIfAbsent(shot.getClub(), club -> new ArrayList<>()).add(shot);
+        }
+
+        List<ClubAggregate> aggregates = new ArrayList<>(byClub.size());
+        byClub.forEach((club, clubShots) -> aggregates.add(of(club, clubShots.size(),
+                values(clubShots, Shot::getCarryDistance),
+                values(clubShots, Shot::getTotalDistance),
+                values(clubShots, Shot::getBallSpeed),
+                values(clubShots, Shot::getCarryLateralDistance))));
+        return aggregates;
+    }
+
+    /**
+     * The same aggregates again, computed from rows start to end of the columns that match the filter.
+     * Matching rows are bucketed by club code in one pass over the arrays, without creating any object per shot.
+     */
+    public static List<ClubAggregate> fromColumns(ShotColumns columns, int start, int end, ShotStatsFilter filter) {
+        short[] clubs = columns.clubs();
+        long[] times = columns.shotTimes();
+        double[] carry = columns.metric(ShotMetric.CARRY_DISTANCE);
+        double[] total = columns.metric(ShotMetric.TOTAL_DISTANCE);
+        double[] ballSpeed = columns.metric(ShotMetric.BALL_SPEED);
+        double[] lateral = columns.metric(ShotMetric.CARRY_LATERAL_DISTANCE);
+
+        int club = filter.getClub() != null ? columns.clubCode(filter.getClub()) : -1;
+        if (filter.getClub() != null && club < 0) return List.of();
+        // Like SQL, a shot without a time or carry never passes a bound on it
+        boolean timed = filter.getFrom() != null || filter.getTo() != null;
+        long from = filter.getFrom() != null ? ShotColumns.timeKey(filter.getFrom()) : Long.MIN_VALUE;
+        long to = filter.getTo() != null ? ShotColumns.timeKey(filter.getTo()) : Long.MAX_VALUE;
+        double minCarry = filter.getMinCarry() != null ? filter.getMinCarry() : Double.NEGATIVE_INFINITY;
+        boolean carryBounded = filter.getMinCarry() != null;
+
+        int[] matching = new int[end - start];
+        int[] clubStarts = new int[columns.clubCount() + 1];
+        int matches = 0;
+        for (int row = start; row < end; row++) {
+            if (club >= 0 && clubs[row] != club) continue;
+            if (timed && (times[row] == ShotColumns.NO_TIME || times[row] < from || times[row] >= to)) continue;
+            if (carryBounded && !(carry[row] >= minCarry)) continue;
+            matching[matches++] = row;
+            clubStarts[clubs[row] + 1]++;
+        }
+
+        // Counting sort of the matching rows by club
+        for (int code = 0; code < columns.clubCount(); code++) {
+            clubStarts[code + 1] += clubStarts[code];
+        }
+        int[] byClub = new int[matches];
+        int[] next = Arrays.copyOf(clubStarts, columns.clubCount());
+        for (int i = 0; i < matches; i++) {
+            byClub[next[clubs[matching[i]]]++] = matching[i];
+        }
+
+        List<ClubAggregate> aggregates = new ArrayList<>();
+        for (int code = 0; code < columns.clubCount(); code++) {
+            int first = clubStarts[code];
+            int last = clubStarts[code + 1];
+            if (first == last) continue;
+            aggregates.add(of(columns.clubName(code), last - first, values(carry, byClub, first, last),
+                    values(total, byClub, first, last), values(ballSpeed, byClub, first, last),
+                    values(lateral, byClub, first, last)));
+        }
+        return aggregates;
+    }
+
+    private static ClubAggregate of(String club, long shots, double[] carry, double[] total, double[] ballSpeed,
+                                    double[] lateral) {
+        ClubAggregate aggregate = new ClubAggregate();
+        aggregate.club = club;
+        aggregate.shots = shots;
+
+        aggregate.carryCount = carry.length;
+        aggregate.carrySum = sum(carry);
+        aggregate.carryStdDev = sampleStdDev(carry);
+        aggregate.carryMedian = median(carry);
+
+        aggregate.totalCount = total.length;
+        aggregate.totalSum = sum(total);
+        aggregate.totalStdDev = sampleStdDev(total);
+        aggregate.totalMedian = median(total);
+
+        aggregate.ballSpeedCount = ballSpeed.length;
+        aggregate.ballSpeedSum = sum(ballSpeed);
+
+        aggregate.carrySketch = sketch(carry);
+        aggregate.lateralSketch = sketch(lateral);
+        return aggregate;
+    }
+
+    private static double[] values(List<Shot> shots, Function<Shot, Double> metric) {
+        return shots.stream().map(metric).filter(Objects::nonNull).mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * The non-NaN values of the column at rows[from] to rows[to - 1]
+     */
+    private static double[] values(double[] column, int[] rows, int from, int to) {
+        double[] values = new double[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            double value = column[rows[i]];
+            if (!Double.isNaN(value)) {
+                values[count++] = value;
+            }
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    private static QuantileSketch sketch(double[] values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Sample standard deviation (stddev_samp): null for fewer than two values
+     */
+    private static Double sampleStdDev(double[] values) {
+        if (values.length < 2) return null;
+        double mean = sum(values) / values.length;
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(squares / (values.length - 1));
+    }
+
+    /**
+     * Median with interpolation between the middle two values, like percentile_cont(0.5): null for no values
+     */
+    private static Double median(double[] values) {
+        if (values.length == 0) return null;
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * Average carry distance, or 0 if no shot has one
+     */
+    public double getAvgCarry() {
+        return carryCount == 0 ? 0.0 : carrySum / carryCount;
+    }
+
+    public double getAvgTotal() {
+        return totalCount == 0 ? 0.0 : totalSum / totalCount;
+    }
+
+    public double getAvgBallSpeed() {
+        return ballSpeedCount == 0 ? 0.0 : ballSpeedSum / ballSpeedCount;
+    }
+
+    // Getters and Setters
+    public String getClub() {
+        return club;
+    }
+
+    public void setClub(String club) {
+        this.club = club;
+    }
+
+    public long getShots() {
+        return shots;
+    }
+
+    public void setShots(long shots) {
+        this.shots = shots;
+    }
+
+    public long getCarryCount() {
+        return carryCount;
+    }
+
+    public void setCarryCount(long carryCount) {
+        this.carryCount = carryCount;
+    }
+
+    public double getCarrySum() {
+        return carrySum;
+    }
+
+    public void setCarrySum(double carrySum) {
+        this.carrySum = carrySum;
+    }
+
+    public Double getCarryStdDev() {
+        return carryStdDev;
+    }
+
+    public void setCarryStdDev(Double carryStdDev) {
+        this.carryStdDev = carryStdDev;
+    }
+
+    public Double getCarryMedian() {
+        return carryMedian;
+    }
+
+    public void setCarryMedian(Double carryMedian) {
+        this.carryMedian = carryMedian;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public double getTotalSum() {
+        return totalSum;
+    }
+
+    public void setTotalSum(double totalSum) {
+        this.totalSum = totalSum;
+    }
+
+    public Double getTotalStdDev() {
+        return totalStdDev;
+    }
+
+    public void setTotalStdDev(Double totalStdDev) {
+        this.totalStdDev = totalStdDev;
+    }
+
+    public Double getTotalMedian() {
+        return totalMedian;
+    }
+
+    public void setTotalMedian(Double totalMedian) {
+        this.totalMedian = totalMedian;
+    }
+
+    public long getBallSpeedCount() {
+        return ballSpeedCount;
+    }
+
+    public void setBallSpeedCount(long ballSpeedCount) {
+        this.ballSpeedCount = ballSpeedCount;
+    }
+
+    public double getBallSpeedSum() {
+        return ballSpeedSum;
+    }
+
+    public void setBallSpeedSum(double ballSpeedSum) {
+        this.ballSpeedSum = ballSpeedSum;
+    }
+
+    /**
+     * The sketch of one of ClubSummary.SKETCHED_METRICS, or null
+     */
+    public QuantileSketch getSketch(ShotMetric metric) {
+        return switch (metric) {
+            case CARRY_DISTANCE -> carrySketch;
+            case CARRY_LATERAL_DISTANCE -> lateralSketch;
+            default -> null;
+        };
+    }
+
+    public QuantileSketch getCarrySketch() {
+        return carrySketch;
+    }
+
+    public void setCarrySketch(QuantileSketch carrySketch) {
+        this.carrySketch = carrySketch;
+    }
+
+    /**
+     * Sketch of the carry lateral distance (left/right of the target line at landing)
+     */
+    public QuantileSketch getLateralSketch() {
+        return lateralSketch;
+    }
+
+    public void setLateralSketch(QuantileSketch lateralSketch) {
+        this.lateralSketch = lateralSketch;
+    }
+}
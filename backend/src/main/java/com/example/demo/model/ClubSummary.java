@@ -0,0 +1,105 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.util.List;
+
+/**
+ * Stored statistics for one club of a session; a row of session_club_summary.
+ * Also holds quantile sketches of the SKETCHED_METRICS, which percentiles across sessions are merged from.
+ */
+@Embeddable
+public class ClubSummary {
+
+    /** Metrics a sketch is stored for */
+    public static final List<ShotMetric> SKETCHED_METRICS = List.of(ShotMetric.CARRY_DISTANCE, ShotMetric.CARRY_LATERAL_DISTANCE);
+
+    private long shots;
+    private double avgCarry;
+    private double avgTotal;
+    private double avgBallSpeed;
+    private Double stdDevCarry;
+    private Double stdDevTotal;
+    private Double medianCarry;
+    private Double medianTotal;
+
+    // QuantileSketch.toBytes(); null for summaries stored before sketches were
+    @Column(length = 65536)
+    private byte[] carrySketch;
+    @Column(length = 65536)
+    private byte[] lateralSketch;
+
+    // Default constructor required by JPA
+    public ClubSummary() {
+    }
+
+    public ClubSummary(ClubAggregate aggregate) {
+        this.shots = aggregate.getShots();
+        this.avgCarry = aggregate.getAvgCarry();
+        this.avgTotal = aggregate.getAvgTotal();
+        this.avgBallSpeed = aggregate.getAvgBallSpeed();
+        this.stdDevCarry = aggregate.getCarryStdDev();
+        this.stdDevTotal = aggregate.getTotalStdDev();
+        this.medianCarry = aggregate.getCarryMedian();
+        this.medianTotal = aggregate.getTotalMedian();
+        this.carrySketch = aggregate.getCarrySketch() != null ? aggregate.getCarrySketch().toBytes() : null;
+        this.lateralSketch = aggregate.getLateralSketch() != null ? aggregate.getLateralSketch().toBytes() : null;
+    }
+
+    /**
+     * The stored sketch of one of the SKETCHED_METRICS, or null if there is none
+     */
+    public QuantileSketch getSketch(ShotMetric metric) {
+        byte[] sketch = sketchBytes(metric);
+        return sketch != null ? QuantileSketch.fromBytes(sketch) : null;
+    }
+
+    /**
+     * Whether a sketch of the metric is stored
+     */
+    public boolean hasSketch(ShotMetric metric) {
+        return sketchBytes(metric) != null;
+    }
+
+    private byte[] sketchBytes(ShotMetric metric) {
+        return switch (metric) {
+            case CARRY_DISTANCE -> carrySketch;
+            case CARRY_LATERAL_DISTANCE -> lateralSketch;
+            default -> null;
+        };
+    }
+
+    // Getters
+    public long getShots() {
+        return shots;
+    }
+
+    public double getAvgCarry() {
+        return avgCarry;
+    }
+
+    public double getAvgTotal() {
+        return avgTotal;
+    }
+
+    public double getAvgBallSpeed() {
+        return avgBallSpeed;
+    }
+
+    public Double getStdDevCarry() {
+        return stdDevCarry;
+    }
+
+    public Double getStdDevTotal() {
+        return stdDevTotal;
+    }
+
+    public Double getMedianCarry() {
+        return medianCarry;
+    }
+
+    public Double getMedianTotal() {
+        return medianTotal;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Carry and ball speed of one player's shots with one club in one week (Monday to Sunday, by session date);
+ * a row of club_week_rollup. Trend charts over months or years read these rows instead of the shots.
+ * <p>
+ * Sessions are added in session order (date, then id) with add(); the moving averages depend on that order,
+ * which is why the last session added is kept.
+ */
+@Entity
+@Table(name = "club_week_rollup")
+@IdClass(ClubWeekRollup.Key.class)
+public class ClubWeekRollup {
+
+    /** Weight of each new shot in the moving averages */
+    public static final double EWMA_ALPHA = 0.1;
+
+    @Id
+    @Column(length = 100)
+    private String player;  // "" for sessions without a player
+
+    @Id
+    @Column(length = 100)
+    private String club;
+
+    @Id
+    private LocalDate weekStart;
+
+    private long shots;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "count", column = @Column(name = "carry_count")),
+            @AttributeOverride(name = "sum", column = @Column(name = "carry_sum")),
+            @AttributeOverride(name = "sumOfSquares", column = @Column(name = "carry_sum_of_squares")),
+            @AttributeOverride(name = "min", column = @Column(name = "carry_min")),
+            @AttributeOverride(name = "max", column = @Column(name = "carry_max")),
+            @AttributeOverride(name = "ewma", column = @Column(name = "carry_ewma"))
+    })
+    private MetricRollup carry = new MetricRollup();
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "count", column = @Column(name = "ball_speed_count")),
+            @AttributeOverride(name = "sum", column = @Column(name = "ball_speed_sum")),
+            @AttributeOverride(name = "sumOfSquares", column = @Column(name = "ball_speed_sum_of_squares")),
+            @AttributeOverride(name = "min", column = @Column(name = "ball_speed_min")),
+            @AttributeOverride(name = "max", column = @Column(name = "ball_speed_max")),
+            @AttributeOverride(name = "ewma", column = @Column(name = "ball_speed_ewma"))
+    })
+    private MetricRollup ballSpeed = new MetricRollup();
+
+    // The last session added, see isBefore
+    private LocalDateTime lastSessionDate;
+    private Long lastSessionId;
+
+    /**
+     * Primary key: player, club and the Monday the week starts on
+     */
+    public record Key(String player, String club, LocalDate weekStart) implements Serializable {
+    }
+
+    // Default constructor required by JPA
+    public ClubWeekRollup() {
+    }
+
+    public ClubWeekRollup(String player, String club, LocalDate weekStart) {
+        this.player = player;
+        this.club = club;
+        this.weekStart = weekStart;
+    }
+
+    /**
+     * The Monday of the week the date falls in
+     */
+    public static LocalDate weekStart(LocalDateTime date) {
+        return date.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Add a shot of the given session; shots must come in session order, and in shot order within a session
+     */
+    public void add(Long sessionId, LocalDateTime sessionDate, Double carryDistance, Double ballSpeedValue) {
+        shots++;
+        carry.add(carryDistance, EWMA_ALPHA);
+        ballSpeed.add(ballSpeedValue, EWMA_ALPHA);
+        lastSessionDate = sessionDate;
+        lastSessionId = sessionId;
+    }
+
+    /**
+     * Whether every session added so far comes before the given one, by date and then id, so that its shots
+     * can be added next
+     */
+    public boolean isBefore(LocalDateTime sessionDate, Long sessionId) {
+        int order = lastSessionDate.compareTo(sessionDate);
+        return order < 0 || (order == 0 && lastSessionId < sessionId);
+    }
+
+    /**
+     * The trend endpoint's entry for this week: weekStart, shots, and carryDistance and ballSpeed as in MetricRollup.toMap
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("weekStart", weekStart.toString());
+        values.put("shots", shots);
+        values.put(ShotMetric.CARRY_DISTANCE.getProperty(), carry.toMap());
+        values.put(ShotMetric.BALL_SPEED.getProperty(), ballSpeed.toMap());
+        return values;
+    }
+
+    // Getters
+    public String getPlayer() {
+        return player;
+    }
+
+    public String getClub() {
+        return club;
+    }
+
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public long getShots() {
+        return shots;
+    }
+
+    public MetricRollup getCarry() {
+        return carry;
+    }
+
+    public MetricRollup getBallSpeed() {
+        return ballSpeed;
+    }
+
+    public LocalDateTime getLastSessionDate() {
+        return lastSessionDate;
+    }
+
+    public Long getLastSessionId() {
+        return lastSessionId;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.model;
+
+/**
+ * Count, mean, spread and range of one metric over a group of shots, kept so that partial results over
+ * different shots can be merged. Merging uses the pairwise update of Chan et al. for the mean and the sum of
+ * squared deviations, so the merged result equals one pass over all the values, whatever the split.
+ */
+public class MetricMoments {
+
+    private long count;
+    private double mean;
+    // Sum of squared deviations from the mean
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Add one value (Welford's update)
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add the values summarized by other, as if they had been added one by one
+     */
+    public void merge(MetricMoments other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+
+        long combined = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / combined;
+        m2 += other.m2 + delta * delta * count * other.count / combined;
+        count = combined;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Mean, or null without values
+     */
+    public Double getMean() {
+        return count == 0 ? null : mean;
+    }
+
+    /**
+     * Sample standard deviation (like stddev_samp), or null for fewer than two values
+     */
+    public Double getStdDev() {
+        return count < 2 ? null : Math.sqrt(m2 / (count - 1));
+    }
+
+    public Double getMin() {
+        return count == 0 ? null : min;
+    }
+
+    public Double getMax() {
+        return count == 0 ? null : max;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Embeddable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One metric's running totals in a ClubWeekRollup: count, sum and sum of squares (from which mean and spread
+ * follow), min, max, and an exponentially weighted moving average over the shots in the order they were hit.
+ */
+@Embeddable
+public class MetricRollup {
+
+    private long count;
+    private double sum;
+    private double sumOfSquares;
+    private Double min;
+    private Double max;
+    private Double ewma;
+
+    /**
+     * Add the next value; null is skipped
+     *
+     * @param alpha Weight of the new value in the moving average
+     */
+    public void add(Double value, double alpha) {
+        if (value == null || Double.isNaN(value)) return;
+
+        count++;
+        sum += value;
+        sumOfSquares += value * value;
+        min = min == null ? value : Math.min(min, value);
+        max = max == null ? value : Math.max(max, value);
+        ewma = ewma == null ? value : alpha * value + (1 - alpha) * ewma;
+    }
+
+    /**
+     * count, mean, stdDev (sample), min, max and ewma; all but count are null without values
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", count);
+        values.put("mean", count == 0 ? null : sum / count);
+        values.put("stdDev", getStdDev());
+        values.put("min", min);
+        values.put("max", max);
+        values.put("ewma", ewma);
+        return values;
+    }
+
+    /**
+     * Sample standard deviation, or null for fewer than two values
+     */
+    public Double getStdDev() {
+        if (count < 2) return null;
+        // Rounding can leave the difference slightly negative when every value is the same
+        return Math.sqrt(Math.max(0, (sumOfSquares - sum * sum / count) / (count - 1)));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getSumOfSquares() {
+        return sumOfSquares;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public Double getEwma() {
+        return ewma;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.demo.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A KLL quantile sketch (Karnin, Lang and Liberty, 2016): a small, mergeable summary of a stream of values that
+ * answers percentile queries without keeping every value.
+ * <p>
+ * Values go into level 0. When the sketch is full, the lowest full level is sorted and every other value,
+ * starting at a random offset, moves up one level with twice the weight; the rest are dropped. Upper levels get
+ * the most room (level capacities shrink by 2/3 going down), so at most about 3k values are ever kept, and
+ * fewer than k values are kept exactly. Merging appends level to level and compacts again, so a sketch of
+ * many sketches is as accurate as one built from all their values.
+ * <p>
+ * Accuracy: with k = 200 the value returned for a percentile p has a true rank within 1.5 percentage points
+ * of p (e.g. quantile(0.9) lies between the 88.5th and 91.5th percentile) with high probability; QuantileSketchTest
+ * checks this against exact ranks, for single and merged sketches. min and max (quantile 0 and 1) are exact.
+ * <p>
+ * The coin flips come from a fixed seed, so the same values in the same order always give the same sketch.
+ */
+public class QuantileSketch {
+
+    /** Default accuracy parameter */
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+    private static final long SEED = 0x4b4c4cL;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int k;
+    private final Random random;
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    // levels[h][0 .. sizes[h]) are the values at level h, each standing for 2^h values of the stream
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private int retained;
+    private int maxRetained;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        this(k, SEED);
+    }
+
+    private QuantileSketch(int k, long seed) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8");
+        }
+        this.k = k;
+        this.random = new Random(seed);
+        addLevel();
+    }
+
+    /**
+     * Add a value; NaN is ignored
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        retained++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Add every value summarized by other
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) return;
+
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+            retained += other.sizes[h];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Number of values added (NaN excluded)
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Approximate value at the given fraction of the sorted values: 0 is the minimum, 0.5 the median, 1 the maximum
+     *
+     * @return The value, or null if the sketch is empty
+     */
+    public Double quantile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Quantile fraction must be between 0 and 1: " + fraction);
+        }
+        if (count == 0) return null;
+        if (fraction == 0) return min;
+        if (fraction == 1) return max;
+
+        // Weighted values in order; the answer is the first whose cumulative weight reaches the target rank
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n] = 1L << h;
+                n++;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double target = fraction * count;
+        long cumulative = 0;
+        for (int i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * The sketch as bytes, for storage; see fromBytes
+     */
+    public byte[] toBytes() {
+        int size = 1 + 4 + 8 + 8 + 8 + 4 + levels.length * 4 + retained * 8;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(k);
+        buffer.putLong(count);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        buffer.putInt(levels.length);
+        for (int h = 0; h < levels.length; h++) {
+            buffer.putInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putDouble(levels[h][i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Read a sketch written by toBytes
+     *
+     * @throws IllegalArgumentException If the bytes are not a sketch in a known format
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < 33 || buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a quantile sketch in format " + FORMAT_VERSION);
+        }
+        int k = buffer.getInt();
+        long count = buffer.getLong();
+
+        // Seeded from the count so merges into a stored sketch stay reproducible
+        QuantileSketch sketch = new QuantileSketch(k, SEED + count);
+        sketch.count = count;
+        sketch.min = buffer.getDouble();
+        sketch.max = buffer.getDouble();
+        int levelCount = buffer.getInt();
+        while (sketch.levels.length < levelCount) {
+            sketch.addLevel();
+        }
+        for (int h = 0; h < levelCount; h++) {
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                sketch.append(h, buffer.getDouble());
+            }
+            sketch.retained += size;
+        }
+        return sketch;
+    }
+
+    /**
+     * Values level h may hold before it is compacted; higher levels get more room
+     */
+    private int capacity(int h) {
+        int depth = levels.length - h - 1;
+        return (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)) + 1;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        levels[levels.length - 1] = new double[16];
+
+        maxRetained = 0;
+        for (int h = 0; h < levels.length; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    private void append(int h, double value) {
+        if (sizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], sizes[h] * 2);
+        }
+        levels[h][sizes[h]++] = value;
+    }
+
+    /**
+     * Compact full levels, lowest first, until the sketch is below its size limit
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] >= capacity(h)) {
+                if (h + 1 == levels.length) {
+                    addLevel();
+                }
+                compact(h);
+                if (retained < maxRetained) return;
+            }
+        }
+    }
+
+    /**
+     * Sort level h and promote every other value to level h + 1. With an odd count the smallest value stays behind.
+     */
+    private void compact(int h) {
+        int size = sizes[h];
+        double[] values = levels[h];
+        Arrays.sort(values, 0, size);
+
+        int first = size % 2;
+        int promoted = 0;
+        for (int i = first + (random.nextBoolean() ? 1 : 0); i < size; i += 2) {
+            append(h + 1, values[i]);
+            promoted++;
+        }
+        sizes[h] = first;
+        retained -= size - first - promoted;
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.demo.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_session_content_hash", columnList = "contentHash", unique = true),
+        @Index(name = "idx_session_upload_date_id", columnList = "uploadDate DESC, id DESC")
+})
 public class Session {
     
+    // Sequence ids (rather than IDENTITY) let Hibernate batch the inserts of a session and its shots
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_seq")
+    @SequenceGenerator(name = "session_seq", sequenceName = "session_seq", allocationSize = 50)
     private Long id;
     
     private String title;
@@ -18,7 +26,19 @@ public class Session {
     private String location;
     private String sourceType;  // "GARMIN_R10" or "AWESOME_GOLF"
     
+    @Column(length = 100)
+    private String player;  // Who hit the shots, from the file or set by hand; null if unknown
+    
+    // Last change to the session row (upload or metadata edit); shots never change, so this versions the whole session
+    private LocalDateTime updatedAt;
+    
+    @Column(length = 64)
+    @JsonIgnore
+    private String contentHash;  // SHA-256 of the uploaded file, hex; detects re-uploads
+    
+    // Not serialized: shots are served by /api/sessions/{id}/shots, and loading them for every listed session is N+1
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
     private List<Shot> shots = new ArrayList<>();
     
     // Default constructor required by JPA
@@ -30,6 +50,13 @@ public class Session {
         this.uploadDate = LocalDateTime.now();
     }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        // Millisecond precision survives every database round trip, so the value is stable for HTTP validators
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -79,6 +106,30 @@ public class Session {
         this.sourceType = sourceType;
     }
 
+    public String getPlayer() {
+        return player;
+    }
+
+    public void setPlayer(String player) {
+        this.player = player;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public List<Shot> getShots() {
         return shots;
     }
@@ -0,0 +1,58 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the session list: the session's own columns plus its shot count, without loading any shots
+ */
+public class SessionListItem {
+
+    private final Long id;
+    private final String title;
+    private final LocalDateTime uploadDate;
+    private final LocalDateTime sessionDate;
+    private final String location;
+    private final String sourceType;
+    private final long shotCount;
+
+    // Used by the constructor expression in SessionRepository
+    public SessionListItem(Long id, String title, LocalDateTime uploadDate, LocalDateTime sessionDate,
+                           String location, String sourceType, Long shotCount) {
+        this.id = id;
+        this.title = title;
+        this.uploadDate = uploadDate;
+        this.sessionDate = sessionDate;
+        this.location = location;
+        this.sourceType = sourceType;
+        this.shotCount = shotCount != null ? shotCount : 0;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDateTime getUploadDate() {
+        return uploadDate;
+    }
+
+    public LocalDateTime getSessionDate() {
+        return sessionDate;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public long getShotCount() {
+        return shotCount;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a session, computed once when its shots are saved.
+ * Sessions do not change after upload, so the stats endpoint reads this row instead of aggregating shots.
+ * The per-club rows live in session_club_summary and are loaded with the summary.
+ */
+@Entity
+@Table(name = "session_summary")
+public class SessionSummary {
+
+    @Id
+    private Long sessionId;
+
+    private long totalShots;
+    private double avgCarryDistance;
+    private double avgTotalDistance;
+    private double avgBallSpeed;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "session_club_summary", joinColumns = @JoinColumn(name = "session_id"))
+    @MapKeyColumn(name = "club", length = 100)
+    private Map<String, ClubSummary> clubs = new HashMap<>();
+
+    // Default constructor required by JPA
+    public SessionSummary() {
+    }
+
+    /**
+     * Build the summary from per-club aggregates. Overall averages are combined from the groups' sums and counts;
+     * shots without a club count towards them but get no club row.
+     */
+    public static SessionSummary of(Long sessionId, List<ClubAggregate> aggregates) {
+        SessionSummary summary = new SessionSummary();
+        summary.sessionId = sessionId;
+
+        long carryCount = 0, totalCount = 0, ballSpeedCount = 0;
+        double carrySum = 0, totalSum = 0, ballSpeedSum = 0;
+        for (ClubAggregate aggregate : aggregates) {
+            summary.totalShots += aggregate.getShots();
+            carryCount += aggregate.getCarryCount();
+            carrySum += aggregate.getCarrySum();
+            totalCount += aggregate.getTotalCount();
+            totalSum += aggregate.getTotalSum();
+            ballSpeedCount += aggregate.getBallSpeedCount();
+            ballSpeedSum += aggregate.getBallSpeedSum();
+
+            if (aggregate.getClub() != null && !aggregate.getClub().isEmpty()) {
+                summary.clubs.put(aggregate.getClub(), new ClubSummary(aggregate));
+            }
+        }
+        summary.avgCarryDistance = carryCount == 0 ? 0.0 : carrySum / carryCount;
+        summary.avgTotalDistance = totalCount == 0 ? 0.0 : totalSum / totalCount;
+        summary.avgBallSpeed = ballSpeedCount == 0 ? 0.0 : ballSpeedSum / ballSpeedCount;
+        return summary;
+    }
+
+    /**
+     * The stats endpoint response: overall averages, shots per club and per-club statistics, rounded to one decimal.
+     * Empty if the session has no shots.
+     */
+    public Map<String, Object> toStats() {
+        Map<String, Object> stats = new HashMap<>();
+        if (totalShots == 0) {
+            return stats;
+        }
+
+        stats.put("totalShots", totalShots);
+        stats.put("avgCarryDistance", round(avgCarryDistance));
+        stats.put("avgTotalDistance", round(avgTotalDistance));
+        stats.put("avgBallSpeed", round(avgBallSpeed));
+
+        Map<String, Long> clubCounts = new HashMap<>();
+        Map<String, Map<String, Double>> clubStats = new HashMap<>();
+        clubs.forEach((club, summary) -> {
+            clubCounts.put(club, summary.getShots());
+
+            Map<String, Double> clubStat = new HashMap<>();
+            clubStat.put("avgCarry", round(summary.getAvgCarry()));
+            clubStat.put("avgTotal", round(summary.getAvgTotal()));
+            clubStat.put("avgBallSpeed", round(summary.getAvgBallSpeed()));
+            clubStat.put("stdDevCarry", round(summary.getStdDevCarry()));
+            clubStat.put("stdDevTotal", round(summary.getStdDevTotal()));
+            clubStat.put("medianCarry", round(summary.getMedianCarry()));
+            clubStat.put("medianTotal", round(summary.getMedianTotal()));
+            clubStats.put(club, clubStat);
+        });
+        stats.put("clubCounts", clubCounts);
+        stats.put("clubStats", clubStats);
+        return stats;
+    }
+
+    /**
+     * Round to one decimal place; null stays null (e.g. the standard deviation of a single shot)
+     */
+    private static Double round(Double value) {
+        return value == null ? null : Math.round(value * 10.0) / 10.0;
+    }
+
+    // Getters
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public long getTotalShots() {
+        return totalShots;
+    }
+
+    public double getAvgCarryDistance() {
+        return avgCarryDistance;
+    }
+
+    public double getAvgTotalDistance() {
+        return avgTotalDistance;
+    }
+
+    public double getAvgBallSpeed() {
+        return avgBallSpeed;
+    }
+
+    public Map<String, ClubSummary> getClubs() {
+        return clubs;
+    }
+}
@@ -5,10 +5,16 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_shot_fingerprint", columnList = "fingerprint"))
 public class Shot {
     
+    // Ids handed out per sequence call; the COPY loader reserves blocks of the same size
+    public static final int ID_ALLOCATION_SIZE = 1000;
+    
+    // Sequence ids (rather than IDENTITY) let Hibernate batch shot inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shot_seq")
+    @SequenceGenerator(name = "shot_seq", sequenceName = "shot_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     // Basic shot information
@@ -55,8 +61,17 @@ public class Shot {
     private Double faceTarget;           // Face to target in degrees
     private Double swingPlaneTilt;       // Swing plane tilt in degrees
     private Double swingPlaneRotation;   // Swing plane rotation in degrees
+    private Double airDensity;           // Air density in kg/m³ (g/L)
+    private Double temperature;          // Air temperature in degrees F
     private String shotClassification;   // Classification of the shot (e.g., "Push Slice")
     
+    @JsonIgnore
+    private Long fingerprint;            // Hash of the shot's values, see ShotFingerprint
+    
+    @Transient
+    @JsonIgnore
+    private String player;               // Player column of the file; copied to the session, not stored per shot
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id")
     @JsonIgnore  // Prevent infinite recursion when serializing
@@ -235,6 +250,22 @@ public class Shot {
         this.swingPlaneRotation = swingPlaneRotation;
     }
 
+    public Double getAirDensity() {
+        return airDensity;
+    }
+
+    public void setAirDensity(Double airDensity) {
+        this.airDensity = airDensity;
+    }
+
+    public Double getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(Double temperature) {
+        this.temperature = temperature;
+    }
+
     public String getShotClassification() {
         return shotClassification;
     }
@@ -243,6 +274,22 @@ public class Shot {
         this.shotClassification = shotClassification;
     }
 
+    public Long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(Long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public void setPlayer(String player) {
+        this.player = player;
+    }
+
     public Session getSession() {
         return session;
     }
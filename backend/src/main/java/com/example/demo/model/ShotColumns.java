@@ -0,0 +1,294 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only, column-oriented copy of the shots of many sessions, for analytics that scan every shot.
+ * Each metric is one double[] (NaN where the shot has no value), the club is a short code into a dictionary,
+ * and each session's shots are the contiguous rows sessionStart(s) to sessionEnd(s), in shot order.
+ * A shot costs about 280 bytes here, against several times that as a Shot entity.
+ * <p>
+ * Instances never change. Arrays may be longer than size(): only the first size() entries belong to this
+ * instance, and callers must not modify them.
+ */
+public final class ShotColumns {
+
+    /** shotTimes() value for a shot without a time */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    /** Columns without any shot */
+    public static final ShotColumns EMPTY = new Builder().build();
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int size;
+    private final double[][] metrics;
+    private final short[] clubs;
+    private final long[] shotTimes;
+    private final String[] clubNames;
+    private final Map<String, Short> clubCodes;
+
+    private final int sessionCount;
+    private final long[] sessionIds;
+    private final int[] sessionOffsets;
+    private final Map<Long, Integer> sessionIndexes;
+
+    private ShotColumns(Builder builder) {
+        this.size = builder.size;
+        this.metrics = builder.metrics;
+        this.clubs = builder.clubs;
+        this.shotTimes = builder.shotTimes;
+        this.clubNames = builder.clubNames.toArray(new String[0]);
+        this.clubCodes = new HashMap<>(builder.clubCodes);
+        this.sessionCount = builder.sessionCount;
+        this.sessionIds = Arrays.copyOf(builder.sessionIds, sessionCount);
+        this.sessionOffsets = Arrays.copyOf(builder.sessionOffsets, sessionCount + 1);
+        this.sessionOffsets[sessionCount] = size;
+
+        this.sessionIndexes = new HashMap<>();
+        for (int i = 0; i < sessionCount; i++) {
+            sessionIndexes.put(sessionIds[i], i);
+        }
+    }
+
+    /**
+     * Number of shots (rows)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The metric's value for every row, NaN where the shot has none
+     */
+    public double[] metric(ShotMetric metric) {
+        return metrics[metric.ordinal()];
+    }
+
+    /**
+     * Club code of every row; see clubName
+     */
+    public short[] clubs() {
+        return clubs;
+    }
+
+    /**
+     * Shot time of every row as timeKey, or NO_TIME
+     */
+    public long[] shotTimes() {
+        return shotTimes;
+    }
+
+    /**
+     * Number of distinct clubs (null and empty included), so codes run from 0 to clubCount() - 1
+     */
+    public int clubCount() {
+        return clubNames.length;
+    }
+
+    /**
+     * The club a code stands for (may be null or empty, like the club column)
+     */
+    public String clubName(int code) {
+        return clubNames[code];
+    }
+
+    /**
+     * The code of a club, or -1 if no shot has it
+     */
+    public int clubCode(String club) {
+        Short code = clubCodes.get(club);
+        return code != null ? code : -1;
+    }
+
+    public int sessionCount() {
+        return sessionCount;
+    }
+
+    public long sessionId(int session) {
+        return sessionIds[session];
+    }
+
+    /**
+     * First row of the session at the given index
+     */
+    public int sessionStart(int session) {
+        return sessionOffsets[session];
+    }
+
+    /**
+     * One past the last row of the session at the given index
+     */
+    public int sessionEnd(int session) {
+        return sessionOffsets[session + 1];
+    }
+
+    /**
+     * Index of the session with the given id, or -1 if it has no shots here
+     */
+    public int sessionIndex(long sessionId) {
+        Integer index = sessionIndexes.get(sessionId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Shot time as held in shotTimes(): microseconds since the epoch, read as UTC like the column
+     */
+    public static long timeKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    /**
+     * A builder that adds sessions after the ones already here. Rows are written past size() into the same
+     * arrays where there is room, so only one builder may be used per instance, and only on the newest one.
+     */
+    public Builder append() {
+        return new Builder(this);
+    }
+
+    /**
+     * A copy without the given session's rows
+     */
+    public ShotColumns without(long sessionId) {
+        int removed = sessionIndex(sessionId);
+        if (removed < 0) return this;
+
+        Builder builder = new Builder();
+        for (int session = 0; session < sessionCount; session++) {
+            if (session == removed) continue;
+            builder.startSession(sessionIds[session]);
+            for (int row = sessionStart(session); row < sessionEnd(session); row++) {
+                builder.copyRow(this, row);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Collects rows session by session. Call startSession before the rows of each session.
+     */
+    public static final class Builder {
+
+        private int size;
+        private double[][] metrics;
+        private short[] clubs;
+        private long[] shotTimes;
+        private final List<String> clubNames;
+        private final Map<String, Short> clubCodes;
+
+        private int sessionCount;
+        private long[] sessionIds;
+        private int[] sessionOffsets;
+
+        public Builder() {
+            metrics = new double[ShotMetric.values().length][0];
+            clubs = new short[0];
+            shotTimes = new long[0];
+            clubNames = new ArrayList<>();
+            clubCodes = new HashMap<>();
+            sessionIds = new long[16];
+            sessionOffsets = new int[16];
+        }
+
+        private Builder(ShotColumns columns) {
+            size = columns.size;
+            metrics = columns.metrics.clone();
+            clubs = columns.clubs;
+            shotTimes = columns.shotTimes;
+            clubNames = new ArrayList<>(Arrays.asList(columns.clubNames));
+            clubCodes = new HashMap<>(columns.clubCodes);
+            sessionCount = columns.sessionCount;
+            // Small; copied so the session list of the original stays as it was
+            sessionIds = Arrays.copyOf(columns.sessionIds, sessionCount + 16);
+            sessionOffsets = Arrays.copyOf(columns.sessionOffsets, sessionCount + 16);
+        }
+
+        /**
+         * Start a new session; the rows added next belong to it
+         */
+        public void startSession(long sessionId) {
+            if (sessionCount == sessionIds.length) {
+                sessionIds = Arrays.copyOf(sessionIds, sessionCount * 2);
+                sessionOffsets = Arrays.copyOf(sessionOffsets, sessionCount * 2);
+            }
+            sessionIds[sessionCount] = sessionId;
+            sessionOffsets[sessionCount] = size;
+            sessionCount++;
+        }
+
+        /**
+         * Add a shot to the current session
+         *
+         * @param metricValues One value per ShotMetric in declaration order, NaN for none
+         */
+        public void addRow(String club, LocalDateTime shotTime, double[] metricValues) {
+            int row = nextRow();
+            for (int metric = 0; metric < metrics.length; metric++) {
+                metrics[metric][row] = metricValues[metric];
+            }
+            clubs[row] = code(club);
+            shotTimes[row] = shotTime != null ? timeKey(shotTime) : NO_TIME;
+        }
+
+        private void copyRow(ShotColumns from, int fromRow) {
+            int row = nextRow();
+            for (int metric = 0; metric < metrics.length; metric++) {
+                metrics[metric][row] = from.metrics[metric][fromRow];
+            }
+            clubs[row] = code(from.clubNames[from.clubs[fromRow]]);
+            shotTimes[row] = from.shotTimes[fromRow];
+        }
+
+        private int nextRow() {
+            if (sessionCount == 0) {
+                throw new IllegalStateException("startSession must be called before the first row");
+            }
+            if (size == clubs.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+                for (int metric = 0; metric < metrics.length; metric++) {
+                    metrics[metric] = Arrays.copyOf(metrics[metric], capacity);
+                }
+                clubs = Arrays.copyOf(clubs, capacity);
+                shotTimes = Arrays.copyOf(shotTimes, capacity);
+            }
+            return size++;
+        }
+
+        private short code(String club) {
+            Short code = clubCodes.get(club);
+            if (code == null) {
+                if (clubNames.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("More than " + (Short.MAX_VALUE + 1) + " distinct clubs");
+                }
+                code = (short) clubNames.size();
+                clubNames.add(club);
+                clubCodes.put(club, code);
+            }
+            return code;
+        }
+
+        /**
+         * The columns so far; call once. Sessions that were started but got no rows are left out.
+         */
+        public ShotColumns build() {
+            // Leave out sessions without rows
+            int kept = 0;
+            for (int session = 0; session < sessionCount; session++) {
+                int end = session + 1 < sessionCount ? sessionOffsets[session + 1] : size;
+                if (end > sessionOffsets[session]) {
+                    sessionIds[kept] = sessionIds[session];
+                    sessionOffsets[kept] = sessionOffsets[session];
+                    kept++;
+                }
+            }
+            sessionCount = kept;
+            return new ShotColumns(this);
+        }
+    }
+}
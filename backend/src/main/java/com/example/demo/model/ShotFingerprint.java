@@ -0,0 +1,62 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A 64-bit hash of everything a launch monitor recorded about a shot: time, club and every metric but the weather.
+ * The same shot exported twice gets the same fingerprint, which lets overlapping uploads skip rows already stored.
+ */
+public final class ShotFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ShotFingerprint() {
+    }
+
+    public static long of(Shot shot) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, shot.getClub());
+        hash = mix(hash, shot.getClubDescription());
+
+        LocalDateTime time = shot.getShotTime();
+        hash = mix(hash, time == null ? Long.MIN_VALUE : time.toLocalDate().toEpochDay() * 86_400L + time.toLocalTime().toSecondOfDay());
+
+        for (ShotMetric metric : ShotMetric.values()) {
+            // Weather is not something the monitor measured about the shot, and leaving it out keeps the
+            // fingerprints of shots stored before it was kept
+            if (metric == ShotMetric.AIR_DENSITY || metric == ShotMetric.TEMPERATURE) continue;
+            Double value = metric.get(shot);
+            hash = mix(hash, value == null ? Long.MIN_VALUE : Double.doubleToLongBits(value));
+        }
+        hash = mix(hash, shot.getShotClassification());
+
+        // MurmurHash3 finalizer, so similar shots do not end up with similar fingerprints
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, Long.MIN_VALUE);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        // Separator, so ("ab", "c") and ("a", "bc") differ
+        return mix(hash, value.length());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.model;
+
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The numeric measurements stored on a Shot, in entity field order.
+ * Gives code that works column-by-column (bulk loading, projections, exports) one place
+ * to find a metric's property name, database column, getter and setter.
+ */
+public enum ShotMetric {
+    ALTITUDE("altitude", Shot::getAltitude, Shot::setAltitude),
+    BALL_SPEED("ballSpeed", Shot::getBallSpeed, Shot::setBallSpeed),
+    CLUB_HEAD_SPEED("clubHeadSpeed", Shot::getClubHeadSpeed, Shot::setClubHeadSpeed),
+    LAUNCH_ANGLE("launchAngle", Shot::getLaunchAngle, Shot::setLaunchAngle),
+    LAUNCH_DIRECTION("launchDirection", Shot::getLaunchDirection, Shot::setLaunchDirection),
+    SPIN_RATE("spinRate", Shot::getSpinRate, Shot::setSpinRate),
+    SPIN_AXIS("spinAxis", Shot::getSpinAxis, Shot::setSpinAxis),
+    CARRY_DISTANCE("carryDistance", Shot::getCarryDistance, Shot::setCarryDistance),
+    TOTAL_DISTANCE("totalDistance", Shot::getTotalDistance, Shot::setTotalDistance),
+    ROLL_DISTANCE("rollDistance", Shot::getRollDistance, Shot::setRollDistance),
+    DEVIATION("deviation", Shot::getDeviation, Shot::setDeviation),
+    APEX("apex", Shot::getApex, Shot::setApex),
+    ATTACK_ANGLE("attackAngle", Shot::getAttackAngle, Shot::setAttackAngle),
+    FACE_ANGLE("faceAngle", Shot::getFaceAngle, Shot::setFaceAngle),
+    FACE_TO_PATH("faceToPath", Shot::getFaceToPath, Shot::setFaceToPath),
+    SWING_PATH("swingPath", Shot::getSwingPath, Shot::setSwingPath),
+    SWING_PLANE("swingPlane", Shot::getSwingPlane, Shot::setSwingPlane),
+    VERTICAL_FACE_IMPACT("verticalFaceImpact", Shot::getVerticalFaceImpact, Shot::setVerticalFaceImpact),
+    HORIZONTAL_FACE_IMPACT("horizontalFaceImpact", Shot::getHorizontalFaceImpact, Shot::setHorizontalFaceImpact),
+    SMASH("smash", Shot::getSmash, Shot::setSmash),
+    PEAK_HEIGHT("peakHeight", Shot::getPeakHeight, Shot::setPeakHeight),
+    DESCENT_ANGLE("descentAngle", Shot::getDescentAngle, Shot::setDescentAngle),
+    HORIZONTAL_LAUNCH("horizontalLaunch", Shot::getHorizontalLaunch, Shot::setHorizontalLaunch),
+    CARRY_LATERAL_DISTANCE("carryLateralDistance", Shot::getCarryLateralDistance, Shot::setCarryLateralDistance),
+    TOTAL_LATERAL_DISTANCE("totalLateralDistance", Shot::getTotalLateralDistance, Shot::setTotalLateralDistance),
+    CARRY_CURVE_DISTANCE("carryCurveDistance", Shot::getCarryCurveDistance, Shot::setCarryCurveDistance),
+    TOTAL_CURVE_DISTANCE("totalCurveDistance", Shot::getTotalCurveDistance, Shot::setTotalCurveDistance),
+    DYNAMIC_LOFT("dynamicLoft", Shot::getDynamicLoft, Shot::setDynamicLoft),
+    SPIN_LOFT("spinLoft", Shot::getSpinLoft, Shot::setSpinLoft),
+    LOW_POINT("lowPoint", Shot::getLowPoint, Shot::setLowPoint),
+    FACE_TARGET("faceTarget", Shot::getFaceTarget, Shot::setFaceTarget),
+    SWING_PLANE_TILT("swingPlaneTilt", Shot::getSwingPlaneTilt, Shot::setSwingPlaneTilt),
+    SWING_PLANE_ROTATION("swingPlaneRotation", Shot::getSwingPlaneRotation, Shot::setSwingPlaneRotation),
+    AIR_DENSITY("airDensity", Shot::getAirDensity, Shot::setAirDensity),
+    TEMPERATURE("temperature", Shot::getTemperature, Shot::setTemperature);
+
+    private final String property;
+    private final String column;
+    private final Function<Shot, Double> getter;
+    private final BiConsumer<Shot, Double> setter;
+
+    ShotMetric(String property, Function<Shot, Double> getter, BiConsumer<Shot, Double> setter) {
+        this.property = property;
+        this.column = property.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Entity property name, which is also the JSON field name
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Column name in the shot table
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    public Double get(Shot shot) {
+        return getter.apply(shot);
+    }
+
+    public void set(Shot shot, Double value) {
+        setter.accept(shot, value);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A projection of a session's shots: which fields to return, and which shots to include.
+ * Field names are checked against the Shot properties on construction, so only known columns reach SQL.
+ *
+ * @param fields Property names to return (as in the Shot JSON); empty for every field
+ * @param club Only shots with this club, or null for all
+ * @param min Inclusive lower bounds by metric property name
+ * @param max Inclusive upper bounds by metric property name
+ */
+public record ShotQuery(List<String> fields, String club, Map<String, Double> min, Map<String, Double> max) {
+
+    // Every property a query may select, in Shot JSON order, with its column
+    private static final Map<String, String> COLUMNS = columns();
+
+    /**
+     * @throws IllegalArgumentException If a field is unknown, or a range is on a non-numeric field
+     */
+    public ShotQuery {
+        fields = List.copyOf(fields.isEmpty() ? COLUMNS.keySet() : fields);
+        min = Map.copyOf(min);
+        max = Map.copyOf(max);
+
+        for (String field : fields) {
+            if (!COLUMNS.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown shot field: " + field);
+            }
+        }
+        for (String field : min.keySet()) {
+            metric(field);
+        }
+        for (String field : max.keySet()) {
+            metric(field);
+        }
+    }
+
+    /**
+     * Column in the shot table for a field of the query
+     */
+    public static String column(String field) {
+        return COLUMNS.get(field);
+    }
+
+    /**
+     * The metric a range filter applies to
+     *
+     * @throws IllegalArgumentException If the field is not a numeric metric
+     */
+    public static ShotMetric metric(String field) {
+        for (ShotMetric metric : ShotMetric.values()) {
+            if (metric.getProperty().equals(field)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Range filters need a numeric shot field: " + field);
+    }
+
+    private static Map<String, String> columns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("id", "id");
+        columns.put("shotNumber", "shot_number");
+        columns.put("club", "club");
+        columns.put("clubDescription", "club_description");
+        columns.put("shotTime", "shot_time");
+        for (ShotMetric metric : ShotMetric.values()) {
+            columns.put(metric.getProperty(), metric.getColumn());
+        }
+        columns.put("shotClassification", "shot_classification");
+        return Collections.unmodifiableMap(columns);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Optional restrictions on which shots of a session go into its statistics. Unset fields do not filter.
+ */
+public class ShotStatsFilter {
+
+    /** No filtering: every shot of the session */
+    public static final ShotStatsFilter NONE = new ShotStatsFilter(null, null, null, null);
+
+    private final String club;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Double minCarry;
+
+    /**
+     * @param club Only shots with this club
+     * @param from Only shots taken at or after this time
+     * @param to Only shots taken before this time
+     * @param minCarry Only shots carrying at least this many yards
+     */
+    public ShotStatsFilter(String club, LocalDateTime from, LocalDateTime to, Double minCarry) {
+        this.club = club;
+        this.from = from;
+        this.to = to;
+        this.minCarry = minCarry;
+    }
+
+    public boolean isEmpty() {
+        return club == null && from == null && to == null && minCarry == null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ShotStatsFilter filter)) return false;
+        return Objects.equals(club, filter.club) && Objects.equals(from, filter.from)
+                && Objects.equals(to, filter.to) && Objects.equals(minCarry, filter.minCarry);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(club, from, to, minCarry);
+    }
+
+    // Getters
+    public String getClub() {
+        return club;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Double getMinCarry() {
+        return minCarry;
+    }
+}
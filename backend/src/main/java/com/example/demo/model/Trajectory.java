@@ -0,0 +1,25 @@
+package com.example.demo.model;
+
+/**
+ * A simulated ball flight from the tee to where the ball lands (see BallFlightSimulator), in the units of the
+ * shot's own measurements. The path is sampled at evenly spaced times, first and last point included; x, y and z
+ * hold one coordinate of every point.
+ *
+ * @param carryDistance Yards from the tee to the landing point
+ * @param carryLateralDistance Yards right (+) or left (-) of the target line at landing
+ * @param apex Highest point in feet
+ * @param flightTime Seconds in the air
+ * @param x Yards down the target line
+ * @param y Feet above the ground
+ * @param z Yards right (+) or left (-) of the target line
+ */
+public record Trajectory(double carryDistance, double carryLateralDistance, double apex, double flightTime,
+                         float[] x, float[] y, float[] z) {
+
+    /**
+     * Number of points on the path
+     */
+    public int size() {
+        return x.length;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ClubWeekRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ClubWeekRollupRepository extends JpaRepository<ClubWeekRollup, ClubWeekRollup.Key> {
+    
+    // Every club's row of one player's week
+    List<ClubWeekRollup> findByPlayerAndWeekStart(String player, LocalDate weekStart);
+    
+    // A player's weeks in a range, for the trend endpoint
+    List<ClubWeekRollup> findByPlayerAndWeekStartBetweenOrderByClubAscWeekStartAsc(String player, LocalDate from, LocalDate to);
+    
+    // One club's weeks in a range
+    List<ClubWeekRollup> findByPlayerAndClubAndWeekStartBetweenOrderByWeekStartAsc(String player, String club,
+                                                                                  LocalDate from, LocalDate to);
+    
+    // Remove a player's week before it is rebuilt; cleared from the persistence context so the new rows can be saved
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ClubWeekRollup r WHERE r.player = :player AND r.weekStart = :weekStart")
+    void deleteWeek(@Param("player") String player, @Param("weekStart") LocalDate weekStart);
+}
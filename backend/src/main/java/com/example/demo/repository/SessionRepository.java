@@ -1,10 +1,16 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Session;
+import com.example.demo.model.SessionListItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
@@ -15,6 +21,41 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     // Find sessions by title containing the search term (case insensitive)
     List<Session> findByTitleContainingIgnoreCaseOrderByUploadDateDesc(String titleSearch);
     
+    // Find the session created from an uploaded file with this SHA-256 hash
+    Optional<Session> findByContentHash(String contentHash);
+    
     // Find sessions by location containing the search term (case insensitive)
     List<Session> findByLocationContainingIgnoreCaseOrderByUploadDateDesc(String locationSearch);
-}
\ No newline at end of file
+    
+    // Session list rows, newest first. The shot count is a correlated subquery so only the sessions on the page
+    // are counted, walking idx_session_upload_date_id and idx_shot_session_id.
+    String LIST_ITEM_SELECT = "SELECT new com.example.demo.model.SessionListItem(s.id, s.title, s.uploadDate, s.sessionDate, "
+            + "s.location, s.sourceType, (SELECT COUNT(sh.id) FROM Shot sh WHERE sh.session = s)) FROM Session s ";
+    String LIST_ITEM_ORDER = " ORDER BY s.uploadDate DESC, s.id DESC";
+    
+    // First page of the session list, optionally filtered by title (with %, _ and \ escaped by the caller)
+    @Query(LIST_ITEM_SELECT
+            + "WHERE LOWER(s.title) LIKE LOWER(CONCAT('%', :title, '%')) ESCAPE '\\'"
+            + LIST_ITEM_ORDER)
+    List<SessionListItem> findListItems(@Param("title") String title, Limit limit);
+    
+    // Following pages: the sessions after the (uploadDate, id) keyset of the last row already shown
+    @Query(LIST_ITEM_SELECT
+            + "WHERE LOWER(s.title) LIKE LOWER(CONCAT('%', :title, '%')) ESCAPE '\\' "
+            + "AND (s.uploadDate < :uploadDate OR (s.uploadDate = :uploadDate AND s.id < :id))"
+            + LIST_ITEM_ORDER)
+    List<SessionListItem> findListItemsAfter(@Param("title") String title, @Param("uploadDate") LocalDateTime uploadDate,
+                                             @Param("id") Long id, Limit limit);
+    
+    // [id, session date, source type] of every session, for grouping shots by their session
+    @Query("SELECT s.id, s.sessionDate, s.sourceType FROM Session s")
+    List<Object[]> findDatesAndSourceTypes();
+    
+    // [player ("" for none), session date] of every dated session, for rebuilding the club trend rollups
+    @Query("SELECT COALESCE(s.player, ''), s.sessionDate FROM Session s WHERE s.sessionDate IS NOT NULL")
+    List<Object[]> findPlayersAndDates();
+    
+    // Session with its shots in shot order, in one query
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.shots sh WHERE s.id = :id ORDER BY sh.shotNumber")
+    Optional<Session> findWithShotsById(@Param("id") Long id);
+}
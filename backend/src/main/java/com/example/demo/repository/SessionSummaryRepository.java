@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.SessionSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SessionSummaryRepository extends JpaRepository<SessionSummary, Long> {
+    
+    // Summaries of many sessions with their club rows, in one query
+    @Query("SELECT DISTINCT s FROM SessionSummary s LEFT JOIN FETCH s.clubs WHERE s.sessionId IN :sessionIds")
+    List<SessionSummary> findWithClubsBySessionIdIn(@Param("sessionIds") Collection<Long> sessionIds);
+}
@@ -0,0 +1,94 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ShotColumns;
+import com.example.demo.model.ShotMetric;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Reads shot rows straight into ShotColumns, through a cursor, without creating a Shot entity per row.
+ */
+@Repository
+public class ShotColumnRepository {
+
+    private static final String SELECT_SQL = buildSelectSql();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${golf.shots.stream.fetch-size:500}")
+    private int fetchSize;
+
+    private JdbcTemplate streamingJdbcTemplate;
+
+    @PostConstruct
+    void createStreamingTemplate() {
+        streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Columns of every stored shot, sessions in id order
+     */
+    @Transactional(readOnly = true)
+    public ShotColumns loadAll() {
+        ShotColumns.Builder builder = new ShotColumns.Builder();
+        streamingJdbcTemplate.query(SELECT_SQL + " ORDER BY session_id, shot_number", new RowReader(builder));
+        return builder.build();
+    }
+
+    /**
+     * Add the shots of one session to the builder (nothing if it has none).
+     * Runs in its own transaction, as it is called after the ingest transaction has committed.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void loadSession(Long sessionId, ShotColumns.Builder builder) {
+        streamingJdbcTemplate.query(SELECT_SQL + " WHERE session_id = ? ORDER BY shot_number",
+                new RowReader(builder), sessionId);
+    }
+
+    private static class RowReader implements RowCallbackHandler {
+
+        private final ShotColumns.Builder builder;
+        private final double[] values = new double[ShotMetric.values().length];
+        private Long sessionId;
+
+        RowReader(ShotColumns.Builder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void processRow(ResultSet row) throws SQLException {
+            long rowSession = row.getLong(1);
+            if (sessionId == null || rowSession != sessionId) {
+                builder.startSession(rowSession);
+                sessionId = rowSession;
+            }
+
+            for (int i = 0; i < values.length; i++) {
+                double value = row.getDouble(i + 4);
+                values[i] = row.wasNull() ? Double.NaN : value;
+            }
+            Timestamp shotTime = row.getTimestamp(3);
+            builder.addRow(row.getString(2), shotTime != null ? shotTime.toLocalDateTime() : null, values);
+        }
+    }
+
+    private static String buildSelectSql() {
+        StringBuilder sql = new StringBuilder("SELECT session_id, club, shot_time");
+        for (ShotMetric metric : ShotMetric.values()) {
+            sql.append(", ").append(metric.getColumn());
+        }
+        return sql.append(" FROM shot").toString();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotMetric;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bulk-inserts shot rows with PostgreSQL's COPY FROM STDIN.
+ * One COPY streams every row of an upload in a single round trip, instead of one INSERT per shot.
+ */
+@Repository
+public class ShotCopyRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShotCopyRepository.class);
+
+    // Rows are sent to the server in blocks of roughly this many bytes
+    private static final int SEND_BUFFER_SIZE = 64 * 1024;
+
+    private static final String COPY_SQL = buildCopySql();
+
+    @Autowired
+    private DataSource dataSource;
+
+    private volatile Boolean supported;
+
+    /**
+     * True if the configured database is PostgreSQL, so COPY can be used
+     */
+    public boolean isSupported() {
+        if (supported == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                supported = connection.isWrapperFor(PGConnection.class);
+            } catch (SQLException e) {
+                logger.warn("Could not check for PostgreSQL COPY support: " + e.getMessage());
+                return false;
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * COPY the shots into the shot table for the given session.
+     * Runs on the connection of the current transaction, so the session row must already be flushed.
+     */
+    public void copyShots(Long sessionId, List<Shot> shots) {
+        if (shots.isEmpty()) return;
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            long[] idBlocks = reserveIdBlocks(connection, shots.size());
+
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder rows = new StringBuilder(SEND_BUFFER_SIZE + 1024);
+                for (int i = 0; i < shots.size(); i++) {
+                    Shot shot = shots.get(i);
+                    shot.setId(idBlocks[i / Shot.ID_ALLOCATION_SIZE] + i % Shot.ID_ALLOCATION_SIZE);
+                    appendRow(rows, sessionId, shot);
+                    if (rows.length() >= SEND_BUFFER_SIZE) {
+                        send(copy, rows);
+                    }
+                }
+                send(copy, rows);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY of shot rows failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Reserve enough blocks of shot ids in one query. Each sequence value is the first id of a block
+     * of Shot.ID_ALLOCATION_SIZE ids, the same "pooled-lo" scheme Hibernate uses for JPA inserts.
+     */
+    private static long[] reserveIdBlocks(Connection connection, int shotCount) throws SQLException {
+        int blocks = (shotCount + Shot.ID_ALLOCATION_SIZE - 1) / Shot.ID_ALLOCATION_SIZE;
+        long[] starts = new long[blocks];
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT nextval('shot_seq') FROM generate_series(1, ?)")) {
+            statement.setInt(1, blocks);
+            try (ResultSet result = statement.executeQuery()) {
+                for (int i = 0; i < blocks && result.next(); i++) {
+                    starts[i] = result.getLong(1);
+                }
+            }
+        }
+        return starts;
+    }
+
+    private static void send(CopyIn copy, StringBuilder rows) throws SQLException {
+        if (rows.length() == 0) return;
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    /**
+     * One CSV line in COPY_SQL column order. Unquoted empty fields are NULL.
+     */
+    private static void appendRow(StringBuilder row, Long sessionId, Shot shot) {
+        row.append(shot.getId()).append(',');
+        row.append(sessionId).append(',');
+        appendValue(row, shot.getShotNumber());
+        appendText(row, shot.getClub());
+        appendText(row, shot.getClubDescription());
+        appendValue(row, shot.getShotTime());
+        for (ShotMetric metric : ShotMetric.values()) {
+            appendValue(row, metric.get(shot));
+        }
+        appendText(row, shot.getShotClassification());
+        appendValue(row, shot.getFingerprint());
+        row.setCharAt(row.length() - 1, '\n');
+    }
+
+    private static void appendValue(StringBuilder row, Object value) {
+        if (value != null) {
+            row.append(value);
+        }
+        row.append(',');
+    }
+
+    private static void appendText(StringBuilder row, String value) {
+        if (value != null) {
+            row.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        row.append(',');
+    }
+
+    private static String buildCopySql() {
+        StringBuilder sql = new StringBuilder("COPY shot (id, session_id, shot_number, club, club_description, shot_time");
+        for (ShotMetric metric : ShotMetric.values()) {
+            sql.append(", ").append(metric.getColumn());
+        }
+        sql.append(", shot_classification, fingerprint) FROM STDIN WITH (FORMAT csv)");
+        return sql.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ShotMetric;
+import com.example.demo.model.ShotQuery;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shot projections: selects only the requested columns, with the filters in the WHERE clause, and returns
+ * plain rows keyed by property name (or streams them). No Shot entity is created.
+ */
+@Repository
+public class ShotQueryRepository {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${golf.shots.stream.fetch-size:500}")
+    private int fetchSize;
+
+    // Statements are forward-only and read-only by default; this one also fetches rows in blocks of fetchSize
+    private NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    @PostConstruct
+    void createStreamingTemplate() {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streaming.setFetchSize(fetchSize);
+        streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Receives the rows of a streamed query one at a time, as they are read from the cursor
+     */
+    @FunctionalInterface
+    public interface ShotRowHandler {
+        /**
+         * @param values The row's values in ShotQuery.fields() order
+         */
+        void row(Object[] values) throws IOException;
+    }
+
+    /**
+     * The session's shots matching the query, in shot order, each with just the requested fields (null included)
+     */
+    public List<Map<String, Object>> findShots(Long sessionId, ShotQuery query) {
+        List<String> fields = query.fields();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String sql = buildSql(sessionId, query, parameters);
+
+        return jdbcTemplate.query(sql, parameters, (row, rowNumber) -> {
+            Map<String, Object> shot = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                shot.put(fields.get(i), value(row.getObject(i + 1)));
+            }
+            return shot;
+        });
+    }
+
+    /**
+     * Read the shots matching the query through a forward-only cursor, golf.shots.stream.fetch-size rows per
+     * round trip, handing each row over as soon as it is read. Nothing is collected, so memory does not grow with
+     * the session. PostgreSQL only uses a cursor inside a transaction, so call this from a transactional method.
+     */
+    public void streamShots(Long sessionId, ShotQuery query, ShotRowHandler handler) {
+        int columns = query.fields().size();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String sql = buildSql(sessionId, query, parameters);
+
+        streamingJdbcTemplate.query(sql, parameters, (RowCallbackHandler) row -> {
+            Object[] values = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                values[i] = value(row.getObject(i + 1));
+            }
+            try {
+                handler.row(values);
+            } catch (IOException e) {
+                // The client went away; stop reading
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String buildSql(Long sessionId, ShotQuery query, MapSqlParameterSource parameters) {
+        List<String> fields = query.fields();
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < fields.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(ShotQuery.column(fields.get(i)));
+        }
+        sql.append(" FROM shot WHERE session_id = :sessionId");
+        parameters.addValue("sessionId", sessionId);
+
+        if (query.club() != null) {
+            sql.append(" AND club = :club");
+            parameters.addValue("club", query.club());
+        }
+        appendRanges(sql, parameters, query.min(), ">=", "min");
+        appendRanges(sql, parameters, query.max(), "<=", "max");
+        sql.append(" ORDER BY shot_number");
+        return sql.toString();
+    }
+
+    // Same JSON as the entity: shotTime as a LocalDateTime, not a java.sql.Timestamp
+    private static Object value(Object column) {
+        return column instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : column;
+    }
+
+    private static void appendRanges(StringBuilder sql, MapSqlParameterSource parameters, Map<String, Double> bounds,
+                                     String operator, String prefix) {
+        // Sorted so the same query always produces the same SQL text
+        List<String> fields = new ArrayList<>(bounds.keySet());
+        Collections.sort(fields);
+        for (String field : fields) {
+            ShotMetric metric = ShotQuery.metric(field);
+            String parameter = prefix + "_" + metric.getColumn();
+            sql.append(" AND ").append(metric.getColumn()).append(' ').append(operator).append(" :").append(parameter);
+            parameters.addValue(parameter, bounds.get(field));
+        }
+    }
+}
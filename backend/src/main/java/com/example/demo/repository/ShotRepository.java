@@ -2,22 +2,36 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Shot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ShotRepository extends JpaRepository<Shot, Long> {
     
+    // Count the shots of a session without loading them
+    long countBySessionId(Long sessionId);
+    
+    // Fingerprints from the list already stored in other sessions, as [fingerprint, session id] pairs
+    @Query("SELECT s.fingerprint, s.session.id FROM Shot s WHERE s.fingerprint IN :fingerprints AND s.session.id <> :sessionId")
+    List<Object[]> findStoredFingerprints(@Param("fingerprints") Collection<Long> fingerprints, @Param("sessionId") Long sessionId);
+    
     // Find all shots for a specific session
     List<Shot> findBySessionIdOrderByShotNumber(Long sessionId);
     
-    // Find shots by club type for a specific session
-    List<Shot> findBySessionIdAndClubOrderByShotNumber(Long sessionId, String club);
-    
-    // Find shots with carry distance greater than the specified value
-    List<Shot> findBySessionIdAndCarryDistanceGreaterThanEqualOrderByShotNumber(Long sessionId, Double minDistance);
+    // What the club trend rollups need of a session's shots, in shot order: [session id, session date, club, carry, ball speed]
+    @Query("SELECT s.id, s.sessionDate, sh.club, sh.carryDistance, sh.ballSpeed FROM Shot sh JOIN sh.session s "
+            + "WHERE s.id = :sessionId ORDER BY sh.shotNumber, sh.id")
+    List<Object[]> findRollupValuesBySessionId(@Param("sessionId") Long sessionId);
     
-    // Find shots with total distance greater than the specified value
-    List<Shot> findBySessionIdAndTotalDistanceGreaterThanEqualOrderByShotNumber(Long sessionId, Double minDistance);
+    // The same for every session of a player ("" for none) dated in [from, to), in session order
+    @Query("SELECT s.id, s.sessionDate, sh.club, sh.carryDistance, sh.ballSpeed FROM Shot sh JOIN sh.session s "
+            + "WHERE COALESCE(s.player, '') = :player AND s.sessionDate >= :from AND s.sessionDate < :to "
+            + "ORDER BY s.sessionDate, s.id, sh.shotNumber, sh.id")
+    List<Object[]> findRollupValuesByPlayer(@Param("player") String player, @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
 }
\ No newline at end of file
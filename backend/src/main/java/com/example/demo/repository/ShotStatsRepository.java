@@ -0,0 +1,68 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ClubAggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Session statistics computed in the database with one GROUP BY club query, so no Shot entity is loaded.
+ */
+@Repository
+public class ShotStatsRepository {
+
+    private static final String SELECT_SQL = """
+            SELECT club,
+                   COUNT(*) AS shots,
+                   COUNT(carry_distance) AS carry_count,
+                   SUM(carry_distance) AS carry_sum,
+                   STDDEV_SAMP(carry_distance) AS carry_stddev,
+                   PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY carry_distance) AS carry_median,
+                   COUNT(total_distance) AS total_count,
+                   SUM(total_distance) AS total_sum,
+                   STDDEV_SAMP(total_distance) AS total_stddev,
+                   PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY total_distance) AS total_median,
+                   COUNT(ball_speed) AS ball_speed_count,
+                   SUM(ball_speed) AS ball_speed_sum
+            FROM shot
+            WHERE session_id = :sessionId""";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * One aggregate row per club (including a null/empty club group) for all of the session's shots.
+     * Filtered statistics are aggregated from ShotColumnStore instead.
+     */
+    public List<ClubAggregate> aggregateByClub(Long sessionId) {
+        return jdbcTemplate.query(SELECT_SQL + " GROUP BY club", new MapSqlParameterSource("sessionId", sessionId),
+                ShotStatsRepository::mapRow);
+    }
+
+    private static ClubAggregate mapRow(ResultSet row, int rowNumber) throws SQLException {
+        ClubAggregate aggregate = new ClubAggregate();
+        aggregate.setClub(row.getString("club"));
+        aggregate.setShots(row.getLong("shots"));
+        aggregate.setCarryCount(row.getLong("carry_count"));
+        aggregate.setCarrySum(row.getDouble("carry_sum"));
+        aggregate.setCarryStdDev(nullableDouble(row, "carry_stddev"));
+        aggregate.setCarryMedian(nullableDouble(row, "carry_median"));
+        aggregate.setTotalCount(row.getLong("total_count"));
+        aggregate.setTotalSum(row.getDouble("total_sum"));
+        aggregate.setTotalStdDev(nullableDouble(row, "total_stddev"));
+        aggregate.setTotalMedian(nullableDouble(row, "total_median"));
+        aggregate.setBallSpeedCount(row.getLong("ball_speed_count"));
+        aggregate.setBallSpeedSum(row.getDouble("ball_speed_sum"));
+        return aggregate;
+    }
+
+    private static Double nullableDouble(ResultSet row, String column) throws SQLException {
+        double value = row.getDouble(column);
+        return row.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AnalyticsQuery;
+import com.example.demo.model.AnalyticsQuery.Dimension;
+import com.example.demo.model.ClubAggregate;
+import com.example.demo.model.ClubSummary;
+import com.example.demo.model.MetricMoments;
+import com.example.demo.model.QuantileSketch;
+import com.example.demo.model.SessionSummary;
+import com.example.demo.model.ShotColumns;
+import com.example.demo.model.ShotMetric;
+import com.example.demo.model.ShotStatsFilter;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.SessionSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Statistics over the shots of many sessions, grouped by club, session, month and/or source type.
+ * Works on the in-memory ShotColumnStore: each session's rows are one partition, partitions are aggregated
+ * in parallel on a fork-join pool, and the partial results (MetricMoments) are merged exactly.
+ */
+@Service
+public class AnalyticsService {
+
+    // A fork-join task aggregates its sessions itself once they hold at most this many shots
+    private static final int SPLIT_THRESHOLD = 32 * 1024;
+
+    @Autowired
+    private ShotColumnStore shotColumnStore;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionSummaryRepository sessionSummaryRepository;
+
+    // Defaults to one thread per core
+    @Value("${golf.analytics.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    /**
+     * What a shot's group can depend on besides its club
+     */
+    record SessionAttributes(LocalDateTime sessionDate, String sourceType) {
+    }
+
+    @PostConstruct
+    void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdown();
+    }
+
+    /**
+     * Summarize the query's metrics over the selected sessions' shots, per group
+     *
+     * @return "sessions" (sessions included), "shots" (shots included) and "groups": one entry per group, sorted by
+     *         dimension values, holding each dimension's value, "shots", and per metric its count, mean, stdDev, min and max
+     */
+    public Map<String, Object> analyze(AnalyticsQuery query) {
+        Map<Long, SessionAttributes> sessions = sessionAttributes();
+        ShotColumns columns = shotColumnStore.getColumns(query.sessionIds());
+        int[] partitions = partitions(columns, sessions, query);
+        Map<List<Object>, Group> groups = aggregate(columns, partitions, sessions, query);
+
+        long shots = 0;
+        List<Map<String, Object>> results = new ArrayList<>(groups.size());
+        for (Map.Entry<List<Object>, Group> entry : sortedByKey(groups)) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (int i = 0; i < query.groupBy().size(); i++) {
+                result.put(query.groupBy().get(i).getProperty(), entry.getKey().get(i));
+            }
+            Group group = entry.getValue();
+            result.put("shots", group.shots);
+            for (int m = 0; m < query.metrics().size(); m++) {
+                result.put(query.metrics().get(m).getProperty(), toMap(group.moments[m]));
+            }
+            results.add(result);
+            shots += group.shots;
+        }
+
+        Map<String, Object> analysis = new HashMap<>();
+        analysis.put("sessions", partitions.length);
+        analysis.put("shots", shots);
+        analysis.put("groups", results);
+        return analysis;
+    }
+
+    /**
+     * Percentiles of the query's metrics over the selected sessions' shots, per group, merged from the quantile
+     * sketches stored with each session's summary; no shots are read. Only ClubSummary.SKETCHED_METRICS can be
+     * asked for, and shots without a club are left out, as they have no club summary. Each value is within the
+     * rank bound documented on QuantileSketch. Sessions summarized before sketches were stored fall back to
+     * sketching their shots in the ShotColumnStore.
+     *
+     * @param percentiles Percentiles to report, each between 0 and 100
+     * @return "sessions" (sessions included) and "groups": one entry per group, sorted by dimension values, holding
+     *         each dimension's value and per metric its count and a value per percentile, e.g. "p90"
+     * @throws IllegalArgumentException If a metric has no sketch or a percentile is out of range
+     */
+    public Map<String, Object> percentiles(AnalyticsQuery query, List<Double> percentiles) {
+        for (ShotMetric metric : query.metrics()) {
+            if (!ClubSummary.SKETCHED_METRICS.contains(metric)) {
+                throw new IllegalArgumentException("No percentiles for " + metric.getProperty() + " (use "
+                        + ClubSummary.SKETCHED_METRICS.stream().map(ShotMetric::getProperty).collect(Collectors.joining(", ")) + ")");
+            }
+        }
+        if (percentiles.isEmpty()) {
+            throw new IllegalArgumentException("At least one percentile is required");
+        }
+        for (double percentile : percentiles) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentiles must be between 0 and 100: " + percentile);
+            }
+        }
+
+        Map<Long, SessionAttributes> sessions = sessionAttributes();
+        List<Long> selected = new ArrayList<>();
+        sessions.forEach((sessionId, attributes) -> {
+            if (selects(query, sessionId, attributes)) {
+                selected.add(sessionId);
+            }
+        });
+        Map<Long, SessionSummary> summaries = new HashMap<>();
+        for (SessionSummary summary : sessionSummaryRepository.findWithClubsBySessionIdIn(selected)) {
+            summaries.put(summary.getSessionId(), summary);
+        }
+
+        int metricCount = query.metrics().size();
+        Map<List<Object>, QuantileSketch[]> groups = new HashMap<>();
+        for (Long sessionId : selected) {
+            for (Map.Entry<String, QuantileSketch[]> club : clubSketches(sessionId, summaries.get(sessionId), query.metrics()).entrySet()) {
+                if (query.club() != null && !query.club().equals(club.getKey())) continue;
+
+                List<Object> key = key(query.groupBy(), club.getKey(), sessionId, sessions.get(sessionId));
+                QuantileSketch[] merged = groups.computeIfAbsent(key, k -> {
+                    QuantileSketch[] sketches = new QuantileSketch[metricCount];
+                    Arrays.setAll(sketches, m -> new QuantileSketch());
+                    return sketches;
+                });
+                for (int m = 0; m < metricCount; m++) {
+                    merged[m].merge(club.getValue()[m]);
+                }
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(groups.size());
+        for (Map.Entry<List<Object>, QuantileSketch[]> entry : sortedByKey(groups)) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (int i = 0; i < query.groupBy().size(); i++) {
+                result.put(query.groupBy().get(i).getProperty(), entry.getKey().get(i));
+            }
+            for (int m = 0; m < metricCount; m++) {
+                QuantileSketch sketch = entry.getValue()[m];
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("count", sketch.getCount());
+                for (double percentile : percentiles) {
+                    values.put(percentileName(percentile), sketch.quantile(percentile / 100));
+                }
+                result.put(query.metrics().get(m).getProperty(), values);
+            }
+            results.add(result);
+        }
+
+        Map<String, Object> analysis = new HashMap<>();
+        analysis.put("sessions", selected.size());
+        analysis.put("groups", results);
+        return analysis;
+    }
+
+    /**
+     * A session's sketches of the metrics per club: the stored ones, or sketches of its shots if any is missing
+     */
+    private Map<String, QuantileSketch[]> clubSketches(Long sessionId, SessionSummary summary, List<ShotMetric> metrics) {
+        Map<String, QuantileSketch[]> clubs = new HashMap<>();
+        if (summary != null && summary.getClubs().values().stream()
+                .allMatch(club -> metrics.stream().allMatch(club::hasSketch))) {
+            summary.getClubs().forEach((club, clubSummary) ->
+                    clubs.put(club, metrics.stream().map(clubSummary::getSketch).toArray(QuantileSketch[]::new)));
+            return clubs;
+        }
+
+        for (ClubAggregate aggregate : shotColumnStore.aggregateByClub(sessionId, ShotStatsFilter.NONE)) {
+            if (aggregate.getClub() == null || aggregate.getClub().isEmpty()) continue;
+            QuantileSketch[] sketches = new QuantileSketch[metrics.size()];
+            for (int m = 0; m < sketches.length; m++) {
+                sketches[m] = aggregate.getSketch(metrics.get(m));
+            }
+            clubs.put(aggregate.getClub(), sketches);
+        }
+        return clubs;
+    }
+
+    /**
+     * "p" and the percentile without a trailing ".0", e.g. p90 or p99.5
+     */
+    private static String percentileName(double percentile) {
+        return "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+    }
+
+    private Map<Long, SessionAttributes> sessionAttributes() {
+        Map<Long, SessionAttributes> sessions = new HashMap<>();
+        for (Object[] row : sessionRepository.findDatesAndSourceTypes()) {
+            sessions.put((Long) row[0], new SessionAttributes((LocalDateTime) row[1], (String) row[2]));
+        }
+        return sessions;
+    }
+
+    /**
+     * Whether the query includes the session, by id and date
+     */
+    private static boolean selects(AnalyticsQuery query, long sessionId, SessionAttributes attributes) {
+        if (!query.sessionIds().isEmpty() && !query.sessionIds().contains(sessionId)) return false;
+        if (query.from() != null || query.to() != null) {
+            LocalDateTime date = attributes.sessionDate();
+            if (date == null) return false;
+            if (query.from() != null && date.isBefore(query.from())) return false;
+            if (query.to() != null && !date.isBefore(query.to())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The group key of a club's shots in a session: its values of the dimensions, in order
+     */
+    private static List<Object> key(List<Dimension> groupBy, String club, long sessionId, SessionAttributes attributes) {
+        Object[] key = new Object[groupBy.size()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = switch (groupBy.get(i)) {
+                case CLUB -> club;
+                case SESSION -> sessionId;
+                case MONTH -> attributes.sessionDate() != null ? YearMonth.from(attributes.sessionDate()).toString() : null;
+                case SOURCE_TYPE -> attributes.sourceType();
+            };
+        }
+        // Arrays.asList, unlike List.of, allows the null values a dimension can have
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Indexes in the columns of the sessions the query selects. Sessions no longer in the database are left out.
+     */
+    static int[] partitions(ShotColumns columns, Map<Long, SessionAttributes> sessions, AnalyticsQuery query) {
+        int[] selected = new int[columns.sessionCount()];
+        int count = 0;
+        for (int session = 0; session < columns.sessionCount(); session++) {
+            long sessionId = columns.sessionId(session);
+            SessionAttributes attributes = sessions.get(sessionId);
+            if (attributes == null || !selects(query, sessionId, attributes)) continue;
+            selected[count++] = session;
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Groups over the given partitions, computed in parallel
+     */
+    Map<List<Object>, Group> aggregate(ShotColumns columns, int[] partitions, Map<Long, SessionAttributes> sessions,
+                                       AnalyticsQuery query) {
+        int club = query.club() != null ? columns.clubCode(query.club()) : -1;
+        if (partitions.length == 0 || (query.club() != null && club < 0)) {
+            return new HashMap<>();
+        }
+        return pool.invoke(new AggregateTask(columns, partitions, 0, partitions.length, sessions, query, club));
+    }
+
+    /**
+     * Aggregates partitions [from, to), splitting in half while there is more than SPLIT_THRESHOLD shots of work
+     */
+    private static class AggregateTask extends RecursiveTask<Map<List<Object>, Group>> {
+
+        private final ShotColumns columns;
+        private final int[] partitions;
+        private final int from;
+        private final int to;
+        private final Map<Long, SessionAttributes> sessions;
+        private final AnalyticsQuery query;
+        private final int club;
+
+        AggregateTask(ShotColumns columns, int[] partitions, int from, int to, Map<Long, SessionAttributes> sessions,
+                      AnalyticsQuery query, int club) {
+            this.columns = columns;
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+            this.sessions = sessions;
+            this.query = query;
+            this.club = club;
+        }
+
+        @Override
+        protected Map<List<Object>, Group> compute() {
+            long rows = 0;
+            for (int i = from; i < to && rows <= SPLIT_THRESHOLD; i++) {
+                rows += columns.sessionEnd(partitions[i]) - columns.sessionStart(partitions[i]);
+            }
+
+            if (to - from == 1 || rows <= SPLIT_THRESHOLD) {
+                Map<List<Object>, Group> groups = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    merge(groups, aggregatePartition(partitions[i]));
+                }
+                return groups;
+            }
+
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(columns, partitions, from, middle, sessions, query, club);
+            left.fork();
+            Map<List<Object>, Group> right = new AggregateTask(columns, partitions, middle, to, sessions, query, club).compute();
+            Map<List<Object>, Group> groups = left.join();
+            merge(groups, right);
+            return groups;
+        }
+
+        /**
+         * One session's groups. Within a session only the club can differ between groups, so rows are bucketed
+         * by club code and each metric column is then read front to back.
+         */
+        private Map<List<Object>, Group> aggregatePartition(int session) {
+            int start = columns.sessionStart(session);
+            int end = columns.sessionEnd(session);
+            short[] clubs = columns.clubs();
+            boolean byClub = query.groupBy().contains(Dimension.CLUB);
+            int metricCount = query.metrics().size();
+
+            Group[] groups = new Group[byClub ? columns.clubCount() : 1];
+            for (int row = start; row < end; row++) {
+                if (club >= 0 && clubs[row] != club) continue;
+                int slot = byClub ? clubs[row] : 0;
+                if (groups[slot] == null) {
+                    groups[slot] = new Group(metricCount);
+                }
+                groups[slot].shots++;
+            }
+
+            for (int m = 0; m < metricCount; m++) {
+                double[] values = columns.metric(query.metrics().get(m));
+                for (int row = start; row < end; row++) {
+                    if (club >= 0 && clubs[row] != club) continue;
+                    double value = values[row];
+                    if (!Double.isNaN(value)) {
+                        groups[byClub ? clubs[row] : 0].moments[m].add(value);
+                    }
+                }
+            }
+
+            long sessionId = columns.sessionId(session);
+            SessionAttributes attributes = sessions.get(sessionId);
+            Map<List<Object>, Group> keyed = new HashMap<>();
+            for (int slot = 0; slot < groups.length; slot++) {
+                if (groups[slot] == null) continue;
+                keyed.put(key(query.groupBy(), byClub ? columns.clubName(slot) : null, sessionId, attributes), groups[slot]);
+            }
+            return keyed;
+        }
+    }
+
+    private static void merge(Map<List<Object>, Group> into, Map<List<Object>, Group> from) {
+        from.forEach((key, group) -> into.merge(key, group, Group::merge));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<Map.Entry<List<Object>, T>> sortedByKey(Map<List<Object>, T> groups) {
+        Comparator<Object> values = Comparator.nullsFirst((a, b) -> ((Comparable) a).compareTo(b));
+        List<Map.Entry<List<Object>, T>> entries = new ArrayList<>(groups.entrySet());
+        entries.sort((a, b) -> {
+            for (int i = 0; i < a.getKey().size(); i++) {
+                int order = values.compare(a.getKey().get(i), b.getKey().get(i));
+                if (order != 0) return order;
+            }
+            return 0;
+        });
+        return entries;
+    }
+
+    private static Map<String, Object> toMap(MetricMoments moments) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", moments.getCount());
+        values.put("mean", moments.getMean());
+        values.put("stdDev", moments.getStdDev());
+        values.put("min", moments.getMin());
+        values.put("max", moments.getMax());
+        return values;
+    }
+
+    /**
+     * Shot count and per-metric moments of one group
+     */
+    static class Group {
+
+        long shots;
+        final MetricMoments[] moments;
+
+        Group(int metrics) {
+            moments = new MetricMoments[metrics];
+            for (int m = 0; m < metrics; m++) {
+                moments[m] = new MetricMoments();
+            }
+        }
+
+        Group merge(Group other) {
+            shots += other.shots;
+            for (int m = 0; m < moments.length; m++) {
+                moments[m].merge(other.moments[m]);
+            }
+            return this;
+        }
+    }
+}
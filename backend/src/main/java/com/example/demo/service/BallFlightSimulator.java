@@ -0,0 +1,339 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Shot;
+import com.example.demo.model.Trajectory;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ball flight from launch conditions: gravity, aerodynamic drag and Magnus lift from the spin, integrated with
+ * fourth-order Runge-Kutta in fixed steps until the ball comes back to the ground. Only the carry is modelled;
+ * bounce and roll are not.
+ * <p>
+ * A batch of shots is integrated together: each quantity is an array with one entry per shot, and every step
+ * runs plain loops over those arrays, which the JIT can unroll and vectorize. The lift and drag coefficients
+ * are a fit to published wind tunnel data for golf balls; on the Awesome Golf sample the simulated carry is
+ * within about 5% of the measured one on average, while the curve of sliced and hooked shots comes out larger
+ * than the simulator there reports.
+ * <p>
+ * Internally x points down the target line, y up and z left, in SI units.
+ */
+public final class BallFlightSimulator {
+
+    /** Changes whenever the model does, so clients cannot keep trajectories from an earlier one */
+    public static final int VERSION = 1;
+
+    private static final double MASS = 0.04593;                // kg
+    private static final double RADIUS = 0.021335;             // m
+    private static final double AREA = Math.PI * RADIUS * RADIUS;
+    private static final double GRAVITY = 9.81;                // m/s²
+    private static final double SPIN_DECAY_TIME = 25;          // s, spin falls off as exp(-t / SPIN_DECAY_TIME)
+
+    private static final double STEP = 0.01;                   // s
+    private static final int MAX_STEPS = 1500;                 // 15 s, longer than any real flight
+
+    private static final double METERS_PER_SECOND_PER_MPH = 0.44704;
+    private static final double METERS_PER_YARD = 0.9144;
+    private static final double METERS_PER_FOOT = 0.3048;
+
+    // Standard atmosphere at sea level, used without a measured air density
+    private static final double SEA_LEVEL_PRESSURE = 101325;   // Pa
+    private static final double AIR_GAS_CONSTANT = 287.05;     // J/(kg K)
+    private static final double STANDARD_TEMPERATURE = 59;     // °F
+
+    private BallFlightSimulator() {
+    }
+
+    /**
+     * Simulate each shot's flight. A shot needs a ball speed, launch angle and spin rate; launch direction and
+     * spin axis count as 0 when missing. The air density is the shot's own, or else follows from its temperature
+     * and altitude (59°F and sea level when missing).
+     *
+     * @param points Points on each path, at least 2
+     * @return One trajectory per shot, in order; null for a shot without the launch conditions
+     */
+    public static Trajectory[] simulate(List<Shot> shots, int points) {
+        Batch batch = new Batch(shots);
+        batch.run();
+        Trajectory[] trajectories = new Trajectory[shots.size()];
+        for (int i = 0; i < batch.size; i++) {
+            trajectories[batch.shotIndex[i]] = batch.trajectory(i, points);
+        }
+        return trajectories;
+    }
+
+    /**
+     * Air density in kg/m³ for a temperature in °F and an altitude in feet, from the standard atmosphere
+     */
+    static double airDensity(double temperature, double altitude) {
+        double pressure = SEA_LEVEL_PRESSURE * Math.pow(1 - 2.25577e-5 * altitude * METERS_PER_FOOT, 5.25588);
+        double kelvin = (temperature - 32) * 5 / 9 + 273.15;
+        return pressure / (AIR_GAS_CONSTANT * kelvin);
+    }
+
+    /**
+     * The state of every shot in a batch, one array entry per shot that can be simulated
+     */
+    private static final class Batch {
+
+        final int size;
+        final int[] shotIndex;
+
+        // Constant per shot: initial spin in rad/s, spin axis as a unit vector (0, axisY, axisZ), and
+        // ρA / 2m, which turns a force coefficient times speed squared into an acceleration
+        final double[] spin;
+        final double[] axisY;
+        final double[] axisZ;
+        final double[] airFactor;
+
+        // Position and velocity
+        final double[] px, py, pz;
+        final double[] vx, vy, vz;
+
+        // Runge-Kutta scratch: trial velocity, its acceleration, and the weighted sums of the stages
+        final double[] tx, ty, tz;
+        final double[] ax, ay, az;
+        final double[] sumPx, sumPy, sumPz;
+        final double[] sumVx, sumVy, sumVz;
+
+        // Path of each shot, one point per step and the landing point last, in output units
+        final float[][] pathX, pathY, pathZ;
+        final int[] pathLength;
+        final double[] flightTime;
+        final double[] apex;
+        final boolean[] landed;
+
+        Batch(List<Shot> shots) {
+            int[] index = new int[shots.size()];
+            int count = 0;
+            for (int i = 0; i < shots.size(); i++) {
+                Shot shot = shots.get(i);
+                if (shot.getBallSpeed() != null && shot.getBallSpeed() > 0 && shot.getLaunchAngle() != null && shot.getSpinRate() != null) {
+                    index[count++] = i;
+                }
+            }
+            size = count;
+            shotIndex = Arrays.copyOf(index, count);
+
+            spin = new double[size];
+            axisY = new double[size];
+            axisZ = new double[size];
+            airFactor = new double[size];
+            px = new double[size];
+            py = new double[size];
+            pz = new double[size];
+            vx = new double[size];
+            vy = new double[size];
+            vz = new double[size];
+            tx = new double[size];
+            ty = new double[size];
+            tz = new double[size];
+            ax = new double[size];
+            ay = new double[size];
+            az = new double[size];
+            sumPx = new double[size];
+            sumPy = new double[size];
+            sumPz = new double[size];
+            sumVx = new double[size];
+            sumVy = new double[size];
+            sumVz = new double[size];
+            pathX = new float[size][];
+            pathY = new float[size][];
+            pathZ = new float[size][];
+            pathLength = new int[size];
+            flightTime = new double[size];
+            apex = new double[size];
+            landed = new boolean[size];
+
+            for (int i = 0; i < size; i++) {
+                Shot shot = shots.get(shotIndex[i]);
+                double speed = shot.getBallSpeed() * METERS_PER_SECOND_PER_MPH;
+                double elevation = Math.toRadians(shot.getLaunchAngle());
+                // Launch direction and spin axis are positive to the right, which is -z
+                double direction = Math.toRadians(valueOrZero(shot.getLaunchDirection()));
+                double axis = Math.toRadians(valueOrZero(shot.getSpinAxis()));
+
+                vx[i] = speed * Math.cos(elevation) * Math.cos(direction);
+                vy[i] = speed * Math.sin(elevation);
+                vz[i] = -speed * Math.cos(elevation) * Math.sin(direction);
+                spin[i] = shot.getSpinRate() * 2 * Math.PI / 60;
+                axisY[i] = Math.sin(axis);
+                axisZ[i] = Math.cos(axis);
+                airFactor[i] = density(shot) * AREA / (2 * MASS);
+
+                pathX[i] = new float[256];
+                pathY[i] = new float[256];
+                pathZ[i] = new float[256];
+                pathLength[i] = 1;
+            }
+        }
+
+        void run() {
+            int flying = size;
+            double h = STEP;
+            for (int step = 0; step < MAX_STEPS && flying > 0; step++) {
+                double t = step * h;
+                double start = Math.exp(-t / SPIN_DECAY_TIME);
+                double middle = Math.exp(-(t + h / 2) / SPIN_DECAY_TIME);
+                double end = Math.exp(-(t + h) / SPIN_DECAY_TIME);
+
+                accelerate(start, vx, vy, vz);
+                for (int i = 0; i < size; i++) {
+                    sumPx[i] = vx[i];
+                    sumPy[i] = vy[i];
+                    sumPz[i] = vz[i];
+                    sumVx[i] = ax[i];
+                    sumVy[i] = ay[i];
+                    sumVz[i] = az[i];
+                    tx[i] = vx[i] + h / 2 * ax[i];
+                    ty[i] = vy[i] + h / 2 * ay[i];
+                    tz[i] = vz[i] + h / 2 * az[i];
+                }
+                accelerate(middle, tx, ty, tz);
+                for (int i = 0; i < size; i++) {
+                    sumPx[i] += 2 * tx[i];
+                    sumPy[i] += 2 * ty[i];
+                    sumPz[i] += 2 * tz[i];
+                    sumVx[i] += 2 * ax[i];
+                    sumVy[i] += 2 * ay[i];
+                    sumVz[i] += 2 * az[i];
+                    tx[i] = vx[i] + h / 2 * ax[i];
+                    ty[i] = vy[i] + h / 2 * ay[i];
+                    tz[i] = vz[i] + h / 2 * az[i];
+                }
+                accelerate(middle, tx, ty, tz);
+                for (int i = 0; i < size; i++) {
+                    sumPx[i] += 2 * tx[i];
+                    sumPy[i] += 2 * ty[i];
+                    sumPz[i] += 2 * tz[i];
+                    sumVx[i] += 2 * ax[i];
+                    sumVy[i] += 2 * ay[i];
+                    sumVz[i] += 2 * az[i];
+                    tx[i] = vx[i] + h * ax[i];
+                    ty[i] = vy[i] + h * ay[i];
+                    tz[i] = vz[i] + h * az[i];
+                }
+                accelerate(end, tx, ty, tz);
+                for (int i = 0; i < size; i++) {
+                    px[i] += h / 6 * (sumPx[i] + tx[i]);
+                    py[i] += h / 6 * (sumPy[i] + ty[i]);
+                    pz[i] += h / 6 * (sumPz[i] + tz[i]);
+                    vx[i] += h / 6 * (sumVx[i] + ax[i]);
+                    vy[i] += h / 6 * (sumVy[i] + ay[i]);
+                    vz[i] += h / 6 * (sumVz[i] + az[i]);
+                }
+
+                // Shots already down keep being integrated with the rest, which keeps the loops above branch-free
+                for (int i = 0; i < size; i++) {
+                    if (!landed[i]) {
+                        flying -= record(i, t + h) ? 1 : 0;
+                    }
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                if (!landed[i]) {
+                    flightTime[i] = MAX_STEPS * h;
+                }
+            }
+        }
+
+        /**
+         * Acceleration (into ax, ay, az) of every shot at the given velocities, with the spin decayed by the given factor
+         */
+        private void accelerate(double spinDecay, double[] ux, double[] uy, double[] uz) {
+            for (int i = 0; i < size; i++) {
+                double speed = Math.sqrt(ux[i] * ux[i] + uy[i] * uy[i] + uz[i] * uz[i]);
+                double spinFactor = RADIUS * spin[i] * spinDecay / speed;
+                double lift = spinFactor >= 0.3 ? 0.25 : Math.min(0.25, 1.99 * spinFactor - 3.25 * spinFactor * spinFactor);
+                double drag = 0.2 + 0.2 * spinFactor;
+
+                // Lift is perpendicular to both the spin axis and the velocity
+                double cx = axisY[i] * uz[i] - axisZ[i] * uy[i];
+                double cy = axisZ[i] * ux[i];
+                double cz = -axisY[i] * ux[i];
+                double norm = Math.sqrt(cx * cx + cy * cy + cz * cz);
+                double liftScale = norm > 0 ? airFactor[i] * lift * speed * speed / norm : 0;
+                double dragScale = airFactor[i] * drag * speed;
+
+                ax[i] = liftScale * cx - dragScale * ux[i];
+                ay[i] = liftScale * cy - dragScale * uy[i] - GRAVITY;
+                az[i] = liftScale * cz - dragScale * uz[i];
+            }
+        }
+
+        /**
+         * Add the shot's position at time t to its path, or its landing point if it has gone below the ground
+         *
+         * @return Whether the shot has landed
+         */
+        private boolean record(int i, double t) {
+            int last = pathLength[i] - 1;
+            double x = px[i] / METERS_PER_YARD;
+            double y = py[i] / METERS_PER_FOOT;
+            double z = -pz[i] / METERS_PER_YARD;
+            if (py[i] < 0) {
+                // Back to the previous point, in proportion to how far each is from the ground
+                double above = pathY[i][last];
+                double fraction = above / (above - y);
+                x = pathX[i][last] + fraction * (x - pathX[i][last]);
+                z = pathZ[i][last] + fraction * (z - pathZ[i][last]);
+                y = 0;
+                flightTime[i] = t - STEP + fraction * STEP;
+                landed[i] = true;
+            }
+
+            if (pathLength[i] == pathX[i].length) {
+                pathX[i] = Arrays.copyOf(pathX[i], pathLength[i] * 2);
+                pathY[i] = Arrays.copyOf(pathY[i], pathLength[i] * 2);
+                pathZ[i] = Arrays.copyOf(pathZ[i], pathLength[i] * 2);
+            }
+            pathX[i][pathLength[i]] = (float) x;
+            pathY[i][pathLength[i]] = (float) y;
+            pathZ[i][pathLength[i]] = (float) z;
+            pathLength[i]++;
+            apex[i] = Math.max(apex[i], y);
+            return landed[i];
+        }
+
+        /**
+         * The shot's result, its path resampled to the given number of points evenly spaced in time
+         */
+        Trajectory trajectory(int i, int points) {
+            float[] x = new float[points];
+            float[] y = new float[points];
+            float[] z = new float[points];
+            int last = pathLength[i] - 1;
+            for (int p = 0; p < points; p++) {
+                // Path point j was recorded at j * STEP, except the landing point at flightTime
+                double t = flightTime[i] * p / (points - 1);
+                int j = Math.min((int) (t / STEP), Math.max(last - 1, 0));
+                int k = Math.min(j + 1, last);
+                double start = j * STEP;
+                double end = k == last ? flightTime[i] : k * STEP;
+                double fraction = end > start ? Math.min(1, (t - start) / (end - start)) : 0;
+                x[p] = (float) round(pathX[i][j] + fraction * (pathX[i][k] - pathX[i][j]));
+                y[p] = (float) round(pathY[i][j] + fraction * (pathY[i][k] - pathY[i][j]));
+                z[p] = (float) round(pathZ[i][j] + fraction * (pathZ[i][k] - pathZ[i][j]));
+            }
+            return new Trajectory(round(pathX[i][last]), round(pathZ[i][last]), round(apex[i]), round(flightTime[i]), x, y, z);
+        }
+
+        private static double density(Shot shot) {
+            if (shot.getAirDensity() != null && shot.getAirDensity() > 0) {
+                return shot.getAirDensity();
+            }
+            double temperature = shot.getTemperature() != null ? shot.getTemperature() : STANDARD_TEMPERATURE;
+            return airDensity(temperature, valueOrZero(shot.getAltitude()));
+        }
+
+        private static double valueOrZero(Double value) {
+            return value != null ? value : 0;
+        }
+
+        // Hundredths of a yard or foot are well below what any launch monitor resolves
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
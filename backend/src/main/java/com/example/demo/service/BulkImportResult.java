@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import com.example.demo.service.csv.ParseListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The outcome of one file in a bulk import, serialized into the import response
+ */
+public class BulkImportResult implements ParseListener {
+
+    public enum Status {
+        CREATED, DUPLICATE, FAILED
+    }
+
+    private final String fileName;
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    private String source;
+    private Status status;
+    private Long sessionId;
+    private String error;
+
+    public BulkImportResult(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    @Override
+    public void rowRejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    void created(Long sessionId) {
+        this.status = Status.CREATED;
+        this.sessionId = sessionId;
+    }
+
+    void duplicateOf(Long sessionId) {
+        this.status = Status.DUPLICATE;
+        this.sessionId = sessionId;
+    }
+
+    void failed(String error) {
+        this.status = Status.FAILED;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    void setSource(String source) {
+        this.source = source;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Session;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ShotCsvParser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many CSV exports at once, each file (or ZIP entry) becoming its own session.
+ * Files are parsed and saved in parallel on a fixed pool; its size also caps the database connections in use.
+ * Every file is read into memory before the first import starts, so an upload whose files (inflated, for ZIP
+ * entries) add up to more than golf.bulk.max-total-size bytes, or number more than golf.bulk.max-entries,
+ * is rejected as a whole and nothing is imported.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private ShotCsvParser shotCsvParser;
+
+    // Defaults to one thread per core, at most 8 so the connection pool (10) keeps room for other requests
+    @Value("${golf.bulk.threads:0}")
+    private int threads;
+
+    @Value("${golf.bulk.max-entry-size:52428800}")
+    private long maxEntrySize;
+
+    @Value("${golf.bulk.max-total-size:209715200}")
+    private long maxTotalSize;
+
+    @Value("${golf.bulk.max-entries:1000}")
+    private int maxEntries;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Import every CSV among the uploaded files, expanding ZIP archives
+     *
+     * @param files CSV files and/or ZIP archives of CSV files
+     * @param location Location for every created session
+     * @param source GARMIN_R10 or AWESOME_GOLF to force a format; null to detect it per file from the header row
+     * @return One result per CSV file, in upload order
+     * @throws IllegalArgumentException If no CSV file was found
+     */
+    public List<BulkImportResult> importFiles(List<MultipartFile> files, String location, CsvFormat source) throws IOException {
+        CollectedFiles collected = new CollectedFiles();
+        for (MultipartFile file : files) {
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload.csv";
+            if (name.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                readZip(file.getInputStream(), collected);
+            } else if (!file.isEmpty()) {
+                collected.add(name);
+                collected.counted(name, file.getSize());
+                collected.contents.add(file.getBytes());
+            }
+        }
+        List<String> names = collected.names;
+        List<byte[]> contents = collected.contents;
+
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No CSV files found in the upload");
+        }
+
+        // Queue every file, then collect the results in upload order
+        List<Future<BulkImportResult>> futures = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            byte[] content = contents.get(i);
+            futures.add(executor.submit(() -> importFile(name, content, location, source)));
+        }
+        contents.clear();
+
+        List<BulkImportResult> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                BulkImportResult result = new BulkImportResult(names.get(i));
+                result.failed(e.getCause().getMessage());
+                results.add(result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Bulk import interrupted", e);
+            }
+        }
+        return results;
+    }
+
+    private BulkImportResult importFile(String name, byte[] content, String location, CsvFormat source) {
+        BulkImportResult result = new BulkImportResult(name);
+        try {
+            CsvFormat format = source;
+            if (format == null) {
+                Optional<CsvFormat> detected = shotCsvParser.detectFormat(ByteBuffer.wrap(content));
+                if (detected.isEmpty()) {
+                    throw new IllegalArgumentException("Unrecognised CSV header; not a Garmin R10 or Awesome Golf export");
+                }
+                format = detected.get();
+            }
+            result.setSource(format.name());
+
+            Session session = csvService.processCsv(format, ByteBuffer.wrap(content), titleFor(name), location, result);
+            result.created(session.getId());
+        } catch (DuplicateUploadException e) {
+            result.duplicateOf(e.getSessionId());
+        } catch (Exception e) {
+            logger.warn("Bulk import of " + name + " failed: " + e.getMessage());
+            result.failed(e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Read the CSV entries of a ZIP archive, skipping folders and macOS metadata
+     */
+    private void readZip(InputStream input, CollectedFiles collected) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(input)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                String fileName = name.substring(name.lastIndexOf('/') + 1);
+                if (entry.isDirectory() || name.startsWith("__MACOSX/") || fileName.startsWith(".")
+                        || !fileName.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                    continue;
+                }
+                collected.add(fileName);
+                collected.contents.add(readEntry(zip, fileName, collected));
+            }
+        }
+    }
+
+    private byte[] readEntry(ZipInputStream zip, String name, CollectedFiles collected) throws IOException {
+        // Declared sizes can lie, so count the bytes actually inflated
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = zip.read(buffer)) > 0) {
+            if (content.size() + read > maxEntrySize) {
+                throw new IllegalArgumentException("ZIP entry " + name + " is larger than " + maxEntrySize + " bytes");
+            }
+            collected.counted(name, read);
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * The files of one upload, checked against the entry count and total size limits as they are read
+     */
+    private class CollectedFiles {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<byte[]> contents = new ArrayList<>();
+        private long totalSize;
+
+        void add(String name) {
+            if (names.size() >= maxEntries) {
+                throw new IllegalArgumentException("Upload holds more than " + maxEntries + " CSV files");
+            }
+            names.add(name);
+        }
+
+        void counted(String name, long bytes) {
+            totalSize += bytes;
+            if (totalSize > maxTotalSize) {
+                throw new IllegalArgumentException("Upload is larger than " + maxTotalSize + " bytes once unpacked (at " + name + ")");
+            }
+        }
+    }
+
+    /**
+     * Session title from the file name, without the .csv extension
+     */
+    private static String titleFor(String fileName) {
+        return fileName.replaceFirst("(?i)\\.csv$", "");
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ClubWeekRollup;
+import com.example.demo.model.Session;
+import com.example.demo.repository.ClubWeekRollupRepository;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.ShotRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Club gapping trends: per-player, per-club, per-week rollups of carry and ball speed (ClubWeekRollup).
+ * <p>
+ * Rollups are kept up to date as sessions are uploaded, edited and deleted, once the change commits, touching
+ * only the weeks involved. A session later than everything in its week is added to the week's rows; anything
+ * else (a session uploaded out of order, a deletion, a new player or date) rebuilds that one week from its
+ * shots, because min, max and the moving averages cannot be taken back out. Updates are serialized, so
+ * concurrent uploads into the same week cannot lose each other's shots.
+ * <p>
+ * A database without rollups, or one whose last update failed, is rebuilt in full on the next trend request.
+ */
+@Service
+public class ClubTrendService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClubTrendService.class);
+
+    private static final LocalDate FIRST_WEEK = LocalDate.of(1, 1, 1);
+    private static final LocalDate LAST_WEEK = LocalDate.of(9999, 12, 31);
+
+    @Autowired
+    private ClubWeekRollupRepository rollupRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Updates run after the session's own transaction has committed, so each gets a new one
+    private TransactionTemplate transactions;
+
+    // Whether an empty table has been looked for since startup
+    private volatile boolean checked;
+    // Set when an update fails, so the rollups may be missing shots
+    private volatile boolean stale;
+
+    @PostConstruct
+    void init() {
+        transactions = new TransactionTemplate(transactionManager);
+        transactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * A player's weekly carry and ball speed per club, oldest week first
+     *
+     * @param player The player, or null / empty for sessions without one
+     * @param club Only this club, or null for all
+     * @param from Weeks containing or after this day, or null
+     * @param to Weeks starting on or before this day, or null
+     * @return "player", "weeks" (rows read) and "clubs": per club, sorted by name, its "club" and "weeks",
+     *         each with weekStart, shots, and carryDistance and ballSpeed count, mean, stdDev, min, max and ewma
+     */
+    public Map<String, Object> getTrend(String player, String club, LocalDate from, LocalDate to) {
+        ensureCurrent();
+
+        String key = player != null ? player : "";
+        LocalDate first = from != null ? ClubWeekRollup.weekStart(from.atStartOfDay()) : FIRST_WEEK;
+        LocalDate last = to != null ? to : LAST_WEEK;
+        List<ClubWeekRollup> rows = club != null
+                ? rollupRepository.findByPlayerAndClubAndWeekStartBetweenOrderByWeekStartAsc(key, club, first, last)
+                : rollupRepository.findByPlayerAndWeekStartBetweenOrderByClubAscWeekStartAsc(key, first, last);
+
+        Map<String, List<Map<String, Object>>> weeksByClub = new LinkedHashMap<>();
+        for (ClubWeekRollup row : rows) {
+            weeksByClub.computeIfAbsent(row.getClub(), c -> new ArrayList<>()).add(row.toMap());
+        }
+        List<Map<String, Object>> clubs = new ArrayList<>();
+        weeksByClub.forEach((name, weeks) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("club", name);
+            entry.put("weeks", weeks);
+            clubs.add(entry);
+        });
+
+        Map<String, Object> trend = new HashMap<>();
+        trend.put("player", key);
+        trend.put("weeks", rows.size());
+        trend.put("clubs", clubs);
+        return trend;
+    }
+
+    /**
+     * Add a new session's shots once the current transaction commits (straight away without one)
+     */
+    public void sessionSaved(Long sessionId) {
+        afterCommit(() -> update(() -> addSession(sessionId)));
+    }
+
+    /**
+     * Take a deleted session's shots out of its week once the current transaction commits
+     *
+     * @param player The session's player
+     * @param sessionDate The session's date; nothing was rolled up for a session without one
+     */
+    public void sessionDeleted(String player, LocalDateTime sessionDate) {
+        if (sessionDate == null) return;
+        afterCommit(() -> update(() -> rebuildWeek(key(player), ClubWeekRollup.weekStart(sessionDate))));
+    }
+
+    /**
+     * Move an edited session's shots once the current transaction commits, if its player or date changed
+     */
+    public void sessionChanged(String oldPlayer, LocalDateTime oldDate, String newPlayer, LocalDateTime newDate) {
+        if (key(oldPlayer).equals(key(newPlayer)) && Objects.equals(oldDate, newDate)) return;
+
+        // The week it left and the week it joined, once if they are the same
+        Set<List<Object>> weeks = new LinkedHashSet<>();
+        if (oldDate != null) weeks.add(List.of(key(oldPlayer), ClubWeekRollup.weekStart(oldDate)));
+        if (newDate != null) weeks.add(List.of(key(newPlayer), ClubWeekRollup.weekStart(newDate)));
+        afterCommit(() -> update(() -> weeks.forEach(week -> rebuildWeek((String) week.get(0), (LocalDate) week.get(1)))));
+    }
+
+    /**
+     * Rebuild every rollup from the shots
+     */
+    public synchronized void rebuild() {
+        transactions.executeWithoutResult(status -> {
+            rollupRepository.deleteAllInBatch();
+            Set<List<Object>> weeks = new HashSet<>();
+            for (Object[] row : sessionRepository.findPlayersAndDates()) {
+                LocalDate week = ClubWeekRollup.weekStart((LocalDateTime) row[1]);
+                if (weeks.add(List.of(row[0], week))) {
+                    rebuildWeek((String) row[0], week);
+                }
+            }
+        });
+        stale = false;
+    }
+
+    /**
+     * Rebuild the rollups if an update failed, or if there are none yet (e.g. the first start after an upgrade)
+     */
+    private synchronized void ensureCurrent() {
+        if (stale || (!checked && rollupRepository.count() == 0)) {
+            rebuild();
+        }
+        checked = true;
+    }
+
+    private synchronized void update(Runnable change) {
+        try {
+            transactions.executeWithoutResult(status -> change.run());
+        } catch (RuntimeException e) {
+            // The rollups may now be missing shots; the next trend request rebuilds them
+            logger.error("Could not update club trend rollups: " + e.getMessage(), e);
+            stale = true;
+        }
+    }
+
+    private void addSession(Long sessionId) {
+        Session session = sessionRepository.findById(sessionId).orElse(null);
+        if (session == null || session.getSessionDate() == null) return;
+
+        String player = key(session.getPlayer());
+        LocalDate week = ClubWeekRollup.weekStart(session.getSessionDate());
+        Map<String, ClubWeekRollup> rollups = new HashMap<>();
+        for (ClubWeekRollup rollup : rollupRepository.findByPlayerAndWeekStart(player, week)) {
+            rollups.put(rollup.getClub(), rollup);
+        }
+
+        // Only a session after everything in the week can continue the moving averages
+        if (!rollups.values().stream().allMatch(rollup -> rollup.isBefore(session.getSessionDate(), sessionId))) {
+            rebuildWeek(player, week);
+            return;
+        }
+
+        add(rollups, player, week, shotRepository.findRollupValuesBySessionId(sessionId));
+        rollupRepository.saveAll(rollups.values());
+    }
+
+    private void rebuildWeek(String player, LocalDate week) {
+        rollupRepository.deleteWeek(player, week);
+        Map<String, ClubWeekRollup> rollups = new HashMap<>();
+        add(rollups, player, week, shotRepository.findRollupValuesByPlayer(player, week.atStartOfDay(), week.plusWeeks(1).atStartOfDay()));
+        rollupRepository.saveAll(rollups.values());
+    }
+
+    /**
+     * Add shot rows ([session id, session date, club, carry, ball speed], in order) to the week's rollups by club.
+     * Shots without a club are left out.
+     */
+    private static void add(Map<String, ClubWeekRollup> rollups, String player, LocalDate week, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String club = (String) row[2];
+            if (club == null || club.isEmpty()) continue;
+            rollups.computeIfAbsent(club, c -> new ClubWeekRollup(player, c, week))
+                    .add((Long) row[0], (LocalDateTime) row[1], (Double) row[3], (Double) row[4]);
+        }
+    }
+
+    private static String key(String player) {
+        return player != null ? player : "";
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
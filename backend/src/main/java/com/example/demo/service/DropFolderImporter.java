@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Session;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import com.example.demo.service.csv.ShotCsvParser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Imports CSV files dropped into a watched directory, e.g. a share the range kiosks write to.
+ * Each file is memory-mapped and parsed in place, its format detected from the header row,
+ * then moved to the archive folder (or the failed folder if it could not be imported).
+ * Enabled with golf.import.drop-folder.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "golf.import.drop-folder.enabled", havingValue = "true")
+public class DropFolderImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DropFolderImporter.class);
+
+    private static final DateTimeFormatter ARCHIVE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private ShotCsvParser shotCsvParser;
+
+    @Value("${golf.import.drop-folder.path}")
+    private Path inbox;
+
+    @Value("${golf.import.drop-folder.archive-path}")
+    private Path archive;
+
+    @Value("${golf.import.drop-folder.failed-path}")
+    private Path failed;
+
+    @Value("${golf.import.drop-folder.location:}")
+    private String location;
+
+    // A file is imported once it has not changed for this long, so half-written files are left alone
+    @Value("${golf.import.drop-folder.settle-millis:2000}")
+    private long settleMillis;
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    // Files seen but not yet imported, with the time they last changed
+    private final Map<Path, Long> pending = new HashMap<>();
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(inbox);
+        Files.createDirectories(archive);
+        Files.createDirectories(failed);
+
+        watchService = FileSystems.getDefault().newWatchService();
+        inbox.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+        watcher = new Thread(this::watch, "drop-folder-importer");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching " + inbox.toAbsolutePath() + " for CSV files");
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        watchService.close();
+        watcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void watch() {
+        // Pick up anything dropped while the application was down
+        scanInbox();
+
+        try {
+            while (true) {
+                WatchKey key = watchService.poll(Math.max(settleMillis / 4, 50), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == OVERFLOW) {
+                            scanInbox();
+                        } else {
+                            noticed(inbox.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                importSettledFiles();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private void scanInbox() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox)) {
+            for (Path file : files) {
+                noticed(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not list " + inbox + ": " + e.getMessage());
+        }
+    }
+
+    private void noticed(Path file) {
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            pending.put(file, System.currentTimeMillis());
+        }
+    }
+
+    private void importSettledFiles() {
+        long settledBefore = System.currentTimeMillis() - settleMillis;
+        Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            if (entry.getValue() <= settledBefore) {
+                entries.remove();
+                if (Files.isRegularFile(entry.getKey())) {
+                    importFile(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Map the file, import it, and move it out of the inbox
+     */
+    void importFile(Path file) {
+        String fileName = file.getFileName().toString();
+        boolean imported;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            Optional<CsvFormat> format = shotCsvParser.detectFormat(content);
+            if (format.isEmpty()) {
+                throw new IllegalArgumentException("Unrecognised CSV header; not a Garmin R10 or Awesome Golf export");
+            }
+
+            String title = fileName.replaceFirst("(?i)\\.csv$", "");
+            Session session = csvService.processCsv(format.get(), content, title, location, ParseListener.NONE);
+            logger.info("Imported " + fileName + " as session " + session.getId());
+            imported = true;
+        } catch (DuplicateUploadException e) {
+            logger.info("Skipped " + fileName + ": " + e.getMessage());
+            imported = true;
+        } catch (Exception e) {
+            logger.warn("Could not import " + fileName + ": " + e.getMessage());
+            imported = false;
+        }
+
+        moveTo(imported ? archive : failed, file);
+    }
+
+    private void moveTo(Path directory, Path file) {
+        Path target = directory.resolve(file.getFileName());
+        if (Files.exists(target)) {
+            // Keep earlier files of the same name
+            target = directory.resolve(LocalDateTime.now().format(ARCHIVE_SUFFIX) + "-" + file.getFileName());
+        }
+        try {
+            try {
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                // Archive on another file system
+                Files.move(file, target);
+            }
+        } catch (IOException e) {
+            logger.error("Could not move " + file + " to " + directory + ": " + e.getMessage());
+        }
+    }
+}
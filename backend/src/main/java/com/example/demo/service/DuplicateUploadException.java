@@ -0,0 +1,22 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when an upload adds nothing new: the same file, or only shots that are already stored.
+ * Anything the upload had written is rolled back; callers answer with the existing session instead.
+ */
+public class DuplicateUploadException extends RuntimeException {
+
+    private final Long sessionId;
+
+    public DuplicateUploadException(Long sessionId) {
+        super("This data was already uploaded as session " + sessionId);
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * The session that already holds the uploaded data
+     */
+    public Long getSessionId() {
+        return sessionId;
+    }
+}
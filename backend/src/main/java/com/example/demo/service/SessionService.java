@@ -1,27 +1,73 @@
 package com.example.demo.service;
 
+import com.example.demo.config.CacheConfig;
+import com.example.demo.model.ClubAggregate;
 import com.example.demo.model.Session;
+import com.example.demo.model.SessionListItem;
+import com.example.demo.model.SessionSummary;
 import com.example.demo.model.Shot;
+import com.example.demo.model.ShotQuery;
+import com.example.demo.model.ShotStatsFilter;
 import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.SessionSummaryRepository;
+import com.example.demo.repository.ShotQueryRepository;
 import com.example.demo.repository.ShotRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
     
+    /** Largest page the session list will return, whatever the client asks for */
+    public static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private SessionRepository sessionRepository;
     
     @Autowired
     private ShotRepository shotRepository;
     
+    @Autowired
+    private ShotQueryRepository shotQueryRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private SessionSummaryRepository sessionSummaryRepository;
+    
+    @Autowired
+    private ShotColumnStore shotColumnStore;
+    
+    @Autowired
+    private ClubTrendService clubTrendService;
+    
+    // Filtered stats are not cached, so concurrent requests for the same filter share one aggregation instead.
+    // Cached reads coalesce through sync = true (e.g. a class opening one session on every tablet).
+    private final SingleFlight<StatsKey, Map<String, Object>> statsComputations = new SingleFlight<>();
+    
+    private record StatsKey(Long sessionId, ShotStatsFilter filter) {
+    }
+    
     /**
      * Get all sessions ordered by upload date (newest first)
      */
@@ -30,8 +76,9 @@ public class SessionService {
     }
     
     /**
-     * Get a specific session by ID
+     * Get a specific session by ID (cached; a missing session is not)
      */
+    @Cacheable(cacheNames = CacheConfig.SESSIONS, key = "#id", unless = "#result == null")
     public Optional<Session> getSessionById(Long id) {
         return sessionRepository.findById(id);
     }
@@ -44,41 +91,174 @@ public class SessionService {
     }
     
     /**
-     * Update an existing session
+     * Update an existing session. Shots and stats are unaffected, so only the cached session is dropped;
+     * a new player or date moves the session's shots between club trend rollups.
+     * A null player leaves the player as it is, and an empty one removes it.
      */
+    @CacheEvict(cacheNames = CacheConfig.SESSIONS, key = "#id")
     public Session updateSession(Long id, Session sessionDetails) {
         Optional<Session> optionalSession = sessionRepository.findById(id);
         
         if (optionalSession.isPresent()) {
             Session existingSession = optionalSession.get();
+            String oldPlayer = existingSession.getPlayer();
+            LocalDateTime oldDate = existingSession.getSessionDate();
             existingSession.setTitle(sessionDetails.getTitle());
             existingSession.setLocation(sessionDetails.getLocation());
             existingSession.setSessionDate(sessionDetails.getSessionDate());
-            return sessionRepository.save(existingSession);
+            // Clients that predate players send none, which keeps the current one; an empty player clears it
+            if (sessionDetails.getPlayer() != null) {
+                existingSession.setPlayer(sessionDetails.getPlayer().isBlank() ? null : sessionDetails.getPlayer());
+            }
+            Session saved = sessionRepository.save(existingSession);
+            clubTrendService.sessionChanged(oldPlayer, oldDate, saved.getPlayer(), saved.getSessionDate());
+            return saved;
         }
         
         return null;
     }
     
     /**
-     * Delete a session
+     * Delete a session, its shots and its summary, and take its shots out of the club trends
      */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.SESSIONS, key = "#id"),
+        @CacheEvict(cacheNames = CacheConfig.SESSION_SHOTS, key = "#id"),
+        @CacheEvict(cacheNames = CacheConfig.SESSION_STATS, key = "#id")
+    })
     public boolean deleteSession(Long id) {
         Optional<Session> optionalSession = sessionRepository.findById(id);
         if (optionalSession.isPresent()) {
+            sessionSummaryRepository.deleteById(id);
             sessionRepository.deleteById(id);
+            shotColumnStore.sessionDeleted(id);
+            clubTrendService.sessionDeleted(optionalSession.get().getPlayer(), optionalSession.get().getSessionDate());
             return true;
         }
         return false;
     }
     
     /**
-     * Get all shots for a specific session
+     * Get all shots for a specific session (cached; concurrent misses for the same session share one query)
      */
+    @Cacheable(cacheNames = CacheConfig.SESSION_SHOTS, key = "#sessionId", sync = true)
     public List<Shot> getShotsBySessionId(Long sessionId) {
         return shotRepository.findBySessionIdOrderByShotNumber(sessionId);
     }
     
+    /**
+     * Get selected fields of a session's shots, optionally filtered by club and value ranges.
+     * Only the requested columns are read; no Shot entities are loaded.
+     */
+    public List<Map<String, Object>> queryShots(Long sessionId, ShotQuery query) {
+        return shotQueryRepository.findShots(sessionId, query);
+    }
+    
+    /**
+     * Write the shots matching the query to the output as a JSON array (the same JSON as queryShots).
+     * Rows are read through a cursor and serialized one at a time, so memory use does not depend on
+     * the number of shots and the response starts before the last row has been read.
+     */
+    @Transactional(readOnly = true)
+    public void streamShots(Long sessionId, ShotQuery query, OutputStream out) throws IOException {
+        List<String> fields = query.fields();
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            // The servlet container closes its own stream
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            shotQueryRepository.streamShots(sessionId, query, values -> {
+                json.writeStartObject();
+                for (int i = 0; i < values.length; i++) {
+                    json.writeFieldName(fields.get(i));
+                    json.writeObject(values[i]);
+                }
+                json.writeEndObject();
+            });
+            json.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Get a session, its shots in shot order and its stats for the session page.
+     * The session and shots come from one fetch-join query, and the stats are computed from those rows.
+     * 
+     * @return "session", "shots" and "stats" (shaped like getSessionStats), or empty if there is no such session
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getSessionBundle(Long id) {
+        return sessionRepository.findWithShotsById(id).map(session -> {
+            List<Shot> shots = new ArrayList<>(session.getShots());
+            
+            Map<String, Object> bundle = new HashMap<>();
+            bundle.put("session", session);
+            bundle.put("shots", shots);
+            bundle.put("stats", SessionSummary.of(id, ClubAggregate.fromShots(shots)).toStats());
+            return bundle;
+        });
+    }
+    
+    /**
+     * Get a session and its stats without its shots, for a page that loads the shots separately (e.g. as shot columns).
+     * The stats come from the stored summary, as getSessionStats gives them.
+     * 
+     * @return "session" and "stats", or empty if there is no such session
+     */
+    public Optional<Map<String, Object>> getSessionBundleWithoutShots(Long id) {
+        return sessionRepository.findById(id).map(session -> {
+            Map<String, Object> bundle = new HashMap<>();
+            bundle.put("session", session);
+            bundle.put("stats", computeSessionStats(id, ShotStatsFilter.NONE));
+            return bundle;
+        });
+    }
+    
+    /**
+     * Get one page of the session list (newest first) with shot counts, without loading any shots.
+     * Pages are addressed by keyset: pass the nextCursor of the previous page to get the one after it.
+     * 
+     * @param title Only sessions whose title contains this (case insensitive); null or empty for all
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit Page size; capped at MAX_PAGE_SIZE
+     * @return "sessions" (list of SessionListItem) and "nextCursor" (null on the last page)
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    public Map<String, Object> getSessionList(String title, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Matched literally, as the /search endpoint does: LIKE wildcards in the title are escaped
+        String titleFilter = escapeLike(title != null ? title.trim() : "");
+        
+        // Ask for one extra row to find out whether there is another page
+        Limit fetch = Limit.of(pageSize + 1);
+        List<SessionListItem> items;
+        if (cursor == null || cursor.isEmpty()) {
+            items = sessionRepository.findListItems(titleFilter, fetch);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                LocalDateTime uploadDate = LocalDateTime.parse(cursor.substring(0, Math.max(separator, 0)));
+                Long id = Long.valueOf(cursor.substring(separator + 1));
+                items = sessionRepository.findListItemsAfter(titleFilter, uploadDate, id, fetch);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            SessionListItem last = items.get(pageSize - 1);
+            nextCursor = last.getUploadDate() + "_" + last.getId();
+        }
+        
+        Map<String, Object> page = new HashMap<>();
+        page.put("sessions", items);
+        page.put("nextCursor", nextCursor);
+        return page;
+    }
+    
     /**
      * Search for sessions by title
      */
@@ -87,86 +267,52 @@ public class SessionService {
     }
     
     /**
-     * Calculate statistics for a session
+     * Calculate statistics for a session (cached)
      */
+    @Cacheable(cacheNames = CacheConfig.SESSION_STATS, key = "#sessionId")
     public Map<String, Object> getSessionStats(Long sessionId) {
-        List<Shot> shots = shotRepository.findBySessionIdOrderByShotNumber(sessionId);
-        Map<String, Object> stats = new HashMap<>();
-        
-        if (shots.isEmpty()) {
-            return stats;
+        return getSessionStats(sessionId, ShotStatsFilter.NONE);
+    }
+    
+    /**
+     * Calculate statistics for the shots of a session that match the filter.
+     * Unfiltered stats are read from the session's stored summary. Sessions saved before summaries existed
+     * get theirs computed and stored on first request. Filtered stats are aggregated from the in-memory
+     * ShotColumnStore each time and, unlike unfiltered stats, are not cached.
+     * 
+     * @return Empty if no shot matches
+     */
+    @Cacheable(cacheNames = CacheConfig.SESSION_STATS, key = "#sessionId", condition = "#filter.empty", sync = true)
+    public Map<String, Object> getSessionStats(Long sessionId, ShotStatsFilter filter) {
+        if (filter.isEmpty()) {
+            return computeSessionStats(sessionId, filter);
+        }
+        return statsComputations.execute(new StatsKey(sessionId, filter), () -> computeSessionStats(sessionId, filter));
+    }
+    
+    private Map<String, Object> computeSessionStats(Long sessionId, ShotStatsFilter filter) {
+        if (!filter.isEmpty()) {
+            return SessionSummary.of(sessionId, shotColumnStore.aggregateByClub(sessionId, filter)).toStats();
         }
         
-        // Overall stats
-        stats.put("totalShots", shots.size());
-        
-        // Average distances
-        double avgCarryDistance = shots.stream()
-            .filter(s -> s.getCarryDistance() != null)
-            .mapToDouble(Shot::getCarryDistance)
-            .average()
-            .orElse(0.0);
-        
-        double avgTotalDistance = shots.stream()
-            .filter(s -> s.getTotalDistance() != null)
-            .mapToDouble(Shot::getTotalDistance)
-            .average()
-            .orElse(0.0);
-        
-        stats.put("avgCarryDistance", Math.round(avgCarryDistance * 10.0) / 10.0);
-        stats.put("avgTotalDistance", Math.round(avgTotalDistance * 10.0) / 10.0);
-        
-        // Average ball speed
-        double avgBallSpeed = shots.stream()
-            .filter(s -> s.getBallSpeed() != null)
-            .mapToDouble(Shot::getBallSpeed)
-            .average()
-            .orElse(0.0);
-        stats.put("avgBallSpeed", Math.round(avgBallSpeed * 10.0) / 10.0);
-        
-        // Club breakdown
-        Map<String, Long> clubCounts = shots.stream()
-            .filter(s -> s.getClub() != null && !s.getClub().isEmpty())
-            .collect(Collectors.groupingBy(Shot::getClub, Collectors.counting()));
-        stats.put("clubCounts", clubCounts);
-        
-        // Club statistics - average distance per club
-        Map<String, Map<String, Double>> clubStats = new HashMap<>();
-        shots.stream()
-            .filter(s -> s.getClub() != null && !s.getClub().isEmpty())
-            .collect(Collectors.groupingBy(Shot::getClub))
-            .forEach((club, clubShots) -> {
-                Map<String, Double> clubStat = new HashMap<>();
-                
-                // Average carry distance for this club
-                double clubAvgCarry = clubShots.stream()
-                    .filter(s -> s.getCarryDistance() != null)
-                    .mapToDouble(Shot::getCarryDistance)
-                    .average()
-                    .orElse(0.0);
-                clubStat.put("avgCarry", Math.round(clubAvgCarry * 10.0) / 10.0);
-                
-                // Average total distance for this club
-                double clubAvgTotal = clubShots.stream()
-                    .filter(s -> s.getTotalDistance() != null)
-                    .mapToDouble(Shot::getTotalDistance)
-                    .average()
-                    .orElse(0.0);
-                clubStat.put("avgTotal", Math.round(clubAvgTotal * 10.0) / 10.0);
-                
-                // Average ball speed for this club
-                double clubAvgBallSpeed = clubShots.stream()
-                    .filter(s -> s.getBallSpeed() != null)
-                    .mapToDouble(Shot::getBallSpeed)
-                    .average()
-                    .orElse(0.0);
-                clubStat.put("avgBallSpeed", Math.round(clubAvgBallSpeed * 10.0) / 10.0);
-                
-                clubStats.put(club, clubStat);
-            });
-        
-        stats.put("clubStats", clubStats);
-        
-        return stats;
+        return sessionSummaryRepository.findById(sessionId)
+            .orElseGet(() -> backfillSummary(sessionId))
+            .toStats();
+    }
+    
+    private SessionSummary backfillSummary(Long sessionId) {
+        SessionSummary summary = SessionSummary.of(sessionId, shotColumnStore.aggregateByClub(sessionId, ShotStatsFilter.NONE));
+        if (summary.getTotalShots() > 0) {
+            try {
+                sessionSummaryRepository.save(summary);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent request stored the same summary first
+            }
+        }
+        return summary;
+    }
+    
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ClubAggregate;
+import com.example.demo.model.QuantileSketch;
+import com.example.demo.model.Session;
+import com.example.demo.model.SessionSummary;
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotFingerprint;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.ShotCopyRepository;
+import com.example.demo.repository.ShotRepository;
+import com.example.demo.repository.ShotStatsRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Saves a freshly parsed session and its shots in one transaction, never holding more than one chunk of shots in memory.
+ * On PostgreSQL the shots are streamed with COPY; other databases persist them through JPA.
+ */
+@Service
+public class SessionWriter {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Autowired
+    private ShotCopyRepository shotCopyRepository;
+
+    @Autowired
+    private ShotStatsRepository shotStatsRepository;
+
+    @Autowired
+    private ShotColumnStore shotColumnStore;
+    
+    @Autowired
+    private ClubTrendService clubTrendService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${golf.ingest.copy-enabled:true}")
+    private boolean copyEnabled;
+
+    @Value("${golf.ingest.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Produces the shots of an upload one at a time, e.g. by parsing a CSV stream
+     */
+    @FunctionalInterface
+    public interface ShotSource {
+        void forEach(Consumer<Shot> sink) throws IOException;
+    }
+
+    /**
+     * Insert the session, then write shots from the source in chunks of golf.ingest.chunk-size as they arrive.
+     * Each chunk is flushed and the persistence context cleared, so memory use does not grow with the upload.
+     * Shots whose fingerprint is already stored in another session are skipped.
+     * The session's summary (see SessionSummary) is computed from the written shots, with quantile sketches
+     * built as the chunks go by, and stored alongside them,
+     * and the shots are added to the ShotColumnStore once the transaction commits.
+     * The complete callback sees the saved session after the last chunk, to fill in fields derived from all shots;
+     * throwing from it rolls the whole upload back.
+     *
+     * @param session A new session without shots
+     * @return The saved session
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Session saveInChunks(Session session, ShotSource shots, BiConsumer<Session, WriteSummary> complete) throws IOException {
+        boolean useCopy = copyEnabled && shotCopyRepository.isSupported();
+
+        Long sessionId = sessionRepository.save(session).getId();
+        entityManager.flush();
+
+        WriteSummary summary = new WriteSummary();
+        List<Shot> chunk = new ArrayList<>(chunkSize);
+        shots.forEach(shot -> {
+            chunk.add(shot);
+            if (chunk.size() >= chunkSize) {
+                writeChunk(sessionId, chunk, useCopy, summary);
+            }
+        });
+        writeChunk(sessionId, chunk, useCopy, summary);
+
+        // Every shot is flushed by now, so the database can aggregate them in the same transaction
+        if (summary.shotsWritten > 0) {
+            List<ClubAggregate> aggregates = shotStatsRepository.aggregateByClub(sessionId);
+            for (ClubAggregate aggregate : aggregates) {
+                aggregate.setCarrySketch(summary.carrySketches.get(aggregate.getClub()));
+                aggregate.setLateralSketch(summary.lateralSketches.get(aggregate.getClub()));
+            }
+            entityManager.persist(SessionSummary.of(sessionId, aggregates));
+            shotColumnStore.sessionSaved(sessionId);
+            clubTrendService.sessionSaved(sessionId);
+        }
+
+        Session saved = entityManager.find(Session.class, sessionId);
+        complete.accept(saved, summary);
+        return saved;
+    }
+
+    private void writeChunk(Long sessionId, List<Shot> chunk, boolean useCopy, WriteSummary summary) {
+        if (chunk.isEmpty()) return;
+
+        skipStoredShots(sessionId, chunk, summary);
+        summary.shotsWritten += chunk.size();
+        for (Shot shot : chunk) {
+            summary.carrySketches.computeIfAbsent(shot.getClub(), club -> new QuantileSketch()).add(value(shot.getCarryDistance()));
+            summary.lateralSketches.computeIfAbsent(shot.getClub(), club -> new QuantileSketch()).add(value(shot.getCarryLateralDistance()));
+        }
+
+        if (useCopy) {
+            shotCopyRepository.copyShots(sessionId, chunk);
+        } else {
+            // The session was detached by the previous clear; a reference is all the foreign key needs
+            Session session = entityManager.getReference(Session.class, sessionId);
+            for (Shot shot : chunk) {
+                shot.setSession(session);
+                entityManager.persist(shot);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        chunk.clear();
+    }
+
+    private static double value(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * Fingerprint the chunk and drop shots another session already holds (one query per chunk)
+     */
+    private void skipStoredShots(Long sessionId, List<Shot> chunk, WriteSummary summary) {
+        Set<Long> fingerprints = new HashSet<>();
+        for (Shot shot : chunk) {
+            shot.setFingerprint(ShotFingerprint.of(shot));
+            fingerprints.add(shot.getFingerprint());
+        }
+
+        Map<Long, Long> stored = new HashMap<>();
+        for (Object[] row : shotRepository.findStoredFingerprints(fingerprints, sessionId)) {
+            stored.put((Long) row[0], (Long) row[1]);
+        }
+        if (stored.isEmpty()) return;
+
+        int before = chunk.size();
+        chunk.removeIf(shot -> {
+            Long otherSession = stored.get(shot.getFingerprint());
+            if (otherSession != null) {
+                summary.overlappingSessionId = otherSession;
+                return true;
+            }
+            return false;
+        });
+        summary.shotsSkipped += before - chunk.size();
+    }
+
+    /**
+     * What saveInChunks wrote: shots inserted, and shots skipped because another session already holds them
+     */
+    public static class WriteSummary {
+
+        private int shotsWritten;
+        private int shotsSkipped;
+        private Long overlappingSessionId;
+
+        // Per-club sketches of the written shots, built chunk by chunk for the session summary
+        private final Map<String, QuantileSketch> carrySketches = new HashMap<>();
+        private final Map<String, QuantileSketch> lateralSketches = new HashMap<>();
+
+        public int getShotsWritten() {
+            return shotsWritten;
+        }
+
+        public int getShotsSkipped() {
+            return shotsSkipped;
+        }
+
+        /**
+         * A session holding some of the skipped shots, or null if nothing was skipped
+         */
+        public Long getOverlappingSessionId() {
+            return overlappingSessionId;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ClubAggregate;
+import com.example.demo.model.ShotColumns;
+import com.example.demo.model.ShotStatsFilter;
+import com.example.demo.repository.ShotColumnRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Keeps every stored shot in memory as ShotColumns, for statistics and analysis across many sessions.
+ * The columns are read from the shot table on first use. After that a newly ingested session is appended
+ * once its transaction commits and a deleted session is dropped, so the table is never read in full again.
+ * A session missing from the columns (saved some other way) is read on its own when asked for.
+ */
+@Service
+public class ShotColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShotColumnStore.class);
+
+    @Autowired
+    private ShotColumnRepository shotColumnRepository;
+
+    // Null until first use; replaced (never changed) under the store's lock
+    private volatile ShotColumns columns;
+
+    /**
+     * The columns of every stored shot, read from the database on first use
+     */
+    public ShotColumns getColumns() {
+        ShotColumns current = columns;
+        if (current == null) {
+            synchronized (this) {
+                if (columns == null) {
+                    long started = System.nanoTime();
+                    columns = shotColumnRepository.loadAll();
+                    logger.info("Loaded " + columns.size() + " shots of " + columns.sessionCount() + " sessions into columns in "
+                            + (System.nanoTime() - started) / 1_000_000 + " ms");
+                }
+                current = columns;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The columns of every stored shot, with the given sessions read in first if they are missing
+     */
+    public ShotColumns getColumns(Collection<Long> sessionIds) {
+        ShotColumns current = getColumns();
+        for (Long sessionId : sessionIds) {
+            if (current.sessionIndex(sessionId) < 0) {
+                return load(sessionIds);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Club aggregates of the session's shots that match the filter, like ClubAggregate.fromShots
+     */
+    public List<ClubAggregate> aggregateByClub(Long sessionId, ShotStatsFilter filter) {
+        ShotColumns current = getColumns();
+        int session = current.sessionIndex(sessionId);
+        if (session < 0) {
+            current = load(List.of(sessionId));
+            session = current.sessionIndex(sessionId);
+            if (session < 0) return List.of();
+        }
+        return ClubAggregate.fromColumns(current, current.sessionStart(session), current.sessionEnd(session), filter);
+    }
+
+    /**
+     * Append the session's shots once the current transaction commits (straight away without one)
+     */
+    public void sessionSaved(Long sessionId) {
+        afterCommit(() -> {
+            // Checked under the lock, so a first load already running is waited for: its snapshot may predate
+            // this commit. Not loaded yet: the first load will read the session with everything else.
+            synchronized (this) {
+                if (columns != null) {
+                    load(List.of(sessionId));
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the session's shots once the current transaction commits (straight away without one)
+     */
+    public void sessionDeleted(Long sessionId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                if (columns != null) {
+                    columns = columns.without(sessionId);
+                }
+            }
+        });
+    }
+
+    private synchronized ShotColumns load(Collection<Long> sessionIds) {
+        ShotColumns current = getColumns();
+        ShotColumns.Builder builder = current.append();
+        boolean missing = false;
+        for (Long sessionId : new HashSet<>(sessionIds)) {
+            if (current.sessionIndex(sessionId) < 0) {
+                shotColumnRepository.loadSession(sessionId, builder);
+                missing = true;
+            }
+        }
+        if (!missing) return current;
+
+        columns = builder.build();
+        return columns;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
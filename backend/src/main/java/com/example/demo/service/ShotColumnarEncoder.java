@@ -0,0 +1,191 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotMetric;
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Encodes shots column by column in a compact binary form, the alternative to JSON for /api/sessions/{id}/shots.
+ * JSON repeats every field name and null for every shot; here each field is written once as a column.
+ *
+ * Layout (little-endian; decoded by frontend/src/utils/shotColumns.js):
+ * <pre>
+ * "GSC1"                magic
+ * uint32 rowCount
+ * uint16 columnCount
+ * uint16 0              reserved
+ * per column:
+ *   uint8  type         1 = float64, 2 = dictionary-encoded text
+ *   uint8  nameLength, then the name (UTF-8): the JSON property name
+ *   ceil(rowCount / 8)  presence bitmap, bit i (LSB first) set when row i has a value
+ *   float64:     padding to an 8-byte offset, then rowCount float64 values (0 where absent)
+ *   dictionary:  uint16 entryCount, each entry uint16 byteLength + UTF-8 bytes,
+ *                padding to a 2-byte offset, then rowCount uint16 entry indexes (0 where absent)
+ * </pre>
+ * Numeric columns are 8-byte aligned so a decoder can view them as a Float64Array without copying.
+ * shotTime is a float64 of epoch milliseconds, reading the stored local time as UTC.
+ */
+public final class ShotColumnarEncoder {
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType("application/vnd.golf.shot-columns");
+
+    private static final byte[] MAGIC = "GSC1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte FLOAT64 = 1;
+    private static final byte DICTIONARY = 2;
+
+    private static final List<NumberColumn> NUMBER_COLUMNS = numberColumns();
+    private static final List<TextColumn> TEXT_COLUMNS = List.of(
+            new TextColumn("club", Shot::getClub),
+            new TextColumn("clubDescription", Shot::getClubDescription),
+            new TextColumn("shotClassification", Shot::getShotClassification));
+
+    private record NumberColumn(String name, Function<Shot, Double> getter) {
+    }
+
+    private record TextColumn(String name, Function<Shot, String> getter) {
+    }
+
+    private ShotColumnarEncoder() {
+    }
+
+    /**
+     * Encode the shots, in list order
+     */
+    public static byte[] encode(List<Shot> shots) {
+        int rows = shots.size();
+        int bitmapLength = (rows + 7) / 8;
+
+        // Dictionaries first: their size is needed to size the buffer
+        List<Dictionary> dictionaries = new ArrayList<>(TEXT_COLUMNS.size());
+        int capacity = 12;
+        for (NumberColumn column : NUMBER_COLUMNS) {
+            capacity += 2 + column.name().length() + bitmapLength + 7 + rows * 8;
+        }
+        for (TextColumn column : TEXT_COLUMNS) {
+            Dictionary dictionary = new Dictionary(shots, column.getter());
+            dictionaries.add(dictionary);
+            capacity += 2 + column.name().length() + bitmapLength + dictionary.byteLength() + 1 + rows * 2;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(MAGIC);
+        out.putInt(rows);
+        out.putShort((short) (NUMBER_COLUMNS.size() + TEXT_COLUMNS.size()));
+        out.putShort((short) 0);
+
+        byte[] bitmap = new byte[bitmapLength];
+        double[] values = new double[rows];
+        for (NumberColumn column : NUMBER_COLUMNS) {
+            Arrays.fill(bitmap, (byte) 0);
+            for (int i = 0; i < rows; i++) {
+                Double value = column.getter().apply(shots.get(i));
+                values[i] = value != null ? value : 0.0;
+                if (value != null) bitmap[i >> 3] |= (byte) (1 << (i & 7));
+            }
+            writeColumnHeader(out, FLOAT64, column.name(), bitmap);
+            pad(out, 8);
+            for (int i = 0; i < rows; i++) {
+                out.putDouble(values[i]);
+            }
+        }
+
+        for (int c = 0; c < TEXT_COLUMNS.size(); c++) {
+            Dictionary dictionary = dictionaries.get(c);
+            Arrays.fill(bitmap, (byte) 0);
+            for (int i = 0; i < rows; i++) {
+                if (dictionary.codes[i] >= 0) bitmap[i >> 3] |= (byte) (1 << (i & 7));
+            }
+            writeColumnHeader(out, DICTIONARY, TEXT_COLUMNS.get(c).name(), bitmap);
+            out.putShort((short) dictionary.entries.size());
+            for (byte[] entry : dictionary.entries) {
+                out.putShort((short) entry.length);
+                out.put(entry);
+            }
+            pad(out, 2);
+            for (int i = 0; i < rows; i++) {
+                out.putShort((short) Math.max(dictionary.codes[i], 0));
+            }
+        }
+
+        byte[] encoded = new byte[out.position()];
+        System.arraycopy(out.array(), 0, encoded, 0, encoded.length);
+        return encoded;
+    }
+
+    private static void writeColumnHeader(ByteBuffer out, byte type, String name, byte[] bitmap) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        out.put(type);
+        out.put((byte) nameBytes.length);
+        out.put(nameBytes);
+        out.put(bitmap);
+    }
+
+    private static void pad(ByteBuffer out, int alignment) {
+        while (out.position() % alignment != 0) {
+            out.put((byte) 0);
+        }
+    }
+
+    private static List<NumberColumn> numberColumns() {
+        List<NumberColumn> columns = new ArrayList<>();
+        columns.add(new NumberColumn("id", shot -> shot.getId() != null ? shot.getId().doubleValue() : null));
+        columns.add(new NumberColumn("shotNumber", shot -> shot.getShotNumber() != null ? shot.getShotNumber().doubleValue() : null));
+        columns.add(new NumberColumn("shotTime", shot -> epochMillis(shot.getShotTime())));
+        for (ShotMetric metric : ShotMetric.values()) {
+            columns.add(new NumberColumn(metric.getProperty(), metric::get));
+        }
+        return List.copyOf(columns);
+    }
+
+    private static Double epochMillis(LocalDateTime time) {
+        return time != null ? (double) time.toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+    }
+
+    /**
+     * Distinct values of a text column in first-seen order, and each row's index into them (-1 for null)
+     */
+    private static class Dictionary {
+
+        private final List<byte[]> entries = new ArrayList<>();
+        private final int[] codes;
+
+        Dictionary(List<Shot> shots, Function<Shot, String> getter) {
+            Map<String, Integer> indexes = new HashMap<>();
+            codes = new int[shots.size()];
+            for (int i = 0; i < shots.size(); i++) {
+                String value = getter.apply(shots.get(i));
+                if (value == null) {
+                    codes[i] = -1;
+                    continue;
+                }
+                codes[i] = indexes.computeIfAbsent(value, text -> {
+                    entries.add(text.getBytes(StandardCharsets.UTF_8));
+                    return entries.size() - 1;
+                });
+            }
+            if (entries.size() > 0xFFFF) {
+                throw new IllegalArgumentException("Too many distinct values for a dictionary column: " + entries.size());
+            }
+        }
+
+        int byteLength() {
+            int length = 2;
+            for (byte[] entry : entries) {
+                length += 2 + entry.length;
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.model.Shot;
+import com.example.demo.model.Trajectory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulated ball flights (see BallFlightSimulator) for a whole session at once.
+ * <p>
+ * A shot's launch conditions never change after upload, so each trajectory is cached by shot. Only the shots
+ * missing from the cache are simulated, in batches of BATCH_SIZE run in parallel on a fork-join pool.
+ */
+@Service
+public class TrajectoryService {
+
+    /** Points on each path unless asked otherwise */
+    public static final int DEFAULT_POINTS = 30;
+
+    /** Most points on a path */
+    public static final int MAX_POINTS = 500;
+
+    // Shots simulated together by one fork-join task
+    private static final int BATCH_SIZE = 256;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Defaults to one thread per core
+    @Value("${golf.trajectory.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    private Cache cache;
+
+    /**
+     * Cache key: the same shot sampled at different resolutions is cached separately
+     */
+    record TrajectoryKey(Long shotId, int points) {
+    }
+
+    @PostConstruct
+    void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        cache = cacheManager.getCache(CacheConfig.SHOT_TRAJECTORIES);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdown();
+    }
+
+    /**
+     * @throws IllegalArgumentException If the number of points is not between 2 and MAX_POINTS
+     */
+    public static void checkPoints(int points) {
+        if (points < 2 || points > MAX_POINTS) {
+            throw new IllegalArgumentException("points must be between 2 and " + MAX_POINTS + ": " + points);
+        }
+    }
+
+    /**
+     * The simulated flight of every shot in a session, in shot order
+     *
+     * @param points Points on each path
+     * @return Per shot its "shotId", "shotNumber", "club" and "trajectory", which is null for a shot without the
+     *         ball speed, launch angle and spin rate needed to simulate it
+     * @throws IllegalArgumentException If the number of points is out of range
+     */
+    public List<Map<String, Object>> getTrajectories(Long sessionId, int points) {
+        checkPoints(points);
+        List<Shot> shots = sessionService.getShotsBySessionId(sessionId);
+
+        Trajectory[] trajectories = new Trajectory[shots.size()];
+        List<Shot> missing = new ArrayList<>();
+        List<Integer> missingIndex = new ArrayList<>();
+        for (int i = 0; i < shots.size(); i++) {
+            Cache.ValueWrapper cached = cache.get(new TrajectoryKey(shots.get(i).getId(), points));
+            if (cached != null) {
+                trajectories[i] = (Trajectory) cached.get();
+            } else {
+                missing.add(shots.get(i));
+                missingIndex.add(i);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Trajectory[] simulated = new Trajectory[missing.size()];
+            pool.invoke(new SimulateTask(missing, simulated, 0, missing.size(), points));
+            for (int m = 0; m < simulated.length; m++) {
+                // Shots that cannot be simulated are cached too, as null
+                cache.put(new TrajectoryKey(missing.get(m).getId(), points), simulated[m]);
+                trajectories[missingIndex.get(m)] = simulated[m];
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(shots.size());
+        for (int i = 0; i < shots.size(); i++) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("shotId", shots.get(i).getId());
+            result.put("shotNumber", shots.get(i).getShotNumber());
+            result.put("club", shots.get(i).getClub());
+            result.put("trajectory", trajectories[i]);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Simulates shots [from, to) into the same positions of results, splitting in half down to BATCH_SIZE shots
+     */
+    private static class SimulateTask extends RecursiveAction {
+
+        private final List<Shot> shots;
+        private final Trajectory[] results;
+        private final int from;
+        private final int to;
+        private final int points;
+
+        SimulateTask(List<Shot> shots, Trajectory[] results, int from, int to, int points) {
+            this.shots = shots;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.points = points;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                Trajectory[] batch = BallFlightSimulator.simulate(shots.subList(from, to), points);
+                System.arraycopy(batch, 0, results, from, batch.length);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SimulateTask(shots, results, from, middle, points),
+                    new SimulateTask(shots, results, middle, to, points));
+        }
+    }
+}
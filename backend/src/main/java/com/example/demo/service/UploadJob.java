@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An upload accepted for background processing, and how far it has got.
+ * Serialized as the body of the upload status endpoint.
+ */
+public class UploadJob implements ParseListener {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final CsvFormat format;
+    private final String fileName;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile Long sessionId;
+    private volatile boolean duplicate;
+    private volatile String error;
+
+    public UploadJob(String id, CsvFormat format, String fileName) {
+        this.id = id;
+        this.format = format;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    @Override
+    public void rowRejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void succeeded(Long sessionId) {
+        this.sessionId = sessionId;
+        finishedAt = LocalDateTime.now();
+        status = Status.SUCCEEDED;
+    }
+
+    void duplicateOf(Long sessionId) {
+        this.duplicate = true;
+        succeeded(sessionId);
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getSource() {
+        return format.name();
+    }
+
+    CsvFormat getFormat() {
+        return format;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * True if nothing was saved because the data was already uploaded as getSessionId()
+     */
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
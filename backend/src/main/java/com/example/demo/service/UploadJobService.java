@@ -0,0 +1,150 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Session;
+import com.example.demo.service.csv.CsvFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CSV uploads in the background on a small, bounded pool.
+ * The request thread only copies the upload to a temp file; parsing and saving happen on the pool.
+ * When every worker is busy and the queue is full, new uploads are refused, before they are copied, rather than
+ * queued without limit.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadJobService.class);
+
+    @Autowired
+    private CsvService csvService;
+
+    @Value("${golf.upload.async.threads:2}")
+    private int threads;
+
+    @Value("${golf.upload.async.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${golf.upload.async.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "upload-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // AbortPolicy: a full queue throws RejectedExecutionException back to the caller
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Validate the upload, copy it aside and queue it for processing
+     *
+     * @return The queued job
+     * @throws IllegalArgumentException If the file or title is not acceptable
+     * @throws RejectedExecutionException If the queue is full
+     * @throws IOException If the upload cannot be copied to a temp file
+     */
+    public UploadJob submit(CsvFormat format, MultipartFile file, String title, String location) throws IOException {
+        csvService.validateUpload(file, title);
+        removeExpiredJobs();
+
+        // Refuse before paying for the copy; execute() below still rejects if the last place was taken meanwhile
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Upload queue is full");
+        }
+
+        // The multipart temp file goes away with the request, so keep our own copy
+        Path copy = Files.createTempFile("golf-upload-", ".csv");
+        try {
+            file.transferTo(copy);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), format, file.getOriginalFilename());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, copy, title, location));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Look up a job by id. Finished jobs are kept for golf.upload.async.retention-minutes.
+     */
+    public Optional<UploadJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(UploadJob job, Path copy, String title, String location) {
+        job.started();
+        try {
+            // Mapped, the copy is hashed once (a repeated file is recognised before any parsing) and parsed in place
+            try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.READ)) {
+                MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                Session session = csvService.processCsv(job.getFormat(), content, title, location, job);
+                job.succeeded(session.getId());
+            }
+        } catch (DuplicateUploadException e) {
+            logger.info("Upload job " + job.getId() + ": " + e.getMessage());
+            job.duplicateOf(e.getSessionId());
+        } catch (Exception e) {
+            logger.error("Upload job " + job.getId() + " failed: " + e.getMessage(), e);
+            job.failed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(copy);
+            } catch (IOException e) {
+                logger.warn("Could not delete upload copy " + copy + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
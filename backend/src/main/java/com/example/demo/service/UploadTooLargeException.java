@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading an upload that turns out to be larger than allowed.
+ * It is thrown from the stream itself, so whatever the upload had written is rolled back.
+ */
+public class UploadTooLargeException extends IOException {
+
+    private final long maxSize;
+
+    public UploadTooLargeException(long maxSize) {
+        super("Upload is larger than " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The largest upload accepted, in bytes
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
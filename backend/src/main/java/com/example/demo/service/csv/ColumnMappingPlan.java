@@ -0,0 +1,89 @@
+package com.example.demo.service.csv;
+
+import com.example.demo.model.Shot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * A header row resolved once into "column index -> field writer".
+ * Data rows are then applied by array index, with no string matching per cell.
+ */
+public final class ColumnMappingPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnMappingPlan.class);
+
+    private final CsvFormat format;
+    private final String[] headers;       // lower-case header names, for log messages
+    private final FieldWriter[] writers;  // null for columns we don't store
+
+    private ColumnMappingPlan(CsvFormat format, String[] headers, FieldWriter[] writers) {
+        this.format = format;
+        this.headers = headers;
+        this.writers = writers;
+    }
+
+    /**
+     * Resolve header cells (and the optional units row below them) into a plan.
+     * Each column is matched as "name [unit]" first, then the bare name, then the units-row cell alone.
+     */
+    public static ColumnMappingPlan compile(CsvFormat format, String[] names, String[] units) {
+        String[] headers = new String[names.length];
+        FieldWriter[] writers = new FieldWriter[names.length];
+
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim().toLowerCase(Locale.ROOT);
+            String unit = units != null && i < units.length ? units[i].trim().toLowerCase(Locale.ROOT) : "";
+
+            FieldWriter writer = null;
+            if (!unit.isEmpty()) {
+                writer = ShotColumnMappings.lookup(format, name + " " + unit);
+            }
+            if (writer == null) {
+                writer = ShotColumnMappings.lookup(format, name);
+            }
+            if (writer == null && !unit.isEmpty()) {
+                writer = ShotColumnMappings.lookup(format, unit);
+            }
+
+            headers[i] = name.isEmpty() ? unit : name;
+            writers[i] = writer;
+        }
+
+        return new ColumnMappingPlan(format, headers, writers);
+    }
+
+    public CsvFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Number of columns in the header row this plan was compiled from
+     */
+    public int columnCount() {
+        return writers.length;
+    }
+
+    /**
+     * Copy the mapped cells of the current record into a new Shot
+     */
+    public Shot apply(CsvRow row) {
+        Shot shot = new Shot();
+        int columns = Math.min(writers.length, row.fieldCount());
+
+        for (int i = 0; i < columns; i++) {
+            FieldWriter writer = writers[i];
+
+            // Skip unmapped columns and empty values
+            if (writer == null || row.isEmpty(i)) continue;
+
+            if (!writer.write(shot, row, i) && logger.isDebugEnabled()) {
+                logger.debug("Could not parse value for header '" + headers[i] + "': " + row.getString(i));
+                // Continue with other fields
+            }
+        }
+
+        return shot;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.service.csv;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Compiled plans keyed by header fingerprint (format + the raw header lines).
+ * Repeat uploads from the same device hit the cache before the header is even split.
+ */
+public class ColumnMappingPlanCache {
+
+    // A launch monitor produces one or two header layouts, so this only guards against odd files
+    private static final int MAX_PLANS = 256;
+
+    private final Map<String, ColumnMappingPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Return the cached plan for these header lines, compiling it on first sight
+     */
+    public ColumnMappingPlan get(CsvFormat format, String headerLine, String unitLine, Supplier<ColumnMappingPlan> compiler) {
+        String fingerprint = format.name() + '\n' + headerLine + '\n' + (unitLine != null ? unitLine : "");
+
+        ColumnMappingPlan plan = plans.get(fingerprint);
+        if (plan == null) {
+            if (plans.size() >= MAX_PLANS) {
+                plans.clear();
+            }
+            plan = plans.computeIfAbsent(fingerprint, key -> compiler.get());
+        }
+        return plan;
+    }
+
+    public int size() {
+        return plans.size();
+    }
+}
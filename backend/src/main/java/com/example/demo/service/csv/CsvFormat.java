@@ -0,0 +1,44 @@
+package com.example.demo.service.csv;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Launch monitor export formats understood by the CSV importer.
+ * The enum name doubles as the Session source type stored in the database.
+ */
+public enum CsvFormat {
+    GARMIN_R10("player", "club name", "smash factor", "backspin", "sidespin", "apex height", "carry deviation distance"),
+    AWESOME_GOLF("club description", "smash", "vertical launch", "peak height", "roll distance", "face path", "shot classification");
+
+    // Header names only this format uses; the columns both formats share do not tell them apart
+    private final Set<String> signature;
+
+    CsvFormat(String... signature) {
+        this.signature = Set.of(signature);
+    }
+
+    /**
+     * Work out the format from the column names of a header row
+     *
+     * @return The format whose distinctive columns appear most often, or empty if none appear
+     */
+    public static Optional<CsvFormat> detect(String[] headers) {
+        CsvFormat best = null;
+        int bestScore = 0;
+        for (CsvFormat format : values()) {
+            int score = 0;
+            for (String header : headers) {
+                if (format.signature.contains(header.trim().toLowerCase(Locale.ROOT))) {
+                    score++;
+                }
+            }
+            if (score > bestScore) {
+                best = format;
+                bestScore = score;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+}
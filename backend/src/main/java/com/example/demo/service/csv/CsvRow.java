@@ -0,0 +1,30 @@
+package com.example.demo.service.csv;
+
+/**
+ * Read access to the cells of the current CSV record.
+ * Cells are trimmed and unquoted; numbers are parsed straight from the cell without building a String.
+ */
+public interface CsvRow {
+
+    int fieldCount();
+
+    /**
+     * True if the cell is empty after trimming (or absent)
+     */
+    boolean isEmpty(int field);
+
+    /**
+     * The cell as text, with surrounding quotes removed and "" unescaped
+     */
+    String getString(int field);
+
+    /**
+     * The numeric value of the cell, ignoring units and thousands separators, or NaN if it holds no number
+     */
+    double getDouble(int field);
+
+    /**
+     * The cell as a whole number, or null if it is not one
+     */
+    Integer getInt(int field);
+}
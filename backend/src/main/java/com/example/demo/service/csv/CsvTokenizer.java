@@ -0,0 +1,315 @@
+package com.example.demo.service.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits raw CSV bytes into records and fields without creating a String per line or per cell.
+ *
+ * Fields are kept as byte offsets into the buffer; text is only decoded when a caller asks for it.
+ * Quoted fields follow RFC 4180: commas and line breaks inside quotes are part of the value,
+ * and "" inside quotes is an escaped quote. Lines may end with \n or \r\n.
+ */
+public final class CsvTokenizer implements CsvRow, Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream input;   // null when the whole file is already in the buffer
+    private byte[] array;              // backing array when reading from a stream
+    private ByteBuffer buffer;
+    private int limit;                 // end of valid bytes in the buffer
+    private int position;              // start of the next record
+    private boolean endOfInput;
+    private boolean started;
+
+    private int recordStart;
+    private int recordEnd;
+    private int fieldCount;
+    private int[] fieldStart = new int[64];
+    private int[] fieldEnd = new int[64];
+    private boolean[] fieldQuoted = new boolean[64];
+
+    /**
+     * Tokenize a stream, reading it in 64 KB blocks as records are consumed
+     */
+    public CsvTokenizer(InputStream input) {
+        this(input, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvTokenizer(InputStream input, int bufferSize) {
+        this.input = input;
+        this.array = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(array);
+    }
+
+    /**
+     * Tokenize bytes that are already in memory (or memory-mapped), between position and limit
+     */
+    public CsvTokenizer(ByteBuffer bytes) {
+        this.input = null;
+        this.buffer = bytes;
+        this.position = bytes.position();
+        this.limit = bytes.limit();
+        this.endOfInput = true;
+    }
+
+    /**
+     * Advance to the next record. Returns false once the input is exhausted.
+     */
+    public boolean nextRecord() throws IOException {
+        if (!started) {
+            started = true;
+            skipByteOrderMark();
+        }
+
+        while (true) {
+            if (scanRecord()) {
+                return true;
+            }
+            if (endOfInput) {
+                return false;
+            }
+            refill();
+        }
+    }
+
+    /**
+     * True if the record has no content at all (a blank line)
+     */
+    public boolean isBlankRecord() {
+        return fieldCount == 1 && isEmpty(0);
+    }
+
+    /**
+     * The raw text of the current record, for headers and log messages
+     */
+    public String recordText() {
+        int end = recordEnd;
+        while (end > recordStart && isLineBreak(buffer.get(end - 1))) {
+            end--;
+        }
+        return decode(recordStart, end);
+    }
+
+    /**
+     * All cells of the current record as text
+     */
+    public String[] fields() {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = getString(i);
+        }
+        return values;
+    }
+
+    @Override
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    @Override
+    public boolean isEmpty(int field) {
+        if (field >= fieldCount) return true;
+        int start = contentStart(field);
+        return contentEnd(field, start) <= start;
+    }
+
+    @Override
+    public String getString(int field) {
+        if (field >= fieldCount) return "";
+        int start = contentStart(field);
+        int end = contentEnd(field, start);
+        if (end <= start) return "";
+
+        String value = decode(start, end);
+        return fieldQuoted[field] && value.indexOf('"') >= 0 ? value.replace("\"\"", "\"") : value;
+    }
+
+    @Override
+    public double getDouble(int field) {
+        if (field >= fieldCount) return Double.NaN;
+        return CsvValues.parseDouble(buffer, fieldStart[field], fieldEnd[field]);
+    }
+
+    @Override
+    public Integer getInt(int field) {
+        if (field >= fieldCount) return null;
+        int start = contentStart(field);
+        return CsvValues.parseInt(buffer, start, contentEnd(field, start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+        }
+    }
+
+    /**
+     * Find the fields of the record starting at position. Returns false if the record is not
+     * complete yet and more input has to be read first.
+     */
+    private boolean scanRecord() {
+        int p = position;
+        if (p >= limit && endOfInput) {
+            return false;
+        }
+
+        fieldCount = 0;
+        int fieldBegin = p;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        boolean atFieldStart = true;
+
+        while (p < limit) {
+            byte b = buffer.get(p);
+
+            if (inQuotes) {
+                if (b == '"') {
+                    if (p + 1 >= limit && !endOfInput) {
+                        return false; // need to see the next byte to tell "" from a closing quote
+                    }
+                    if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                        p += 2;
+                        continue;
+                    }
+                    inQuotes = false;
+                }
+                p++;
+                continue;
+            }
+
+            if (b == ',') {
+                addField(fieldBegin, p, quoted);
+                fieldBegin = p + 1;
+                quoted = false;
+                atFieldStart = true;
+            } else if (b == '\n') {
+                addField(fieldBegin, p, quoted);
+                recordStart = position;
+                recordEnd = p;
+                position = p + 1;
+                return true;
+            } else if (b == '"' && atFieldStart) {
+                inQuotes = true;
+                quoted = true;
+                atFieldStart = false;
+            } else if (!isWhitespace(b)) {
+                atFieldStart = false;
+            }
+            p++;
+        }
+
+        if (!endOfInput) {
+            return false;
+        }
+
+        // Last record without a trailing line break
+        addField(fieldBegin, limit, quoted);
+        recordStart = position;
+        recordEnd = limit;
+        position = limit;
+        return true;
+    }
+
+    private void addField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStart.length) {
+            int size = fieldCount * 2;
+            fieldStart = Arrays.copyOf(fieldStart, size);
+            fieldEnd = Arrays.copyOf(fieldEnd, size);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, size);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    /**
+     * Start of the cell's content: leading whitespace and an opening quote skipped
+     */
+    private int contentStart(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        while (start < end && isWhitespace(buffer.get(start))) start++;
+        if (fieldQuoted[field] && start < end && buffer.get(start) == '"') start++;
+        return start;
+    }
+
+    /**
+     * End of the cell's content: trailing whitespace (including \r) and the closing quote removed
+     */
+    private int contentEnd(int field, int start) {
+        int end = fieldEnd[field];
+        while (end > start && isWhitespace(buffer.get(end - 1))) end--;
+        if (fieldQuoted[field]) {
+            // Ignore anything after the closing quote, as lenient parsers do
+            int close = end - 1;
+            while (close >= start && buffer.get(close) != '"') close--;
+            if (close >= start) {
+                end = close;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Move the unread tail to the front of the buffer (growing it for very long records) and read more
+     */
+    private void refill() throws IOException {
+        int remaining = limit - position;
+        if (remaining == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+            buffer = ByteBuffer.wrap(array);
+        } else if (position > 0) {
+            System.arraycopy(array, position, array, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        recordStart = 0;
+        recordEnd = 0;
+
+        int read = input.read(array, limit, array.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        while (input != null && !endOfInput && limit - position < 3) {
+            refill();
+        }
+        if (limit - position >= 3
+                && buffer.get(position) == (byte) 0xEF
+                && buffer.get(position + 1) == (byte) 0xBB
+                && buffer.get(position + 2) == (byte) 0xBF) {
+            position += 3;
+        }
+    }
+
+    private String decode(int start, int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Same rule as String.trim(); bytes of multi-byte UTF-8 characters are negative and never match
+     */
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    private static boolean isLineBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+}
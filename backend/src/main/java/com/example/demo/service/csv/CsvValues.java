@@ -0,0 +1,160 @@
+package com.example.demo.service.csv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Small helpers for turning raw CSV cell bytes into field values.
+ */
+public final class CsvValues {
+
+    // Longest mantissa that still fits in a long without overflow checks
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CsvValues() {
+    }
+
+    /**
+     * Parse a decimal number from bytes [start, end), skipping units, quotes and thousands separators
+     * the same way the importer always has ("1,234 yds" is 1234). Returns NaN if there is no number.
+     *
+     * Results are exact for up to 15 significant digits. Longer mantissas (Garmin prints the full
+     * float expansion, e.g. 7.360017518671792) are within one ulp of Double.parseDouble.
+     */
+    public static double parseDouble(ByteBuffer bytes, int start, int end) {
+        long mantissa = 0;
+        int digits = 0;          // significant digits kept in the mantissa
+        int droppedDigits = 0;   // integer digits beyond MAX_MANTISSA_DIGITS
+        int fractionDigits = 0;  // kept digits after the decimal point
+        int exponent = 0;
+        boolean negative = false;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+
+        for (int p = start; p < end; p++) {
+            byte b = bytes.get(p);
+
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                int digit = b - '0';
+                if (digits == 0 && digit == 0) {
+                    // Leading zeros only shift the decimal point
+                    if (seenDot) fractionDigits++;
+                } else if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + digit;
+                    digits++;
+                    if (seenDot) fractionDigits++;
+                } else if (!seenDot) {
+                    droppedDigits++;
+                }
+            } else if (b == '.') {
+                if (seenDot) return Double.NaN;
+                seenDot = true;
+            } else if (b == '-') {
+                // A minus sign is only valid in front of the number
+                if (seenDigit || seenDot || negative) return Double.NaN;
+                negative = true;
+            } else if ((b == 'e' || b == 'E') && seenDigit && isDigit(bytes, p - 1, start, end)) {
+                // Scientific notation, e.g. 1.5E-05; an 'e' inside a unit such as "[deg]" is skipped
+                int q = p + 1;
+                boolean negativeExponent = false;
+                if (q < end && (bytes.get(q) == '-' || bytes.get(q) == '+')) {
+                    negativeExponent = bytes.get(q) == '-';
+                    q++;
+                }
+                if (!isDigit(bytes, q, start, end)) continue;
+
+                while (q < end && isDigit(bytes, q, start, end)) {
+                    if (exponent < 10_000) exponent = exponent * 10 + (bytes.get(q) - '0');
+                    q++;
+                }
+                if (negativeExponent) exponent = -exponent;
+                break;
+            }
+            // Anything else (units, quotes, commas, spaces) is ignored
+        }
+
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+
+        double value = toDouble(mantissa, digits, exponent + droppedDigits - fractionDigits);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a whole number from bytes [start, end) with the same rules as Integer.parseInt, or null
+     */
+    public static Integer parseInt(ByteBuffer bytes, int start, int end) {
+        if (start >= end) return null;
+
+        int p = start;
+        boolean negative = false;
+        byte first = bytes.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            p++;
+            if (p == end) return null;
+        }
+
+        long value = 0;
+        for (; p < end; p++) {
+            byte b = bytes.get(p);
+            if (b < '0' || b > '9') return null;
+            value = value * 10 + (b - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) return null;
+        }
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) return null;
+        return (int) value;
+    }
+
+    /**
+     * Sanitize input to prevent XSS and injection attacks
+     */
+    public static String sanitize(String input) {
+        if (input == null) {
+            return "";
+        }
+
+        // Remove any potentially harmful characters
+        return input.trim()
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#x27;")
+                .replace("/", "&#x2F;");
+    }
+
+    private static boolean isDigit(ByteBuffer bytes, int p, int start, int end) {
+        if (p < start || p >= end) return false;
+        byte b = bytes.get(p);
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * mantissa * 10^scale, using exact powers of ten where possible
+     */
+    private static double toDouble(long mantissa, int digits, int scale) {
+        if (mantissa == 0) {
+            return 0.0;
+        }
+        if (scale == 0) {
+            return mantissa;
+        }
+        if (scale > 0 && scale < POWERS_OF_TEN.length && digits + scale <= 15) {
+            return mantissa * POWERS_OF_TEN[scale];
+        }
+        if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            return mantissa / POWERS_OF_TEN[-scale];
+        }
+        // Very large or very small exponents are rare enough to take the slow path
+        return Double.parseDouble(mantissa + "E" + scale);
+    }
+}
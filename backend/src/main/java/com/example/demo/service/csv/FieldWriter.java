@@ -0,0 +1,63 @@
+package com.example.demo.service.csv;
+
+import com.example.demo.model.Shot;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Writes one CSV cell into the matching Shot field.
+ * Writers are looked up once per header row (see ColumnMappingPlan), never per cell.
+ */
+@FunctionalInterface
+public interface FieldWriter {
+
+    /**
+     * Copy the cell into the shot. Returns false if the cell could not be parsed.
+     */
+    boolean write(Shot shot, CsvRow row, int column);
+
+    /**
+     * Writer for a numeric column, tolerant of units and thousands separators
+     */
+    static FieldWriter number(BiConsumer<Shot, Double> setter) {
+        return (shot, row, column) -> {
+            double value = row.getDouble(column);
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            setter.accept(shot, value);
+            return true;
+        };
+    }
+
+    /**
+     * Writer for a whole-number column
+     */
+    static FieldWriter integer(BiConsumer<Shot, Integer> setter) {
+        return (shot, row, column) -> {
+            Integer value = row.getInt(column);
+            if (value == null) {
+                return false;
+            }
+            setter.accept(shot, value);
+            return true;
+        };
+    }
+
+    /**
+     * Writer for a free-text column, sanitized before it reaches the entity
+     */
+    static FieldWriter text(BiConsumer<Shot, String> setter) {
+        return (shot, row, column) -> {
+            setter.accept(shot, CsvValues.sanitize(row.getString(column)));
+            return true;
+        };
+    }
+
+    /**
+     * Writer that feeds the same cell to several writers (e.g. a value mapped to two fields)
+     */
+    static FieldWriter both(FieldWriter first, FieldWriter second) {
+        return (shot, row, column) -> first.write(shot, row, column) & second.write(shot, row, column);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.service.csv;
+
+/**
+ * Receives a callback for every data row the parser accepts or rejects.
+ * Lets long-running uploads report progress while the file is still being read.
+ */
+public interface ParseListener {
+
+    /** A listener that ignores everything */
+    ParseListener NONE = new ParseListener() {
+        @Override
+        public void rowParsed() {
+        }
+
+        @Override
+        public void rowRejected() {
+        }
+    };
+
+    /**
+     * A row was turned into a shot and handed to the sink
+     */
+    void rowParsed();
+
+    /**
+     * A row was skipped because it was malformed or could not be parsed
+     */
+    void rowRejected();
+}
@@ -0,0 +1,168 @@
+package com.example.demo.service.csv;
+
+import com.example.demo.model.Shot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.example.demo.service.csv.FieldWriter.both;
+import static com.example.demo.service.csv.FieldWriter.integer;
+import static com.example.demo.service.csv.FieldWriter.number;
+import static com.example.demo.service.csv.FieldWriter.text;
+
+/**
+ * Header dictionaries for each supported export format.
+ * Keys are lower-case header names (optionally followed by their unit, e.g. "carry distance [yd]").
+ */
+final class ShotColumnMappings {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShotColumnMappings.class);
+
+    // Awesome Golf format is YYYY-MM-DD HH:MM:SS
+    private static final DateTimeFormatter AWESOME_GOLF_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final Map<String, FieldWriter> GARMIN_R10 = new HashMap<>();
+    private static final Map<String, FieldWriter> AWESOME_GOLF = new HashMap<>();
+
+    static {
+        garmin(integer(Shot::setShotNumber), "shot", "shot number");
+        garmin(text(Shot::setClub), "club");
+        garmin(text(Shot::setPlayer), "player");
+        garmin(number(Shot::setBallSpeed), "ball speed", "ball speed (mph)");
+        garmin(number(Shot::setClubHeadSpeed), "club head speed", "club speed", "club speed (mph)");
+        garmin(number(Shot::setLaunchAngle), "launch angle", "launch angle (deg)");
+        garmin(number(Shot::setLaunchDirection), "launch direction", "launch direction (deg)");
+        garmin(number(Shot::setSpinRate), "spin rate", "spin rate (rpm)");
+        garmin(number(Shot::setSpinAxis), "spin axis", "spin axis (deg)");
+        garmin(number(Shot::setCarryDistance), "carry", "carry distance", "carry distance (yards)");
+        garmin(number(Shot::setTotalDistance), "total", "total distance", "total distance (yards)");
+        garmin(number(Shot::setDeviation), "deviation", "deviation (ft)");
+        garmin(number(Shot::setApex), "apex", "apex (ft)");
+        garmin(number(Shot::setAttackAngle), "attack angle", "attack angle (deg)");
+        garmin(number(Shot::setFaceAngle), "face angle", "face angle (deg)");
+        garmin(number(Shot::setFaceToPath), "face to path", "face to path (deg)");
+        garmin(number(Shot::setSwingPath), "swing path", "path", "path (deg)");
+        garmin(number(Shot::setSwingPlane), "swing plane", "plane", "plane (deg)");
+        garmin(number(Shot::setVerticalFaceImpact), "vertical face impact", "vertical impact (in)");
+        garmin(number(Shot::setHorizontalFaceImpact), "horizontal face impact", "horizontal impact (in)");
+        garmin(number(Shot::setAirDensity), "air density");
+        garmin(number(Shot::setTemperature), "temperature");
+
+        awesomeGolf(ShotColumnMappings::writeAwesomeGolfDate, "date");
+        awesomeGolf(text(Shot::setClub), "club type");
+        awesomeGolf(text(Shot::setClubDescription), "club description");
+        awesomeGolf(number(Shot::setAltitude), "altitude", "altitude [ft]");
+        awesomeGolf(number(Shot::setClubHeadSpeed), "club speed", "club speed [mph]");
+        awesomeGolf(number(Shot::setBallSpeed), "ball speed", "ball speed [mph]");
+        awesomeGolf(number(Shot::setCarryDistance), "carry distance", "carry distance [yd]");
+        awesomeGolf(number(Shot::setTotalDistance), "total distance", "total distance [yd]");
+        awesomeGolf(number(Shot::setRollDistance), "roll distance", "roll distance [yd]");
+        awesomeGolf(number(Shot::setSmash), "smash");
+        awesomeGolf(number(Shot::setLaunchAngle), "vertical launch", "vertical launch [deg]");
+        awesomeGolf(number(Shot::setPeakHeight), "peak height", "peak height [ft]");
+        awesomeGolf(number(Shot::setDescentAngle), "descent angle", "descent angle [deg]");
+        // Horizontal launch is mapped to the shared launch direction field as well
+        awesomeGolf(both(number(Shot::setHorizontalLaunch), number(Shot::setLaunchDirection)),
+                "horizontal launch", "horizontal launch [deg]");
+        awesomeGolf(number(Shot::setCarryLateralDistance), "carry lateral distance", "carry lateral distance [yd]");
+        awesomeGolf(number(Shot::setTotalLateralDistance), "total lateral distance", "total lateral distance [yd]");
+        awesomeGolf(number(Shot::setCarryCurveDistance), "carry curve distance", "carry curve distance [yd]");
+        awesomeGolf(number(Shot::setTotalCurveDistance), "total curve distance", "total curve distance [yd]");
+        awesomeGolf(number(Shot::setAttackAngle), "attack angle", "attack angle [deg]");
+        awesomeGolf(number(Shot::setDynamicLoft), "dynamic loft", "dynamic loft [deg]");
+        awesomeGolf(number(Shot::setSpinLoft), "spin loft", "spin loft [deg]");
+        awesomeGolf(number(Shot::setSpinRate), "spin rate", "spin rate [rpm]");
+        awesomeGolf(number(Shot::setSpinAxis), "spin axis", "spin axis [deg]");
+        awesomeGolf(number(Shot::setLowPoint), "low point", "low point [in]");
+        awesomeGolf(number(Shot::setSwingPath), "club path", "club path [deg]");
+        awesomeGolf(number(Shot::setFaceToPath), "face path", "face path [deg]");
+        // Face to target is also stored as the shared face angle field
+        awesomeGolf(both(number(Shot::setFaceAngle), number(Shot::setFaceTarget)),
+                "face target", "face target [deg]");
+        awesomeGolf(number(Shot::setSwingPlaneTilt), "swing plane tilt", "swing plane tilt [deg]");
+        awesomeGolf(number(Shot::setSwingPlaneRotation), "swing plane rotation", "swing plane rotation [deg]");
+        awesomeGolf(text(Shot::setShotClassification), "shot classification");
+    }
+
+    private ShotColumnMappings() {
+    }
+
+    /**
+     * Find the writer for a lower-case header name, or null if the column is not stored
+     */
+    static FieldWriter lookup(CsvFormat format, String header) {
+        return dictionary(format).get(header);
+    }
+
+    private static Map<String, FieldWriter> dictionary(CsvFormat format) {
+        return format == CsvFormat.AWESOME_GOLF ? AWESOME_GOLF : GARMIN_R10;
+    }
+
+    private static void garmin(FieldWriter writer, String... headers) {
+        for (String header : headers) {
+            GARMIN_R10.put(header, writer);
+        }
+    }
+
+    private static void awesomeGolf(FieldWriter writer, String... headers) {
+        for (String header : headers) {
+            AWESOME_GOLF.put(header, writer);
+        }
+    }
+
+    private static boolean writeAwesomeGolfDate(Shot shot, CsvRow row, int column) {
+        String value = row.getString(column);
+        LocalDateTime shotTime = parseAwesomeGolfDate(value);
+        if (shotTime == null) {
+            logger.warn("Failed to parse shot time: " + value);
+            // Continue with the shot, without the timestamp
+            return true;
+        }
+        shot.setShotTime(shotTime);
+        return true;
+    }
+
+    /**
+     * Parse "yyyy-MM-dd HH:mm:ss" by position, falling back to the formatter for anything unusual
+     */
+    static LocalDateTime parseAwesomeGolfDate(String value) {
+        if (value.length() == 19 && value.charAt(4) == '-' && value.charAt(7) == '-'
+                && value.charAt(10) == ' ' && value.charAt(13) == ':' && value.charAt(16) == ':') {
+            int year = digits(value, 0, 4);
+            int month = digits(value, 5, 7);
+            int day = digits(value, 8, 10);
+            int hour = digits(value, 11, 13);
+            int minute = digits(value, 14, 16);
+            int second = digits(value, 17, 19);
+            if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                } catch (DateTimeException e) {
+                    return null;
+                }
+            }
+        }
+
+        try {
+            return LocalDateTime.parse(value, AWESOME_GOLF_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int digits(String value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.service.csv;
+
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Turns launch monitor CSV exports into Shot objects.
+ * Persistence is left to the caller, which receives each shot through a sink.
+ */
+@Component
+public class ShotCsvParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShotCsvParser.class);
+
+    private final ColumnMappingPlanCache planCache = new ColumnMappingPlanCache();
+
+    /**
+     * Parse a CSV export and hand every valid shot to the sink, in file order
+     */
+    public void parse(CsvFormat format, InputStream input, Consumer<Shot> sink) throws IOException {
+        parse(format, input, sink, ParseListener.NONE);
+    }
+
+    /**
+     * Parse a CSV export, reporting every accepted and rejected data row to the listener
+     */
+    public void parse(CsvFormat format, InputStream input, Consumer<Shot> sink, ParseListener listener) throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(input)) {
+            parse(format, tokenizer, sink, listener);
+        }
+    }
+
+    /**
+     * Parse CSV content that is already in memory or mapped from a file, reading it in place without copying
+     */
+    public void parse(CsvFormat format, ByteBuffer content, Consumer<Shot> sink, ParseListener listener) throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(content.duplicate())) {
+            parse(format, tokenizer, sink, listener);
+        }
+    }
+
+    /**
+     * Detect the export format from the first non-blank row of the content, without consuming it
+     */
+    public Optional<CsvFormat> detectFormat(ByteBuffer content) throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(content.duplicate())) {
+            while (tokenizer.nextRecord()) {
+                if (!tokenizer.isBlankRecord()) {
+                    return CsvFormat.detect(tokenizer.fields());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void parse(CsvFormat format, CsvTokenizer tokenizer, Consumer<Shot> sink, ParseListener listener) throws IOException {
+        if (format == CsvFormat.AWESOME_GOLF) {
+            parseAwesomeGolf(tokenizer, sink, listener);
+        } else {
+            parseGarminR10(tokenizer, sink, listener);
+        }
+    }
+
+    private void parseGarminR10(CsvTokenizer tokenizer, Consumer<Shot> sink, ParseListener listener) throws IOException {
+        ColumnMappingPlan plan = null;
+
+        while (tokenizer.nextRecord()) {
+            // Skip empty lines
+            if (tokenizer.isBlankRecord()) {
+                continue;
+            }
+
+            // Resolve the header line into a mapping plan once
+            if (plan == null) {
+                String[] headers = tokenizer.fields();
+                plan = planCache.get(CsvFormat.GARMIN_R10, tokenizer.recordText(), null,
+                        () -> ColumnMappingPlan.compile(CsvFormat.GARMIN_R10, headers, null));
+                continue;
+            }
+
+            // Process data rows
+            if (tokenizer.fieldCount() != plan.columnCount()) {
+                logger.warn("Skipping malformed row: " + tokenizer.recordText());
+                listener.rowRejected();
+                continue;
+            }
+
+            try {
+                Shot shot = plan.apply(tokenizer);
+                if (!hasMeasurements(shot)) {
+                    // e.g. the units row under the header: every Garmin export has the same one
+                    logger.warn("Skipping row without measurements: " + tokenizer.recordText());
+                    listener.rowRejected();
+                    continue;
+                }
+                sink.accept(shot);
+                listener.rowParsed();
+            } catch (Exception e) {
+                logger.warn("Error parsing shot data: " + e.getMessage());
+                listener.rowRejected();
+                // Continue processing other shots
+            }
+        }
+    }
+
+    private void parseAwesomeGolf(CsvTokenizer tokenizer, Consumer<Shot> sink, ParseListener listener) throws IOException {
+        // Awesome Golf exports two header lines: column names, then units ("[yd]", "[mph]", ...)
+        if (!tokenizer.nextRecord()) {
+            return;
+        }
+        String headerLine = tokenizer.recordText();
+        String[] headers = tokenizer.fields();
+
+        String unitLine = null;
+        String[] units = null;
+        if (tokenizer.nextRecord()) {
+            unitLine = tokenizer.recordText();
+            units = tokenizer.fields();
+        }
+
+        String[] unitCells = units;
+        ColumnMappingPlan plan = planCache.get(CsvFormat.AWESOME_GOLF, headerLine, unitLine,
+                () -> ColumnMappingPlan.compile(CsvFormat.AWESOME_GOLF, headers, unitCells));
+
+        // Process data rows
+        int shotNumber = 1;
+
+        while (tokenizer.nextRecord()) {
+            // Skip empty lines
+            if (tokenizer.isBlankRecord()) {
+                continue;
+            }
+
+            if (tokenizer.fieldCount() < plan.columnCount()) {
+                logger.warn("Skipping malformed row: " + tokenizer.recordText());
+                listener.rowRejected();
+                continue;
+            }
+
+            try {
+                Shot shot = plan.apply(tokenizer);
+                if (!hasMeasurements(shot)) {
+                    logger.warn("Skipping row without measurements: " + tokenizer.recordText());
+                    listener.rowRejected();
+                    continue;
+                }
+                shot.setShotNumber(shotNumber++);
+                sink.accept(shot);
+                listener.rowParsed();
+            } catch (Exception e) {
+                logger.warn("Error parsing shot data: " + e.getMessage());
+                listener.rowRejected();
+                // Continue processing other shots
+            }
+        }
+    }
+
+    /**
+     * Whether the launch monitor measured anything about the shot; the weather alone does not count
+     */
+    private static boolean hasMeasurements(Shot shot) {
+        for (ShotMetric metric : ShotMetric.values()) {
+            if (metric == ShotMetric.AIR_DENSITY || metric == ShotMetric.TEMPERATURE) continue;
+            if (metric.get(shot) != null) return true;
+        }
+        return false;
+    }
+}
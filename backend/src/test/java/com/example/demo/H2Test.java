@@ -0,0 +1,22 @@
+package com.example.demo;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A full application context on an embedded H2 database, with the settings in application-h2.properties.
+ * Test classes sharing it also share one context (and database); add settings with @TestPropertySource.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("h2")
+public @interface H2Test {
+}
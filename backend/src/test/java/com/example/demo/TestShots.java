@@ -0,0 +1,27 @@
+package com.example.demo;
+
+import com.example.demo.model.Session;
+import com.example.demo.model.Shot;
+
+/**
+ * Builds sessions for tests
+ */
+public final class TestShots {
+
+    private TestShots() {
+    }
+
+    /**
+     * Add a shot with the next shot number, the given club and carry (either may be null) to the session
+     *
+     * @return The shot, for setting further values
+     */
+    public static Shot addShot(Session session, String club, Double carryDistance) {
+        Shot shot = new Shot();
+        shot.setShotNumber(session.getShots().size() + 1);
+        shot.setClub(club);
+        shot.setCarryDistance(carryDistance);
+        session.addShot(shot);
+        return shot;
+    }
+}
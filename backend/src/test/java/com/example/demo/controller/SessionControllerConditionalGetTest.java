@@ -0,0 +1,124 @@
+package com.example.demo.controller;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.model.Session;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.service.ShotColumnarEncoder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag / Last-Modified handling of the session endpoints: a client holding the current version gets a bodiless 304
+ */
+@H2Test
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class SessionControllerConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Session session = new Session("Lesson");
+        TestShots.addShot(session, "Driver", 220.0);
+        sessionId = sessionRepository.save(session).getId();
+    }
+
+    @Test
+    void repeatVisitIsAnsweredWithoutQueryingShots() throws Exception {
+        String etag = mockMvc.perform(get("/api/sessions/{id}/shots", sessionId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/sessions/{id}/shots", sessionId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shotColumnsAreNegotiatedWithTheirOwnETag() throws Exception {
+        String json = mockMvc.perform(get("/api/sessions/{id}/shots", sessionId))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader("ETag");
+        String columns = mockMvc.perform(get("/api/sessions/{id}/shots", sessionId).accept(ShotColumnarEncoder.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ShotColumnarEncoder.MEDIA_TYPE))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertNotEquals(json, columns);
+        mockMvc.perform(get("/api/sessions/{id}/shots", sessionId).accept(ShotColumnarEncoder.MEDIA_TYPE).header("If-None-Match", columns))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void statsFiltersHaveTheirOwnETags() throws Exception {
+        String all = mockMvc.perform(get("/api/sessions/{id}/stats", sessionId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String driver = mockMvc.perform(get("/api/sessions/{id}/stats", sessionId).param("club", "Driver"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertNotEquals(all, driver);
+        mockMvc.perform(get("/api/sessions/{id}/stats", sessionId).header("If-None-Match", all))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void editingTheSessionChangesItsETagButNotTheShots() throws Exception {
+        String sessionEtag = mockMvc.perform(get("/api/sessions/{id}", sessionId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String shotsEtag = mockMvc.perform(get("/api/sessions/{id}/shots", sessionId))
+                .andReturn().getResponse().getHeader("ETag");
+
+        Thread.sleep(5);
+        mockMvc.perform(put("/api/sessions/{id}", sessionId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Lesson (edited)\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/sessions/{id}", sessionId).header("If-None-Match", sessionEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(sessionEtag)));
+        mockMvc.perform(get("/api/sessions/{id}/shots", sessionId).header("If-None-Match", shotsEtag))
+                .andExpect(status().isNotModified());
+    }
+}
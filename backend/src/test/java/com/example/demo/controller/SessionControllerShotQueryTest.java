@@ -0,0 +1,134 @@
+package com.example.demo.controller;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.model.Session;
+import com.example.demo.model.Shot;
+import com.example.demo.repository.SessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/sessions/{id}/shots/query and /shots/stream: only the requested fields of the shots that pass the filters
+ */
+@H2Test
+@AutoConfigureMockMvc
+class SessionControllerShotQueryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Session session = new Session("Query");
+        add(session, "Driver", 245.0, 12.0);
+        add(session, "7 Iron", 150.0, -3.0);
+        add(session, "Driver", 205.0, null);
+        add(session, "Driver", 262.0, 30.0);
+        sessionId = sessionRepository.save(session).getId();
+    }
+
+    @Test
+    void returnsOnlyRequestedFieldsInShotOrder() throws Exception {
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId).param("fields", "shotNumber, carryDistance,apex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].length()").value(3))
+                .andExpect(jsonPath("$[*].shotNumber", contains(1, 2, 3, 4)))
+                .andExpect(jsonPath("$[2].apex", nullValue()))
+                .andExpect(jsonPath("$[0].club").doesNotExist());
+    }
+
+    @Test
+    void filtersByClubAndRanges() throws Exception {
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId)
+                        .param("fields", "carryDistance")
+                        .param("club", "Driver")
+                        .param("min.carryDistance", "210")
+                        .param("max.carryDistance", "250"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].carryDistance", contains(245.0)));
+
+        // A bound excludes shots without a value for that field
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId).param("fields", "shotNumber").param("min.apex", "0"))
+                .andExpect(jsonPath("$[*].shotNumber", contains(1, 4)));
+    }
+
+    @Test
+    void withoutFieldsReturnsEveryField() throws Exception {
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].club").value("Driver"))
+                .andExpect(jsonPath("$[0].shotTime").value("2025-05-14T14:00:00"))
+                .andExpect(jsonPath("$[0].swingPlaneRotation").hasJsonPath());
+    }
+
+    @Test
+    void streamReturnsTheSameJsonAsTheQuery() throws Exception {
+        for (String fields : new String[] {"", "shotNumber,club,shotTime,apex"}) {
+            String queried = mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId)
+                            .param("fields", fields).param("min.carryDistance", "200"))
+                    .andReturn().getResponse().getContentAsString();
+
+            MvcResult started = mockMvc.perform(get("/api/sessions/{id}/shots/stream", sessionId)
+                            .param("fields", fields).param("min.carryDistance", "200"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String streamed = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertEquals(objectMapper.readTree(queried), objectMapper.readTree(streamed));
+            assertEquals(3, objectMapper.readTree(streamed).size());
+        }
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndNonNumericRanges() throws Exception {
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId).param("fields", "carryDistance;DROP TABLE shot"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId).param("min.club", "1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", sessionId).param("max.apex", "high"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sessions/{id}/shots/query", -1L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/sessions/{id}/shots/stream", sessionId).param("fields", "nope"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static void add(Session session, String club, Double carry, Double apex) {
+        Shot shot = TestShots.addShot(session, club, carry);
+        shot.setShotTime(LocalDateTime.of(2025, 5, 14, 14, 0).plusMinutes(session.getShots().size() - 1));
+        shot.setApex(apex);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.controller;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.model.Session;
+import com.example.demo.model.Shot;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.service.TrajectoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/sessions/{id}/trajectories: simulated flights for every shot of a session in one response
+ */
+@H2Test
+@AutoConfigureMockMvc
+class SessionControllerTrajectoryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TrajectoryService trajectoryService;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Session session = new Session("Trajectories");
+        Shot drive = TestShots.addShot(session, "Driver", null);
+        drive.setBallSpeed(150.0);
+        drive.setLaunchAngle(12.0);
+        drive.setLaunchDirection(-2.0);
+        drive.setSpinRate(2600.0);
+        drive.setSpinAxis(5.0);
+        drive.setAirDensity(1.15);
+        // No launch conditions, only a result
+        TestShots.addShot(session, "Putter", 3.0);
+        sessionId = sessionRepository.save(session).getId();
+    }
+
+    @Test
+    void everyShotIsReturnedInOrder() throws Exception {
+        mockMvc.perform(get("/api/sessions/{id}/trajectories", sessionId).param("points", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].shotNumber").value(1))
+                .andExpect(jsonPath("$[0].club").value("Driver"))
+                .andExpect(jsonPath("$[0].trajectory.x", hasSize(5)))
+                .andExpect(jsonPath("$[0].trajectory.y[0]").value(0.0))
+                .andExpect(jsonPath("$[0].trajectory.y[4]").value(0.0))
+                .andExpect(jsonPath("$[0].trajectory.carryDistance", closeTo(250.0, 30.0)))
+                .andExpect(jsonPath("$[1].shotNumber").value(2))
+                .andExpect(jsonPath("$[1].trajectory").value(nullValue()));
+
+        mockMvc.perform(get("/api/sessions/{id}/trajectories", sessionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].trajectory.z", hasSize(TrajectoryService.DEFAULT_POINTS)));
+    }
+
+    @Test
+    void trajectoriesAreCachedPerShot() {
+        List<Map<String, Object>> first = trajectoryService.getTrajectories(sessionId, 12);
+        List<Map<String, Object>> second = trajectoryService.getTrajectories(sessionId, 12);
+
+        assertNotNull(first.get(0).get("trajectory"));
+        assertSame(first.get(0).get("trajectory"), second.get(0).get("trajectory"));
+    }
+
+    @Test
+    void badRequestsAreRejected() throws Exception {
+        mockMvc.perform(get("/api/sessions/{id}/trajectories", sessionId).param("points", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("points")));
+        mockMvc.perform(get("/api/sessions/{id}/trajectories", sessionId).param("points", "501"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/sessions/{id}/trajectories", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void repeatVisitIsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/sessions/{id}/trajectories", sessionId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/sessions/{id}/trajectories", sessionId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/sessions/{id}/trajectories", sessionId).param("points", "10").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+}
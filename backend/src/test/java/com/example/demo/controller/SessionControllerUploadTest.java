@@ -0,0 +1,137 @@
+package com.example.demo.controller;
+
+import com.example.demo.H2Test;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.ShotRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The two ways of posting a CSV to /api/sessions/upload: a multipart form, or the raw file as the request body
+ */
+@H2Test
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "golf.upload.max-body-size=50000")
+class SessionControllerUploadTest {
+
+    private static final Path GARMIN_SAMPLE = Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Autowired
+    private SessionController sessionController;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void rawBodyAndMultipartUploadsOfTheSameFileShareASession() throws Exception {
+        byte[] csv = Files.readAllBytes(GARMIN_SAMPLE);
+
+        String raw = mockMvc.perform(post("/api/sessions/upload")
+                        .param("title", "Raw body")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sourceType").value("GARMIN_R10"))
+                .andReturn().getResponse().getContentAsString();
+
+        // The second upload of the same bytes is recognised and answered with the first session
+        String multipart = mockMvc.perform(multipart("/api/sessions/upload")
+                        .file(new MockMultipartFile("file", "range.csv", "text/csv", csv))
+                        .param("title", "Multipart"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(sessionId(raw), sessionId(multipart));
+        assertTrue(shotRepository.countBySessionId(sessionId(raw)) > 0);
+    }
+
+    @Test
+    void rawBodyWithoutShotsIsABadRequest() throws Exception {
+        mockMvc.perform(post("/api/sessions/upload")
+                        .param("title", "Empty")
+                        .contentType("text/csv")
+                        .content(new byte[0]))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("No valid shots found in the CSV file"));
+    }
+
+    @Test
+    void rawBodyOverTheLimitIsRefused() throws Exception {
+        byte[] sample = Files.readAllBytes(GARMIN_SAMPLE);
+        byte[] csv = new byte[sample.length * 2];
+        System.arraycopy(sample, 0, csv, 0, sample.length);
+        System.arraycopy(sample, 0, csv, sample.length, sample.length);
+        long sessions = sessionRepository.count();
+
+        // Declared up front
+        mockMvc.perform(post("/api/sessions/upload")
+                        .param("title", "Too large")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.error").value("Upload is larger than 50000 bytes"));
+
+        // Sent without a length, so only found out while reading: the shots saved so far are rolled back
+        mockMvc.perform(post("/api/sessions/upload")
+                        .param("title", "Too large")
+                        .contentType("text/csv")
+                        .content(csv)
+                        .with(request -> {
+                            request.removeHeader(HttpHeaders.CONTENT_LENGTH);
+                            return request;
+                        }))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertEquals(sessions, sessionRepository.count());
+    }
+
+    @Test
+    void rawUploadsBeyondTheLimitAreAskedToRetry() throws Exception {
+        Semaphore rawUploads = (Semaphore) ReflectionTestUtils.getField(sessionController, "rawUploads");
+        int permits = rawUploads.drainPermits();
+        try {
+            mockMvc.perform(post("/api/sessions/upload")
+                            .param("title", "Busy")
+                            .contentType("text/csv")
+                            .content(Files.readAllBytes(GARMIN_SAMPLE)))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+        } finally {
+            rawUploads.release(permits);
+        }
+    }
+
+    private long sessionId(String json) throws Exception {
+        JsonNode session = objectMapper.readTree(json);
+        return session.get("id").asLong();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+    // The bound documented on QuantileSketch for k = 200, in rank fraction
+    private static final double RANK_ERROR = 0.015;
+
+    private static final double[] FRACTIONS = {0.01, 0.05, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+    @Test
+    void keepsSmallInputsExactly() {
+        QuantileSketch sketch = new QuantileSketch();
+        double[] values = {210, 195, 230, 188, 240, 205, 199, 221, 215, 202};
+        for (double value : values) {
+            sketch.add(value);
+        }
+        sketch.add(Double.NaN);
+
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(10, sketch.getCount());
+        assertEquals(188.0, sketch.quantile(0));
+        assertEquals(sorted[0], sketch.quantile(0.1));
+        assertEquals(sorted[4], sketch.quantile(0.5));
+        assertEquals(sorted[8], sketch.quantile(0.9));
+        assertEquals(240.0, sketch.quantile(1));
+        assertNull(new QuantileSketch().quantile(0.5));
+    }
+
+    @Test
+    void staysWithinTheRankBoundOnLargeStreams() {
+        Random random = new Random(1);
+        assertWithinBound(stream(200_000, () -> 200 + random.nextGaussian() * 15));
+        assertWithinBound(stream(200_000, () -> random.nextDouble() * 300));
+        // Long runs of equal values, and values arriving in order
+        assertWithinBound(stream(100_000, () -> Math.round(random.nextGaussian() * 3)));
+        double[] ascending = new double[150_000];
+        Arrays.setAll(ascending, i -> i);
+        assertWithinBound(ascending);
+    }
+
+    @Test
+    void mergedSketchesStayWithinTheRankBound() {
+        Random random = new Random(2);
+        double[] all = new double[0];
+        QuantileSketch merged = new QuantileSketch();
+        // Sessions of different sizes and means, as when merging a player's history
+        for (int session = 0; session < 300; session++) {
+            double mean = 180 + session % 40;
+            double[] values = stream(20 + random.nextInt(400), () -> mean + random.nextGaussian() * 12);
+            merged.merge(sketchOf(values));
+
+            int start = all.length;
+            all = Arrays.copyOf(all, start + values.length);
+            System.arraycopy(values, 0, all, start, values.length);
+        }
+        assertWithinBound(all, merged);
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        Random random = new Random(3);
+        QuantileSketch sketch = sketchOf(stream(50_000, random::nextGaussian));
+
+        QuantileSketch copy = QuantileSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.getCount(), copy.getCount());
+        assertArrayEquals(sketch.toBytes(), copy.toBytes());
+        for (double fraction : FRACTIONS) {
+            assertEquals(sketch.quantile(fraction), copy.quantile(fraction));
+        }
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.fromBytes(new byte[] {7, 1, 2}));
+    }
+
+    @Test
+    void sameValuesGiveTheSameSketch() {
+        double[] values = stream(30_000, new Random(4)::nextDouble);
+        assertArrayEquals(sketchOf(values).toBytes(), sketchOf(values).toBytes());
+    }
+
+    private static void assertWithinBound(double[] values) {
+        assertWithinBound(values, sketchOf(values));
+    }
+
+    /**
+     * Every returned value must have a true rank (as a fraction of the values) within RANK_ERROR of the asked one
+     */
+    private static void assertWithinBound(double[] values, QuantileSketch sketch) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted.length, sketch.getCount());
+        assertTrue(sketch.toBytes().length < 4 * QuantileSketch.DEFAULT_K * 8, "sketch should stay small");
+
+        for (double fraction : FRACTIONS) {
+            double value = sketch.quantile(fraction);
+            double lowestRank = (double) lowerBound(sorted, value) / sorted.length;
+            double highestRank = (double) upperBound(sorted, value) / sorted.length;
+            double error = fraction < lowestRank ? lowestRank - fraction : Math.max(0, fraction - highestRank);
+            assertTrue(error <= RANK_ERROR, "rank error " + error + " at " + fraction);
+        }
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) return -index - 1;
+        while (index > 0 && sorted[index - 1] == value) index--;
+        return index;
+    }
+
+    private static int upperBound(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) return -index - 1;
+        while (index < sorted.length && sorted[index] == value) index++;
+        return index;
+    }
+
+    private static double[] stream(int size, DoubleSupplier values) {
+        double[] stream = new double[size];
+        for (int i = 0; i < size; i++) {
+            stream[i] = values.getAsDouble();
+        }
+        return stream;
+    }
+
+    private static QuantileSketch sketchOf(double[] values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+}
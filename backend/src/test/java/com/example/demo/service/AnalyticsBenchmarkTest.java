@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AnalyticsQuery;
+import com.example.demo.model.AnalyticsQuery.Dimension;
+import com.example.demo.model.ShotColumns;
+import com.example.demo.model.ShotMetric;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Time to group five years of shots (1,000 sessions of 500 shots) by club and month, on one thread and on all cores.
+ *
+ * Run with: ./mvnw test -Dtest=AnalyticsBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AnalyticsBenchmarkTest {
+
+    private static final int SESSIONS = 1_000;
+    private static final int SHOTS_PER_SESSION = 500;
+    private static final String[] CLUBS = {"Driver", "3 Wood", "5 Iron", "6 Iron", "7 Iron", "8 Iron", "9 Iron", "PW", "SW"};
+    private static final int ROUNDS = 20;
+
+    @Test
+    void groupByClubAndMonth() {
+        Random random = new Random(7);
+        ShotColumns.Builder builder = new ShotColumns.Builder();
+        Map<Long, AnalyticsService.SessionAttributes> sessions = new HashMap<>();
+        double[] values = new double[ShotMetric.values().length];
+        LocalDateTime first = LocalDateTime.of(2021, 1, 1, 10, 0);
+        for (long session = 1; session <= SESSIONS; session++) {
+            LocalDateTime date = first.plusDays(session * 5 * 365 / SESSIONS);
+            sessions.put(session, new AnalyticsService.SessionAttributes(date, session % 2 == 0 ? "GARMIN_R10" : "AWESOME_GOLF"));
+            builder.startSession(session);
+            for (int shot = 0; shot < SHOTS_PER_SESSION; shot++) {
+                for (int m = 0; m < values.length; m++) {
+                    values[m] = random.nextInt(20) == 0 ? Double.NaN : 100 + random.nextGaussian() * 30;
+                }
+                builder.addRow(CLUBS[random.nextInt(CLUBS.length)], date, values);
+            }
+        }
+        ShotColumns columns = builder.build();
+        AnalyticsQuery query = new AnalyticsQuery(List.of(Dimension.CLUB, Dimension.MONTH), Arrays.asList(ShotMetric.values()),
+                Set.of(), null, null, null);
+        int[] partitions = AnalyticsService.partitions(columns, sessions, query);
+
+        for (int threads : new int[] {1, Runtime.getRuntime().availableProcessors()}) {
+            AnalyticsService service = new AnalyticsService();
+            ReflectionTestUtils.setField(service, "parallelism", threads);
+            service.start();
+            try {
+                for (int i = 0; i < ROUNDS; i++) {
+                    service.aggregate(columns, partitions, sessions, query);
+                }
+                long start = System.nanoTime();
+                int groups = 0;
+                for (int i = 0; i < ROUNDS; i++) {
+                    groups = service.aggregate(columns, partitions, sessions, query).size();
+                }
+                System.out.printf(Locale.ROOT, "%,d shots, %d metrics, %d groups, %d threads: %.1f ms%n", columns.size(),
+                        query.metrics().size(), groups, threads, (System.nanoTime() - start) / 1e6 / ROUNDS);
+            } finally {
+                service.stop();
+            }
+        }
+    }
+}
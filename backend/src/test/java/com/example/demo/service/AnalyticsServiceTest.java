@@ -0,0 +1,271 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.model.AnalyticsQuery;
+import com.example.demo.model.AnalyticsQuery.Dimension;
+import com.example.demo.model.ClubSummary;
+import com.example.demo.model.MetricMoments;
+import com.example.demo.model.Session;
+import com.example.demo.model.ShotMetric;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.SessionSummaryRepository;
+import com.example.demo.repository.ShotRepository;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@H2Test
+class AnalyticsServiceTest {
+
+    private static final LocalDateTime MAY = LocalDateTime.of(2025, 5, 14, 12, 0);
+    private static final LocalDateTime JUNE = LocalDateTime.of(2025, 6, 2, 9, 0);
+    private static final LocalDateTime LAST_YEAR = LocalDateTime.of(2024, 8, 30, 17, 0);
+
+    private static final Path SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+    private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionSummaryRepository sessionSummaryRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Autowired
+    private CsvService csvService;
+
+    private Set<Long> sessionIds;
+
+    @BeforeEach
+    void setUp() {
+        Long may = save(MAY, "GARMIN_R10", new Object[][] {
+                {"Driver", 200.0}, {"Driver", 220.0}, {"7 Iron", 150.0}, {"7 Iron", null}});
+        Long june = save(JUNE, "AWESOME_GOLF", new Object[][] {
+                {"Driver", 240.0}, {"7 Iron", 160.0}, {"Wedge", 95.0}});
+        Long lastYear = save(LAST_YEAR, "GARMIN_R10", new Object[][] {
+                {"Driver", 180.0}});
+        sessionIds = Set.of(may, june, lastYear);
+    }
+
+    @Test
+    void groupsByClubAcrossSessions() {
+        Map<String, Object> analysis = analyticsService.analyze(query(List.of(Dimension.CLUB), null, null, null));
+
+        assertEquals(3, analysis.get("sessions"));
+        assertEquals(8L, analysis.get("shots"));
+        List<Map<String, Object>> groups = groups(analysis);
+        assertEquals(List.of("7 Iron", "Driver", "Wedge"), groups.stream().map(group -> group.get("club")).toList());
+
+        Map<String, Object> driver = groups.get(1);
+        assertEquals(4L, driver.get("shots"));
+        Map<String, Object> carry = carry(driver);
+        assertEquals(4L, carry.get("count"));
+        assertEquals(210.0, (Double) carry.get("mean"), 1e-9);
+        assertEquals(Math.sqrt(2000.0 / 3), (Double) carry.get("stdDev"), 1e-9);
+        assertEquals(180.0, carry.get("min"));
+        assertEquals(240.0, carry.get("max"));
+
+        // Shots without a carry count as shots, not as carries
+        Map<String, Object> iron = groups.get(0);
+        assertEquals(3L, iron.get("shots"));
+        assertEquals(2L, carry(iron).get("count"));
+    }
+
+    @Test
+    void groupsByMonthAndSourceWithinADateRange() {
+        Map<String, Object> analysis = analyticsService.analyze(query(List.of(Dimension.MONTH, Dimension.SOURCE_TYPE),
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0), null));
+
+        assertEquals(2, analysis.get("sessions"));
+        List<Map<String, Object>> groups = groups(analysis);
+        assertEquals(2, groups.size());
+        assertEquals("2025-05", groups.get(0).get("month"));
+        assertEquals("GARMIN_R10", groups.get(0).get("sourceType"));
+        assertEquals(4L, groups.get(0).get("shots"));
+        assertEquals("2025-06", groups.get(1).get("month"));
+        assertEquals(165.0, (Double) carry(groups.get(1)).get("mean"), 1e-9);
+    }
+
+    @Test
+    void filtersByClubWithoutGrouping() {
+        Map<String, Object> analysis = analyticsService.analyze(query(List.of(), null, null, "Wedge"));
+
+        List<Map<String, Object>> groups = groups(analysis);
+        assertEquals(1, groups.size());
+        assertEquals(1L, groups.get(0).get("shots"));
+        assertNull(carry(groups.get(0)).get("stdDev"));
+
+        assertEquals(0L, analyticsService.analyze(query(List.of(), null, null, "Putter")).get("shots"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void percentilesMergeTheSketchesStoredAtUpload() throws IOException {
+        Long first = upload(new Random(5), LocalDateTime.of(2025, 7, 1, 8, 0), 2_500);
+        Long second = upload(new Random(6), LocalDateTime.of(2025, 7, 8, 8, 0), 3_000);
+        for (Long sessionId : List.of(first, second)) {
+            sessionSummaryRepository.findById(sessionId).orElseThrow().getClubs().values().forEach(club ->
+                    ClubSummary.SKETCHED_METRICS.forEach(metric -> assertTrue(club.hasSketch(metric))));
+        }
+
+        Map<String, Object> percentiles = analyticsService.percentiles(new AnalyticsQuery(List.of(Dimension.CLUB),
+                ClubSummary.SKETCHED_METRICS, Set.of(first, second), null, null, null), List.of(10.0, 50.0, 90.0));
+
+        assertEquals(2, percentiles.get("sessions"));
+        List<Map<String, Object>> groups = groups(percentiles);
+        assertEquals(List.of("7 Iron", "Driver"), groups.stream().map(group -> group.get("club")).toList());
+        for (Map<String, Object> group : groups) {
+            for (ShotMetric metric : ClubSummary.SKETCHED_METRICS) {
+                double[] exact = Stream.of(first, second)
+                        .flatMap(id -> shotRepository.findBySessionIdOrderByShotNumber(id).stream())
+                        .filter(shot -> shot.getClub().equals(group.get("club")))
+                        .mapToDouble(shot -> metric.get(shot)).sorted().toArray();
+                Map<String, Object> values = (Map<String, Object>) group.get(metric.getProperty());
+                assertEquals((long) exact.length, values.get("count"));
+                assertWithinRankBound(exact, 0.1, (Double) values.get("p10"));
+                assertWithinRankBound(exact, 0.5, (Double) values.get("p50"));
+                assertWithinRankBound(exact, 0.9, (Double) values.get("p90"));
+            }
+        }
+    }
+
+    @Test
+    void percentilesOfSessionsWithoutStoredSketchesComeFromTheirShots() {
+        Map<String, Object> percentiles = analyticsService.percentiles(query(List.of(Dimension.CLUB), null, null, "Driver"),
+                List.of(0.0, 50.0, 100.0));
+
+        List<Map<String, Object>> groups = groups(percentiles);
+        assertEquals(1, groups.size());
+        Map<String, Object> carry = carry(groups.get(0));
+        assertEquals(4L, carry.get("count"));
+        assertEquals(180.0, carry.get("p0"));
+        assertEquals(200.0, carry.get("p50"));
+        assertEquals(240.0, carry.get("p100"));
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.percentiles(
+                new AnalyticsQuery(List.of(), List.of(ShotMetric.TOTAL_DISTANCE), Set.of(), null, null, null), List.of(50.0)));
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.percentiles(
+                query(List.of(), null, null, null), List.of(101.0)));
+    }
+
+    @Test
+    void mergedMomentsMatchOnePass() {
+        Random random = new Random(42);
+        double[] values = new double[10_000];
+        MetricMoments onePass = new MetricMoments();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 150 + random.nextGaussian() * 25;
+            onePass.add(values[i]);
+        }
+
+        // Uneven partitions, merged in a different order from the one they were filled in
+        MetricMoments merged = new MetricMoments();
+        int start = 0;
+        while (start < values.length) {
+            int end = Math.min(values.length, start + 1 + random.nextInt(700));
+            MetricMoments partition = new MetricMoments();
+            for (int i = start; i < end; i++) {
+                partition.add(values[i]);
+            }
+            partition.merge(merged);
+            merged = partition;
+            start = end;
+        }
+
+        assertEquals(onePass.getCount(), merged.getCount());
+        assertEquals(onePass.getMean(), merged.getMean(), 1e-9);
+        assertEquals(onePass.getStdDev(), merged.getStdDev(), 1e-9);
+        assertEquals(onePass.getMin(), merged.getMin());
+        assertEquals(onePass.getMax(), merged.getMax());
+    }
+
+    @Test
+    void rejectsUnknownDimensionsAndMetrics() {
+        assertThrows(IllegalArgumentException.class, () -> Dimension.of("weather"));
+        assertThrows(IllegalArgumentException.class, () -> AnalyticsQuery.metric("carry"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AnalyticsQuery(List.of(Dimension.CLUB, Dimension.CLUB), List.of(), Set.of(), null, null, null));
+    }
+
+    private AnalyticsQuery query(List<Dimension> groupBy, LocalDateTime from, LocalDateTime to, String club) {
+        return new AnalyticsQuery(groupBy, List.of(ShotMetric.CARRY_DISTANCE), sessionIds, from, to, club);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> groups(Map<String, Object> analysis) {
+        return (List<Map<String, Object>>) analysis.get("groups");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> carry(Map<String, Object> group) {
+        return (Map<String, Object>) group.get("carryDistance");
+    }
+
+    /**
+     * The value's true rank among the sorted values must be within QuantileSketch's documented 1.5 points of fraction
+     */
+    private static void assertWithinRankBound(double[] sorted, double fraction, double value) {
+        long below = Arrays.stream(sorted).filter(v -> v < value).count();
+        long atOrBelow = Arrays.stream(sorted).filter(v -> v <= value).count();
+        double error = Math.max((double) below / sorted.length - fraction, fraction - (double) atOrBelow / sorted.length);
+        assertTrue(error <= 0.015, "rank error " + error + " at " + fraction);
+    }
+
+    /**
+     * Upload a generated Awesome Golf CSV of Drivers and 7 Irons with random carries, spanning several ingest chunks
+     */
+    private Long upload(Random random, LocalDateTime start, int shots) throws IOException {
+        List<String> lines = Files.readAllLines(SAMPLE, StandardCharsets.UTF_8);
+        String[] template = lines.get(2).split(",", -1);
+        StringBuilder csv = new StringBuilder(lines.get(0) + "\n" + lines.get(1) + "\n");
+        for (int i = 0; i < shots; i++) {
+            boolean driver = random.nextBoolean();
+            String[] row = template.clone();
+            row[0] = start.plusSeconds(i * 30L).format(CSV_DATE);
+            row[1] = driver ? "Driver" : "7 Iron";
+            row[6] = String.format(Locale.ROOT, "%.2f", (driver ? 210 : 150) + random.nextGaussian() * (driver ? 18 : 9));
+            row[14] = String.format(Locale.ROOT, "%.2f", random.nextGaussian() * (driver ? 20 : 8));
+            csv.append(String.join(",", row)).append('\n');
+        }
+        return csvService.processCsv(CsvFormat.AWESOME_GOLF, new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                "Percentiles " + start.toLocalDate(), "", ParseListener.NONE).getId();
+    }
+
+    private Long save(LocalDateTime date, String sourceType, Object[][] shots) {
+        Session session = new Session("Analytics " + date.toLocalDate());
+        session.setSessionDate(date);
+        session.setSourceType(sourceType);
+        for (Object[] values : shots) {
+            TestShots.addShot(session, (String) values[0], (Double) values[1]);
+        }
+        return sessionRepository.save(session).getId();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Shot;
+import com.example.demo.model.Trajectory;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ShotCsvParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BallFlightSimulatorTest {
+
+    private static final Path SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+    private static final Path GARMIN_SAMPLE = Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv");
+
+    @Test
+    void carryIsCloseToTheLaunchMonitors() throws IOException {
+        List<Shot> shots = sample();
+        Trajectory[] trajectories = BallFlightSimulator.simulate(shots, 30);
+
+        double carryError = 0;
+        double lateralError = 0;
+        int simulated = 0;
+        for (int i = 0; i < shots.size(); i++) {
+            Shot shot = shots.get(i);
+            if (trajectories[i] == null || shot.getCarryDistance() == null || shot.getCarryDistance() < 50) continue;
+            carryError += Math.abs(trajectories[i].carryDistance() - shot.getCarryDistance()) / shot.getCarryDistance();
+            lateralError += Math.abs(trajectories[i].carryLateralDistance() - shot.getCarryLateralDistance());
+            simulated++;
+        }
+        assertTrue(simulated > 30);
+        assertTrue(carryError / simulated < 0.08, "mean carry error " + carryError / simulated);
+        // Awesome Golf reports about half the curve that a tilted spin axis gives, so sideways is only roughly right
+        assertTrue(lateralError / simulated < 25, "mean lateral error " + lateralError / simulated);
+    }
+
+    @Test
+    void pathStartsAtTheTeeAndEndsAtTheLandingPoint() throws IOException {
+        Shot shot = sample().get(0);
+        Trajectory trajectory = BallFlightSimulator.simulate(List.of(shot), 25)[0];
+
+        assertEquals(25, trajectory.size());
+        assertEquals(0f, trajectory.x()[0]);
+        assertEquals(0f, trajectory.y()[0]);
+        assertEquals(0f, trajectory.z()[0]);
+        assertEquals((float) trajectory.carryDistance(), trajectory.x()[24]);
+        assertEquals((float) trajectory.carryLateralDistance(), trajectory.z()[24]);
+        assertEquals(0f, trajectory.y()[24]);
+        float highest = 0;
+        for (int p = 1; p < 25; p++) {
+            assertTrue(trajectory.x()[p] > trajectory.x()[p - 1], "moves down the range");
+            highest = Math.max(highest, trajectory.y()[p]);
+        }
+        assertTrue(highest <= trajectory.apex() && highest > 0.9 * trajectory.apex());
+        assertTrue(trajectory.flightTime() > 3 && trajectory.flightTime() < 10);
+    }
+
+    @Test
+    void batchesGiveTheSameResultAsSingleShots() throws IOException {
+        List<Shot> shots = sample();
+        Trajectory[] together = BallFlightSimulator.simulate(shots, 10);
+        for (int i = 0; i < shots.size(); i++) {
+            Trajectory alone = BallFlightSimulator.simulate(List.of(shots.get(i)), 10)[0];
+            assertEquals(alone.carryDistance(), together[i].carryDistance());
+            assertArrayEquals(alone.y(), together[i].y());
+        }
+    }
+
+    @Test
+    void conditionsChangeTheFlight() {
+        Shot base = shot(150, 12, 0, 2600, 0);
+        Shot slice = shot(150, 12, 0, 2600, 15);
+        Shot hook = shot(150, 12, 0, 2600, -15);
+        Shot pushed = shot(150, 12, 5, 2600, 0);
+        Shot thin = shot(150, 12, 0, 2600, 0);
+        thin.setAirDensity(1.0);
+        Shot hot = shot(150, 12, 0, 2600, 0);
+        hot.setTemperature(100.0);
+        Shot high = shot(150, 12, 0, 2600, 0);
+        high.setAltitude(5280.0);
+        Shot noSpin = shot(150, 12, 0, 2600, 0);
+        noSpin.setSpinRate(null);
+
+        Trajectory[] results = BallFlightSimulator.simulate(List.of(base, slice, hook, pushed, thin, hot, high, noSpin), 10);
+
+        assertEquals(0, results[0].carryLateralDistance(), 0.01);
+        assertTrue(results[1].carryLateralDistance() > 10, "positive spin axis curves right");
+        assertEquals(-results[1].carryLateralDistance(), results[2].carryLateralDistance(), 0.01);
+        assertTrue(results[3].carryLateralDistance() > 10, "positive launch direction starts right");
+        assertTrue(results[4].carryDistance() > results[0].carryDistance(), "thinner air carries further");
+        assertTrue(results[5].carryDistance() > results[0].carryDistance());
+        assertTrue(results[6].carryDistance() > results[5].carryDistance());
+        assertNull(results[7]);
+        assertEquals(1.225, BallFlightSimulator.airDensity(59, 0), 0.001);
+    }
+
+    @Test
+    void garminShotsFlyInTheirOwnAir() throws IOException {
+        Shot shot = sample(CsvFormat.GARMIN_R10, GARMIN_SAMPLE).stream()
+                .filter(s -> s.getBallSpeed() != null && s.getBallSpeed() > 100)
+                .findFirst().orElseThrow();
+        assertEquals(1.1531072, shot.getAirDensity(), 1e-9);
+        assertEquals(77.0, shot.getTemperature());
+
+        // Without the measured density, sea-level air at the measured temperature is a little denser
+        Trajectory measured = BallFlightSimulator.simulate(List.of(shot), 10)[0];
+        shot.setAirDensity(null);
+        Trajectory estimated = BallFlightSimulator.simulate(List.of(shot), 10)[0];
+        assertTrue(measured.carryDistance() > estimated.carryDistance());
+    }
+
+    private static List<Shot> sample() throws IOException {
+        return sample(CsvFormat.AWESOME_GOLF, SAMPLE);
+    }
+
+    private static List<Shot> sample(CsvFormat format, Path path) throws IOException {
+        List<Shot> shots = new ArrayList<>();
+        try (InputStream input = Files.newInputStream(path)) {
+            new ShotCsvParser().parse(format, input, shots::add);
+        }
+        return shots;
+    }
+
+    private static Shot shot(double ballSpeed, double launchAngle, double launchDirection, double spinRate, double spinAxis) {
+        Shot shot = new Shot();
+        shot.setBallSpeed(ballSpeed);
+        shot.setLaunchAngle(launchAngle);
+        shot.setLaunchDirection(launchDirection);
+        shot.setSpinRate(spinRate);
+        shot.setSpinAxis(spinAxis);
+        return shot;
+    }
+}
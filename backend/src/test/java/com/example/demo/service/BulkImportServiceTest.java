@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@H2Test
+class BulkImportServiceTest {
+
+    private static final Path GARMIN_SAMPLE = Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv");
+    private static final Path AWESOME_GOLF_SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+    }
+
+    @Test
+    void importsZipEntriesAndFilesWithDetectedFormats() throws IOException {
+        byte[] awesomeGolf = Files.readAllBytes(AWESOME_GOLF_SAMPLE);
+        byte[] zip = zip(
+                "history/awesome.csv", awesomeGolf,
+                "history/garmin.csv", Files.readAllBytes(GARMIN_SAMPLE),
+                "__MACOSX/history/._garmin.csv", new byte[]{0, 1, 2},
+                "history/readme.txt", "not a csv".getBytes(StandardCharsets.UTF_8),
+                "history/notes.csv", "Name,Comment\nChris,windy\n".getBytes(StandardCharsets.UTF_8));
+
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "history.zip", "application/zip", zip),
+                new MockMultipartFile("files", "again.csv", "text/csv", awesomeGolf));
+
+        List<BulkImportResult> results = bulkImportService.importFiles(files, "Range", null);
+
+        assertEquals(List.of("awesome.csv", "garmin.csv", "notes.csv", "again.csv"),
+                results.stream().map(BulkImportResult::getFileName).toList());
+        assertEquals(BulkImportResult.Status.CREATED, results.get(1).getStatus());
+        assertEquals(BulkImportResult.Status.FAILED, results.get(2).getStatus());
+        assertEquals("AWESOME_GOLF", results.get(0).getSource());
+        assertEquals("GARMIN_R10", results.get(1).getSource());
+
+        // The two copies of the Awesome Golf file run in parallel; whichever commits first creates the session
+        assertEquals(Set.of(BulkImportResult.Status.CREATED, BulkImportResult.Status.DUPLICATE),
+                Set.of(results.get(0).getStatus(), results.get(3).getStatus()));
+        assertEquals(results.get(0).getSessionId(), results.get(3).getSessionId());
+        assertEquals(2, sessionRepository.count());
+    }
+
+    @Test
+    void uploadWithoutCsvFilesIsRejected() throws IOException {
+        byte[] zip = zip("readme.txt", "nothing here".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> bulkImportService.importFiles(
+                List.of(new MockMultipartFile("files", "empty.zip", "application/zip", zip)), "", null));
+    }
+
+    @Test
+    void uploadOverTheEntryOrTotalSizeLimitIsRejectedBeforeAnyImport() throws IOException {
+        byte[] awesomeGolf = Files.readAllBytes(AWESOME_GOLF_SAMPLE);
+        byte[] garmin = Files.readAllBytes(GARMIN_SAMPLE);
+        List<MultipartFile> files = List.of(new MockMultipartFile("files", "history.zip", "application/zip",
+                zip("a.csv", awesomeGolf, "b.csv", garmin, "c.csv", "Date\n".getBytes(StandardCharsets.UTF_8))));
+
+        ReflectionTestUtils.setField(bulkImportService, "maxEntries", 2);
+        try {
+            IllegalArgumentException tooMany = assertThrows(IllegalArgumentException.class,
+                    () -> bulkImportService.importFiles(files, "", null));
+            assertEquals("Upload holds more than 2 CSV files", tooMany.getMessage());
+        } finally {
+            ReflectionTestUtils.setField(bulkImportService, "maxEntries", 1000);
+        }
+
+        // Each entry is under the per-entry limit; together they are not
+        ReflectionTestUtils.setField(bulkImportService, "maxTotalSize", (long) (awesomeGolf.length + garmin.length - 1));
+        try {
+            assertThrows(IllegalArgumentException.class, () -> bulkImportService.importFiles(files, "", null));
+        } finally {
+            ReflectionTestUtils.setField(bulkImportService, "maxTotalSize", 209715200L);
+        }
+
+        assertEquals(0, sessionRepository.count());
+    }
+
+    /**
+     * A ZIP archive of alternating entry names and contents
+     */
+    private static byte[] zip(Object... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) entries[i]));
+                zip.write((byte[]) entries[i + 1]);
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Peak heap while ingesting generated uploads of growing size; with chunked ingest it should stay flat.
+ * Uses a file-backed H2 database so stored rows do not count against the heap.
+ *
+ * Run with: ./mvnw test -Dtest=ChunkedIngestHeapBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:file:./target/heap-benchmark;CACHE_SIZE=8192")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ChunkedIngestHeapBenchmarkTest {
+
+    private static final int[] ROW_COUNTS = {25_000, 100_000, 400_000};
+
+    @Autowired
+    private CsvService csvService;
+
+    @Test
+    void peakHeapDoesNotGrowWithRowCount() throws Exception {
+        List<String> lines = Files.readAllLines(Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv"), StandardCharsets.UTF_8);
+
+        for (int rows : ROW_COUNTS) {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            long baseline = memory.getHeapMemoryUsage().getUsed();
+
+            // Sample heap use from a background thread while the upload runs
+            AtomicLong peak = new AtomicLong(baseline);
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            sampler.start();
+
+            long start = System.nanoTime();
+            csvService.processCsv(CsvFormat.AWESOME_GOLF, new RepeatingCsvStream(lines, rows), "Heap benchmark", "", ParseListener.NONE);
+            long nanos = System.nanoTime() - start;
+
+            sampler.interrupt();
+            sampler.join();
+            System.out.printf(Locale.ROOT, "%,d rows: peak heap +%,d KB over baseline, %,.0f rows/s%n",
+                    rows, (peak.get() - baseline) / 1024, rows / (nanos / 1e9));
+        }
+    }
+
+    /**
+     * The two header lines of a sample file, then its data rows repeated until the row count is reached.
+     * Generated on the fly, so the test itself never holds the whole upload in memory.
+     */
+    private static class RepeatingCsvStream extends InputStream {
+
+        private final byte[] header;
+        private final byte[][] rows;
+        private final int rowCount;
+
+        private byte[] current;
+        private int position;
+        private int emitted = -1;
+
+        RepeatingCsvStream(List<String> lines, int rowCount) {
+            this.header = (lines.get(0) + "\n" + lines.get(1) + "\n").getBytes(StandardCharsets.UTF_8);
+            this.rows = lines.subList(2, lines.size()).stream()
+                    .filter(line -> !line.isBlank())
+                    .map(line -> (line + "\n").getBytes(StandardCharsets.UTF_8))
+                    .toArray(byte[][]::new);
+            this.rowCount = rowCount;
+            this.current = header;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == current.length) {
+                emitted++;
+                if (emitted >= rowCount) {
+                    return -1;
+                }
+                current = rows[emitted % rows.length];
+                position = 0;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.model.Session;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@H2Test
+class ClubTrendServiceTest {
+
+    private static final Path SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+    private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // A Monday, and sessions in its week and the next; no other test has shots in these weeks
+    private static final LocalDate WEEK = LocalDate.of(2018, 3, 5);
+    private static final LocalDateTime TUESDAY = LocalDateTime.of(2018, 3, 6, 18, 0);
+    private static final LocalDateTime SATURDAY = LocalDateTime.of(2018, 3, 10, 10, 0);
+    private static final LocalDateTime NEXT_MONDAY = LocalDateTime.of(2018, 3, 12, 7, 30);
+
+    @Autowired
+    private ClubTrendService clubTrendService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private CsvService csvService;
+
+    @Test
+    void incrementalUpdatesMatchARebuild() throws IOException {
+        // Sessions without a player
+        Long saturday = upload(null, SATURDAY, new double[] {200, 210, 220}, new double[] {150});
+        upload(null, NEXT_MONDAY, new double[] {230}, new double[] {155, 160});
+        // Uploaded last but hit first: its week is rebuilt so the moving average stays in shot order
+        upload(null, TUESDAY, new double[] {190}, new double[] {});
+
+        Map<String, Object> trend = trend();
+        assertEquals(4, trend.get("weeks"));
+        List<Map<String, Object>> driver = weeks(trend, "Driver");
+        assertEquals(List.of(WEEK.toString(), WEEK.plusWeeks(1).toString()), driver.stream().map(week -> week.get("weekStart")).toList());
+
+        Map<String, Object> carry = carry(driver.get(0));
+        assertEquals(4L, carry.get("count"));
+        assertEquals(205.0, (Double) carry.get("mean"), 1e-9);
+        assertEquals(Math.sqrt(500.0 / 3), (Double) carry.get("stdDev"), 1e-9);
+        assertEquals(190.0, carry.get("min"));
+        assertEquals(220.0, carry.get("max"));
+        // 190, then 200, 210 and 220 with weight 0.1 each
+        double ewma = 190;
+        for (double value : new double[] {200, 210, 220}) {
+            ewma = 0.1 * value + 0.9 * ewma;
+        }
+        assertEquals(ewma, (Double) carry.get("ewma"), 1e-9);
+        assertEquals(trend, rebuilt());
+
+        sessionService.deleteSession(saturday);
+        trend = trend();
+        assertEquals(1L, carry(weeks(trend, "Driver").get(0)).get("count"));
+        assertEquals(trend, rebuilt());
+    }
+
+    @Test
+    void editingPlayerOrDateMovesTheSession() throws IOException {
+        Long id = upload("Before", TUESDAY, new double[] {200, 204}, new double[] {150});
+
+        Session details = sessionService.getSessionById(id).orElseThrow();
+        details.setPlayer("After");
+        details.setSessionDate(NEXT_MONDAY);
+        sessionService.updateSession(id, details);
+
+        assertEquals(0, clubTrendService.getTrend("Before", null, null, null).get("weeks"));
+        Map<String, Object> after = clubTrendService.getTrend("After", "Driver", null, null);
+        assertEquals(1, after.get("weeks"));
+        Map<String, Object> week = weeks(after, "Driver").get(0);
+        assertEquals(WEEK.plusWeeks(1).toString(), week.get("weekStart"));
+        assertEquals(202.0, (Double) carry(week).get("mean"), 1e-9);
+
+        // Date range and club filters
+        assertEquals(0, clubTrendService.getTrend("After", null, WEEK.plusWeeks(2), null).get("weeks"));
+        assertEquals(2, clubTrendService.getTrend("After", null, NEXT_MONDAY.toLocalDate().plusDays(3), null).get("weeks"));
+        assertEquals(0, clubTrendService.getTrend("After", null, null, WEEK.plusDays(6)).get("weeks"));
+    }
+
+    @Test
+    void garminPlayerColumnNamesTheSessionsPlayer() throws IOException {
+        String csv = "Player,Club,Carry Distance,Ball Speed\n"
+                + "Sam Garmin,Driver,201.5,140.2\n"
+                + "Sam Garmin,Driver,,139.0\n";
+        Session session = csvService.processCsv(CsvFormat.GARMIN_R10,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "Garmin player", "", ParseListener.NONE);
+
+        assertEquals("Sam Garmin", session.getPlayer());
+        Map<String, Object> week = weeks(clubTrendService.getTrend("Sam Garmin", null, null, null), "Driver").get(0);
+        assertEquals(2L, week.get("shots"));
+        assertEquals(1L, carry(week).get("count"));
+        assertNull(carry(week).get("stdDev"));
+    }
+
+    @Test
+    void updateWithoutAPlayerKeepsIt() throws IOException {
+        String csv = "Player,Club,Carry Distance,Ball Speed\n"
+                + "Pat Garmin,7 Iron,161.5,112.4\n";
+        Session session = csvService.processCsv(CsvFormat.GARMIN_R10,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "Kept player", "", ParseListener.NONE);
+        Long id = session.getId();
+
+        // A body from a client that does not know about players: title, location and date only
+        Session renamed = new Session("Renamed");
+        renamed.setSessionDate(session.getSessionDate());
+        sessionService.updateSession(id, renamed);
+        assertEquals("Pat Garmin", sessionService.getSessionById(id).orElseThrow().getPlayer());
+        assertEquals(1, clubTrendService.getTrend("Pat Garmin", null, null, null).get("weeks"));
+
+        Session cleared = new Session("Renamed");
+        cleared.setSessionDate(session.getSessionDate());
+        cleared.setPlayer("");
+        sessionService.updateSession(id, cleared);
+        assertNull(sessionService.getSessionById(id).orElseThrow().getPlayer());
+        assertEquals(0, clubTrendService.getTrend("Pat Garmin", null, null, null).get("weeks"));
+    }
+
+    private Map<String, Object> trend() {
+        return clubTrendService.getTrend(null, null, WEEK, WEEK.plusDays(13));
+    }
+
+    private Map<String, Object> rebuilt() {
+        clubTrendService.rebuild();
+        return trend();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> weeks(Map<String, Object> trend, String club) {
+        for (Map<String, Object> entry : (List<Map<String, Object>>) trend.get("clubs")) {
+            if (entry.get("club").equals(club)) {
+                return (List<Map<String, Object>>) entry.get("weeks");
+            }
+        }
+        return List.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> carry(Map<String, Object> week) {
+        return (Map<String, Object>) week.get("carryDistance");
+    }
+
+    /**
+     * Upload an Awesome Golf session of Drivers then 7 Irons with the given carries, one minute apart, and name its
+     * player if there is one
+     */
+    private Long upload(String player, LocalDateTime start, double[] drivers, double[] irons) throws IOException {
+        List<String> lines = Files.readAllLines(SAMPLE, StandardCharsets.UTF_8);
+        String[] template = lines.get(2).split(",", -1);
+        StringBuilder csv = new StringBuilder(lines.get(0) + "\n" + lines.get(1) + "\n");
+        int shot = 0;
+        for (double[] carries : new double[][] {drivers, irons}) {
+            for (double carry : carries) {
+                String[] row = template.clone();
+                row[0] = start.plusMinutes(shot++).format(CSV_DATE);
+                row[1] = carries == drivers ? "Driver" : "7 Iron";
+                row[6] = String.valueOf(carry);
+                csv.append(String.join(",", row)).append('\n');
+            }
+        }
+        Session session = csvService.processCsv(CsvFormat.AWESOME_GOLF,
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), "Trend " + start, "", ParseListener.NONE);
+
+        if (player != null) {
+            session.setPlayer(player);
+            sessionService.updateSession(session.getId(), session);
+        }
+        return session.getId();
+    }
+}
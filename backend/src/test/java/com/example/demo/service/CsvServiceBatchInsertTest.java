@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.model.Session;
+import com.example.demo.repository.ShotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the JPA insert path against falling back to one INSERT per shot.
+ * Runs on an in-memory H2 database, where the COPY path is not available.
+ */
+@H2Test
+class CsvServiceBatchInsertTest {
+
+    private static final int SHOTS = 5000;
+
+    // Per 1000-shot chunk: a sequence call, a fingerprint lookup and one insert batch;
+    // plus the session row, duplicate check and some slack for Hibernate housekeeping
+    private static final int MAX_STATEMENTS = 30;
+
+    private static final AtomicInteger statements = new AtomicInteger();
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Test
+    void fiveThousandShotUploadUsesAHandfulOfStatements() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "shots.csv", "text/csv", awesomeGolfCsv(SHOTS));
+
+        statements.set(0);
+        Session saved = csvService.processAwesomeGolfCsv(file, "Batch insert", "Range");
+        int issued = statements.get();
+
+        assertEquals(SHOTS, shotRepository.countBySessionId(saved.getId()));
+        assertTrue(issued <= MAX_STATEMENTS, "Upload of " + SHOTS + " shots issued " + issued + " statements");
+    }
+
+    /**
+     * The sample Awesome Golf file repeated until it has the requested number of shot rows
+     */
+    private static byte[] awesomeGolfCsv(int shots) throws IOException {
+        List<String> lines = Files.readAllLines(Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv"), StandardCharsets.UTF_8);
+        List<String> rows = lines.subList(2, lines.size()).stream().filter(line -> !line.isBlank()).toList();
+
+        StringBuilder csv = new StringBuilder();
+        csv.append(lines.get(0)).append('\n').append(lines.get(1)).append('\n');
+        for (int i = 0; i < shots; i++) {
+            csv.append(rows.get(i % rows.size())).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Wraps the DataSource so every statement execution (a batch counts once) is counted
+     */
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch");
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    statements.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection) {
+                    return proxy(Connection.class, connection);
+                }
+                if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                    return proxy((Class<Statement>) method.getReturnType(), statement);
+                }
+                return result;
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+}
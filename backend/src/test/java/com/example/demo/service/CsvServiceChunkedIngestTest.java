@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.model.Session;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.ShotRepository;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Chunked ingest on an in-memory H2 database: every chunk lands in the same session,
+ * and session fields derived from all shots are still right.
+ */
+@H2Test
+@TestPropertySource(properties = "golf.ingest.chunk-size=100")
+class CsvServiceChunkedIngestTest {
+
+    private static final Path SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Test
+    void writesEveryChunkAndTracksEarliestShotTime() throws IOException {
+        List<String> lines = Files.readAllLines(SAMPLE, StandardCharsets.UTF_8);
+        List<String> rows = lines.subList(2, lines.size()).stream().filter(line -> !line.isBlank()).toList();
+
+        // Put the earliest shot last, so it is only seen in the final (partial) chunk
+        StringBuilder csv = new StringBuilder(lines.get(0) + "\n" + lines.get(1) + "\n");
+        int shots = 0;
+        while (shots < 1050) {
+            for (String row : rows) {
+                csv.append(row).append('\n');
+                shots++;
+            }
+        }
+        String earliest = rows.get(0).replaceFirst("^\\d{4}-\\d{2}-\\d{2}", "2020-01-01");
+        csv.append(earliest).append('\n');
+        shots++;
+
+        Session saved = csvService.processCsv(CsvFormat.AWESOME_GOLF, stream(csv.toString()), "Chunked", "", ParseListener.NONE);
+
+        assertEquals(shots, shotRepository.countBySessionId(saved.getId()));
+        Session reloaded = sessionRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(LocalDate.of(2020, 1, 1), reloaded.getSessionDate().toLocalDate());
+        assertEquals("AWESOME_GOLF", reloaded.getSourceType());
+    }
+
+    @Test
+    void uploadWithoutValidShotsLeavesNoSession() throws IOException {
+        List<String> lines = Files.readAllLines(SAMPLE, StandardCharsets.UTF_8);
+        long sessionsBefore = sessionRepository.count();
+
+        assertThrows(IllegalArgumentException.class, () -> csvService.processCsv(CsvFormat.AWESOME_GOLF,
+                stream(lines.get(0) + "\n" + lines.get(1) + "\n"), "Empty", "", ParseListener.NONE));
+        assertEquals(sessionsBefore, sessionRepository.count());
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
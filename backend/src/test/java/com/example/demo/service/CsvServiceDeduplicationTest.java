@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.model.Session;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.ShotRepository;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Repeated and overlapping uploads on an in-memory H2 database
+ */
+@H2Test
+@TestPropertySource(properties = "golf.ingest.chunk-size=4")
+class CsvServiceDeduplicationTest {
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    private List<String> lines;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Start from an empty database so shots from other tests do not count as overlaps
+        sessionRepository.deleteAll();
+        lines = Files.readAllLines(Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void identicalFileReturnsTheExistingSession() throws IOException {
+        byte[] csv = csv(0, 10, "\n");
+        Session first = upload(csv);
+
+        DuplicateUploadException duplicate = assertThrows(DuplicateUploadException.class, () -> upload(csv));
+        assertEquals(first.getId(), duplicate.getSessionId());
+        assertEquals(1, sessionRepository.count());
+
+        // Checked up front too, before any parsing
+        assertThrows(DuplicateUploadException.class, () -> csvService.checkNotAlreadyUploaded(new ByteArrayInputStream(csv)));
+    }
+
+    @Test
+    void overlappingExportOnlyAddsNewShots() throws IOException {
+        Session first = upload(csv(0, 10, "\n"));
+        Session second = upload(csv(5, 15, "\n"));
+
+        assertEquals(10, shotRepository.countBySessionId(first.getId()));
+        assertEquals(5, shotRepository.countBySessionId(second.getId()));
+    }
+
+    @Test
+    void differentFileWithOnlyKnownShotsIsADuplicate() throws IOException {
+        Session first = upload(csv(0, 10, "\n"));
+
+        // Same rows, different bytes: the content hash differs but every fingerprint matches
+        DuplicateUploadException duplicate = assertThrows(DuplicateUploadException.class, () -> upload(csv(2, 8, "\r\n")));
+        assertEquals(first.getId(), duplicate.getSessionId());
+        assertEquals(1, sessionRepository.count());
+    }
+
+    @Test
+    void garminUnitsRowIsNotAShotSharedByEveryExport() throws IOException {
+        List<String> garmin = Files.readAllLines(Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv"), StandardCharsets.UTF_8);
+        String headers = garmin.get(0) + "\n" + garmin.get(1) + "\n";
+
+        Session first = uploadGarmin(headers + garmin.get(2) + "\n" + garmin.get(3) + "\n");
+        Session second = uploadGarmin(headers + garmin.get(4) + "\n");
+        assertEquals(2, shotRepository.countBySessionId(first.getId()));
+        assertEquals(1, shotRepository.countBySessionId(second.getId()));
+
+        // Only the header and units rows: nothing to save, rather than a duplicate of an unrelated session
+        IllegalArgumentException empty = assertThrows(IllegalArgumentException.class, () -> uploadGarmin(headers));
+        assertEquals("No valid shots found in the CSV file", empty.getMessage());
+    }
+
+    private Session uploadGarmin(String csv) throws IOException {
+        return csvService.processCsv(CsvFormat.GARMIN_R10, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                "Garmin", "", ParseListener.NONE);
+    }
+
+    private Session upload(byte[] csv) throws IOException {
+        return csvService.processCsv(CsvFormat.AWESOME_GOLF, new ByteArrayInputStream(csv), "Range", "", ParseListener.NONE);
+    }
+
+    /**
+     * The sample header lines plus data rows [from, to)
+     */
+    private byte[] csv(int from, int to, String lineEnd) {
+        List<String> rows = lines.subList(2, lines.size()).stream().filter(line -> !line.isBlank()).toList();
+        StringBuilder csv = new StringBuilder(lines.get(0) + lineEnd + lines.get(1) + lineEnd);
+        for (int i = from; i < to; i++) {
+            csv.append(rows.get(i)).append(lineEnd);
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.repository.SessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@H2Test
+@TestPropertySource(properties = {
+        "golf.import.drop-folder.enabled=true",
+        "golf.import.drop-folder.location=Kiosk 3",
+        "golf.import.drop-folder.settle-millis=200"
+})
+class DropFolderImporterTest {
+
+    private static final Path ROOT = createTempDirectory();
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @DynamicPropertySource
+    static void folders(DynamicPropertyRegistry registry) {
+        registry.add("golf.import.drop-folder.path", () -> ROOT.resolve("inbox").toString());
+        registry.add("golf.import.drop-folder.archive-path", () -> ROOT.resolve("archive").toString());
+        registry.add("golf.import.drop-folder.failed-path", () -> ROOT.resolve("failed").toString());
+    }
+
+    @Test
+    void droppedFilesAreImportedAndMovedOut() throws Exception {
+        Path garmin = ROOT.resolve("inbox/DrivingRange.csv");
+        Files.copy(Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv"), garmin);
+        Path junk = ROOT.resolve("inbox/notes.csv");
+        Files.writeString(junk, "Name,Comment\nChris,windy\n", StandardCharsets.UTF_8);
+
+        waitFor(() -> !Files.exists(garmin) && !Files.exists(junk));
+
+        assertTrue(Files.exists(ROOT.resolve("archive/DrivingRange.csv")));
+        assertTrue(Files.exists(ROOT.resolve("failed/notes.csv")));
+        assertFalse(Files.exists(ROOT.resolve("archive/notes.csv")));
+
+        assertTrue(sessionRepository.findAll().stream().anyMatch(session ->
+                session.getTitle().equals("DrivingRange")
+                        && session.getSourceType().equals("GARMIN_R10")
+                        && session.getLocation().equals("Kiosk 3")));
+        assertEquals(1, sessionRepository.findAll().stream().filter(session -> session.getTitle().equals("DrivingRange")).count());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the drop folder importer");
+            Thread.sleep(50);
+        }
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("drop-folder-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.model.Session;
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotStatsFilter;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@H2Test
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SessionServiceBundleTest {
+
+    private static final Path SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+    private static final Path GARMIN_SAMPLE = Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv");
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bundleLoadsSessionAndShotsInOneQueryWithMatchingStats() throws IOException {
+        Long id = csvService.processCsv(CsvFormat.AWESOME_GOLF, Files.newInputStream(SAMPLE), "Bundle", "", ParseListener.NONE).getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Map<String, Object> bundle = sessionService.getSessionBundle(id).orElseThrow();
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals("Bundle", ((Session) bundle.get("session")).getTitle());
+        List<Shot> shots = (List<Shot>) bundle.get("shots");
+        assertEquals(sessionService.getShotsBySessionId(id).stream().map(Shot::getId).toList(),
+                shots.stream().map(Shot::getId).toList());
+
+        // Computing from the loaded rows gives the same stats as the database aggregates
+        assertEquals(sessionService.getSessionStats(id, ShotStatsFilter.NONE), bundle.get("stats"));
+    }
+
+    @Test
+    void bundleWithoutShotsReadsTheStoredSummary() throws IOException {
+        Long id = csvService.processCsv(CsvFormat.GARMIN_R10, Files.newInputStream(GARMIN_SAMPLE), "Columns", "", ParseListener.NONE).getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Map<String, Object> bundle = sessionService.getSessionBundleWithoutShots(id).orElseThrow();
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        assertEquals("Columns", ((Session) bundle.get("session")).getTitle());
+        assertFalse(bundle.containsKey("shots"));
+        assertEquals(sessionService.getSessionBundle(id).orElseThrow().get("stats"), bundle.get("stats"));
+    }
+
+    @Test
+    void missingSessionHasNoBundle() {
+        assertTrue(sessionService.getSessionBundle(-1L).isEmpty());
+        assertTrue(sessionService.getSessionBundleWithoutShots(-1L).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.config.CacheConfig;
+import com.example.demo.model.Session;
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotStatsFilter;
+import com.example.demo.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Session reads are served from the cache once loaded, and writes through SessionService drop exactly the stale entries.
+ * Rows are changed behind the service's back to tell a cache hit from a database read.
+ */
+@H2Test
+class SessionServiceCacheTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Session session = new Session("Coach demo");
+        TestShots.addShot(session, "Driver", 230.0);
+        sessionId = sessionRepository.save(session).getId();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        assertEquals("Coach demo", sessionService.getSessionById(sessionId).orElseThrow().getTitle());
+        assertEquals(1, sessionService.getShotsBySessionId(sessionId).size());
+        Map<String, Object> stats = sessionService.getSessionStats(sessionId, ShotStatsFilter.NONE);
+
+        Session renamed = sessionRepository.findById(sessionId).orElseThrow();
+        renamed.setTitle("Renamed directly");
+        sessionRepository.save(renamed);
+
+        assertEquals("Coach demo", sessionService.getSessionById(sessionId).orElseThrow().getTitle());
+        assertEquals(1, sessionService.getShotsBySessionId(sessionId).size());
+        assertEquals(stats, sessionService.getSessionStats(sessionId, ShotStatsFilter.NONE));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<Shot>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return sessionService.getShotsBySessionId(sessionId);
+                }));
+            }
+            start.countDown();
+
+            // Every caller gets the one list that was loaded and cached, not a load of its own
+            List<Shot> first = results.get(0).get();
+            for (Future<List<Shot>> result : results) {
+                assertSame(first, result.get());
+            }
+            assertSame(first, cacheManager.getCache(CacheConfig.SESSION_SHOTS).get(sessionId).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void filteredStatsAndMissingSessionsAreNotCached() {
+        sessionService.getSessionStats(sessionId, new ShotStatsFilter("Driver", null, null, null));
+        assertNull(cacheManager.getCache(CacheConfig.SESSION_STATS).get(sessionId));
+
+        Long missing = sessionId + 1_000_000;
+        assertTrue(sessionService.getSessionById(missing).isEmpty());
+        assertNull(cacheManager.getCache(CacheConfig.SESSIONS).get(missing));
+    }
+
+    @Test
+    void updateEvictsOnlyTheSession() {
+        sessionService.getSessionById(sessionId);
+        sessionService.getSessionStats(sessionId, ShotStatsFilter.NONE);
+
+        Session details = new Session("Renamed");
+        sessionService.updateSession(sessionId, details);
+
+        assertEquals("Renamed", sessionService.getSessionById(sessionId).orElseThrow().getTitle());
+        assertNotNull(cacheManager.getCache(CacheConfig.SESSION_STATS).get(sessionId));
+    }
+
+    @Test
+    void deleteEvictsEveryEntryForTheSession() {
+        sessionService.getSessionById(sessionId);
+        sessionService.getShotsBySessionId(sessionId);
+        sessionService.getSessionStats(sessionId, ShotStatsFilter.NONE);
+
+        assertTrue(sessionService.deleteSession(sessionId));
+
+        assertFalse(sessionService.getSessionById(sessionId).isPresent());
+        assertTrue(sessionService.getShotsBySessionId(sessionId).isEmpty());
+        assertTrue(sessionService.getSessionStats(sessionId, ShotStatsFilter.NONE).isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.model.Session;
+import com.example.demo.model.SessionListItem;
+import com.example.demo.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@H2Test
+class SessionServiceListTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 5, 14, 12, 0);
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+
+        // Two sessions share an upload time, so the id has to break the tie
+        save("Oldest", NOON.minusDays(2), 1);
+        save("Tie A", NOON.minusDays(1), 2);
+        save("Tie B", NOON.minusDays(1), 0);
+        save("Newer", NOON, 3);
+        save("Newest range", NOON.plusDays(1), 4);
+    }
+
+    @Test
+    void pagesThroughEverySessionOnceWithShotCounts() {
+        List<SessionListItem> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Map<String, Object> page = sessionService.getSessionList(null, cursor, 2);
+            seen.addAll(items(page));
+            cursor = (String) page.get("nextCursor");
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("Newest range", "Newer", "Tie B", "Tie A", "Oldest"),
+                seen.stream().map(SessionListItem::getTitle).toList());
+        assertEquals(List.of(4L, 3L, 0L, 2L, 1L), seen.stream().map(SessionListItem::getShotCount).toList());
+    }
+
+    @Test
+    void filtersByTitleAndCapsThePageSize() {
+        Map<String, Object> page = sessionService.getSessionList("TIE", null, 10_000);
+
+        assertEquals(List.of("Tie B", "Tie A"), items(page).stream().map(SessionListItem::getTitle).toList());
+        assertNull(page.get("nextCursor"));
+    }
+
+    @Test
+    void titleWildcardsMatchLiterally() {
+        save("Range_1", NOON, 0);
+        save("Range 100%", NOON, 0);
+        save("C:\\range", NOON, 0);
+
+        assertEquals(List.of("Range_1"), titles("e_"));
+        assertEquals(List.of("Range 100%"), titles("0%"));
+        assertEquals(List.of("C:\\range"), titles("\\r"));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> sessionService.getSessionList(null, "yesterday_7", 10));
+    }
+
+    private List<String> titles(String title) {
+        return items(sessionService.getSessionList(title, null, 10)).stream().map(SessionListItem::getTitle).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SessionListItem> items(Map<String, Object> page) {
+        return (List<SessionListItem>) page.get("sessions");
+    }
+
+    private void save(String title, LocalDateTime uploadDate, int shots) {
+        Session session = new Session(title);
+        session.setUploadDate(uploadDate);
+        for (int i = 0; i < shots; i++) {
+            TestShots.addShot(session, null, null);
+        }
+        sessionRepository.save(session);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.model.Session;
+import com.example.demo.model.SessionSummary;
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotStatsFilter;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.SessionSummaryRepository;
+import com.example.demo.repository.ShotRepository;
+import com.example.demo.repository.ShotStatsRepository;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@H2Test
+class SessionServiceStatsTest {
+
+    private static final Path SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2025, 5, 14, 14, 0);
+    private static final LocalDateTime DAY_TWO = DAY_ONE.plusDays(1);
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionSummaryRepository sessionSummaryRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Autowired
+    private ShotStatsRepository shotStatsRepository;
+
+    @Autowired
+    private CsvService csvService;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+
+        Session session = new Session("Stats");
+        add(session, "Driver", DAY_ONE, 200.0, 220.0, 150.0);
+        add(session, "Driver", DAY_ONE, 210.0, 235.0, 155.0);
+        add(session, "Driver", DAY_TWO, 240.0, 260.0, 160.0);
+        add(session, "7 Iron", DAY_ONE, 150.0, 158.0, null);
+        add(session, "7 Iron", DAY_TWO, null, null, 120.0);
+        add(session, "", DAY_TWO, 100.0, 110.0, 100.0);
+        sessionId = sessionRepository.save(session).getId();
+    }
+
+    @Test
+    void aggregatesWholeSessionAndEachClub() {
+        Map<String, Object> stats = sessionService.getSessionStats(sessionId);
+
+        assertEquals(6L, stats.get("totalShots"));
+        assertEquals(180.0, stats.get("avgCarryDistance"));
+        assertEquals(196.6, stats.get("avgTotalDistance"));
+        assertEquals(137.0, stats.get("avgBallSpeed"));
+        assertEquals(Map.of("Driver", 3L, "7 Iron", 2L), stats.get("clubCounts"));
+
+        Map<String, Double> driver = clubStats(stats).get("Driver");
+        assertEquals(216.7, driver.get("avgCarry"));
+        assertEquals(238.3, driver.get("avgTotal"));
+        assertEquals(155.0, driver.get("avgBallSpeed"));
+        assertEquals(210.0, driver.get("medianCarry"));
+        assertEquals(20.8, driver.get("stdDevCarry"));
+
+        // One carry value: no spread, and null columns are ignored rather than counted as zero
+        Map<String, Double> iron = clubStats(stats).get("7 Iron");
+        assertEquals(150.0, iron.get("avgCarry"));
+        assertEquals(150.0, iron.get("medianCarry"));
+        assertNull(iron.get("stdDevCarry"));
+        assertEquals(120.0, iron.get("avgBallSpeed"));
+    }
+
+    @Test
+    void appliesClubDateAndCarryFilters() {
+        Map<String, Object> driverOnly = sessionService.getSessionStats(sessionId,
+                new ShotStatsFilter("Driver", null, null, null));
+        assertEquals(3L, driverOnly.get("totalShots"));
+        assertEquals(Map.of("Driver", 3L), driverOnly.get("clubCounts"));
+
+        Map<String, Object> dayOne = sessionService.getSessionStats(sessionId,
+                new ShotStatsFilter(null, DAY_ONE.toLocalDate().atStartOfDay(), DAY_TWO.toLocalDate().atStartOfDay(), null));
+        assertEquals(3L, dayOne.get("totalShots"));
+        assertEquals(186.7, dayOne.get("avgCarryDistance"));
+
+        Map<String, Object> longShots = sessionService.getSessionStats(sessionId,
+                new ShotStatsFilter(null, null, null, 205.0));
+        assertEquals(2L, longShots.get("totalShots"));
+        assertEquals(225.0, longShots.get("avgCarryDistance"));
+    }
+
+    @Test
+    void noMatchingShotsGivesEmptyStats() {
+        assertTrue(sessionService.getSessionStats(sessionId, new ShotStatsFilter("Putter", null, null, null)).isEmpty());
+        assertFalse(sessionService.getSessionStats(sessionId).isEmpty());
+    }
+
+    @Test
+    void storesSummaryOnFirstRequestForSessionsSavedWithoutOne() {
+        assertFalse(sessionSummaryRepository.existsById(sessionId));
+
+        Map<String, Object> computed = sessionService.getSessionStats(sessionId);
+
+        assertTrue(sessionSummaryRepository.existsById(sessionId));
+        assertEquals(computed, sessionService.getSessionStats(sessionId));
+    }
+
+    @Test
+    void ingestStoresSummaryMatchingTheShots() throws IOException {
+        Session saved = csvService.processCsv(CsvFormat.AWESOME_GOLF, Files.newInputStream(SAMPLE), "Summary", "", ParseListener.NONE);
+
+        SessionSummary summary = sessionSummaryRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(shotRepository.countBySessionId(saved.getId()), summary.getTotalShots());
+
+        // The stored summary gives the same answer as aggregating the shots again
+        Map<String, Object> stored = sessionService.getSessionStats(saved.getId());
+        Map<String, Object> aggregated = SessionSummary.of(saved.getId(),
+                shotStatsRepository.aggregateByClub(saved.getId())).toStats();
+        assertEquals(aggregated, stored);
+    }
+
+    @Test
+    void deletingSessionRemovesItsSummary() {
+        sessionService.getSessionStats(sessionId);
+
+        assertTrue(sessionService.deleteSession(sessionId));
+        assertFalse(sessionSummaryRepository.existsById(sessionId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Double>> clubStats(Map<String, Object> stats) {
+        return (Map<String, Map<String, Double>>) stats.get("clubStats");
+    }
+
+    private static void add(Session session, String club, LocalDateTime time, Double carry, Double total, Double ballSpeed) {
+        Shot shot = TestShots.addShot(session, club, carry);
+        shot.setShotTime(time);
+        shot.setTotalDistance(total);
+        shot.setBallSpeed(ballSpeed);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Session;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ShotCsvParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Insert throughput of saveInChunks with COPY against the same with JPA (golf.ingest.copy-enabled), side by side.
+ * Needs the PostgreSQL database from docker-compose (or application.properties) to be running.
+ *
+ * Run with: ./mvnw test -Dtest=SessionWriterBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SessionWriterBenchmarkTest {
+
+    private static final int SCALE = 200;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private SessionWriter sessionWriter;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ShotCsvParser shotCsvParser;
+
+    @Test
+    void copyVersusJpa() throws IOException {
+        byte[] csv = scaledSample();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            double copyRate = measure(csv, "COPY", true);
+            double jpaRate = measure(csv, "JPA", false);
+            System.out.printf(Locale.ROOT, "round %d: COPY %,.0f shots/s | JPA %,.0f shots/s%n", round + 1, copyRate, jpaRate);
+        }
+    }
+
+    private double measure(byte[] csv, String label, boolean copyEnabled) throws IOException {
+        ReflectionTestUtils.setField(sessionWriter, "copyEnabled", copyEnabled);
+        Session session = new Session("Insert benchmark (" + label + ")");
+        int[] shots = new int[1];
+
+        // Parsing is included, as it is for an upload
+        long start = System.nanoTime();
+        Session saved = sessionWriter.saveInChunks(session,
+                sink -> shotCsvParser.parse(CsvFormat.AWESOME_GOLF, new ByteArrayInputStream(csv), sink),
+                (s, summary) -> shots[0] = summary.getShotsWritten());
+        long nanos = System.nanoTime() - start;
+
+        sessionService.deleteSession(saved.getId());
+        return shots[0] / (nanos / 1e9);
+    }
+
+    private static byte[] scaledSample() throws IOException {
+        List<String> lines = Files.readAllLines(Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv"), StandardCharsets.UTF_8);
+        StringBuilder csv = new StringBuilder();
+        csv.append(lines.get(0)).append('\n').append(lines.get(1)).append('\n');
+        for (int i = 0; i < SCALE; i++) {
+            lines.subList(2, lines.size()).forEach(line -> csv.append(line).append('\n'));
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
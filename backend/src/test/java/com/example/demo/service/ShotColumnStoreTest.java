@@ -0,0 +1,212 @@
+package com.example.demo.service;
+
+import com.example.demo.H2Test;
+import com.example.demo.TestShots;
+import com.example.demo.model.ClubAggregate;
+import com.example.demo.model.Session;
+import com.example.demo.model.SessionSummary;
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotColumns;
+import com.example.demo.model.ShotMetric;
+import com.example.demo.model.ShotStatsFilter;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.ShotColumnRepository;
+import com.example.demo.repository.ShotRepository;
+import com.example.demo.repository.ShotStatsRepository;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@H2Test
+class ShotColumnStoreTest {
+
+    private static final Path SAMPLE = Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv");
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 5, 14, 12, 0);
+
+    @Autowired
+    private ShotColumnStore shotColumnStore;
+
+    @Autowired
+    private ShotStatsRepository shotStatsRepository;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ShotRepository shotRepository;
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private ShotColumnRepository shotColumnRepository;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        Session session = new Session("Columns");
+        add(session, "Driver", NOON, 200.0, 150.0);
+        add(session, "Driver", NOON.plusMinutes(30), null, 152.5);
+        add(session, "Driver", null, 231.25, null);
+        add(session, "", NOON.plusHours(2), 90.0, 80.0);
+        add(session, null, NOON.plusHours(3), 95.5, 81.0);
+        add(session, "7 Iron", NOON.plusHours(1), 150.0, 110.0);
+        sessionId = sessionRepository.save(session).getId();
+    }
+
+    @Test
+    void aggregatesLikeTheShotsInMemory() {
+        List<ShotStatsFilter> filters = List.of(
+                ShotStatsFilter.NONE,
+                new ShotStatsFilter("Driver", null, null, null),
+                new ShotStatsFilter("", null, null, null),
+                new ShotStatsFilter("Putter", null, null, null),
+                new ShotStatsFilter(null, NOON, NOON.plusHours(2), null),
+                new ShotStatsFilter(null, NOON.plusMinutes(30), null, null),
+                new ShotStatsFilter(null, null, null, 150.0),
+                new ShotStatsFilter("Driver", NOON, null, 100.0));
+
+        List<Shot> shots = shotRepository.findBySessionIdOrderByShotNumber(sessionId);
+        for (ShotStatsFilter filter : filters) {
+            List<Shot> matching = shots.stream().filter(shot -> matches(shot, filter)).toList();
+            assertEquals(SessionSummary.of(sessionId, ClubAggregate.fromShots(matching)).toStats(),
+                    SessionSummary.of(sessionId, shotColumnStore.aggregateByClub(sessionId, filter)).toStats());
+        }
+    }
+
+    @Test
+    void followsIngestAndDelete() throws IOException {
+        // Load the columns first, so the new session has to be appended to them
+        shotColumnStore.getColumns();
+
+        Long ingested = csvService.processCsv(CsvFormat.AWESOME_GOLF, Files.newInputStream(SAMPLE), "Ingested", "",
+                ParseListener.NONE).getId();
+
+        ShotColumns columns = shotColumnStore.getColumns();
+        int session = columns.sessionIndex(ingested);
+        assertTrue(session >= 0);
+        assertEquals(shotRepository.countBySessionId(ingested), columns.sessionEnd(session) - columns.sessionStart(session));
+        assertEquals(SessionSummary.of(ingested, shotStatsRepository.aggregateByClub(ingested)).toStats(),
+                SessionSummary.of(ingested, shotColumnStore.aggregateByClub(ingested, ShotStatsFilter.NONE)).toStats());
+
+        assertTrue(sessionService.deleteSession(ingested));
+        assertEquals(-1, shotColumnStore.getColumns().sessionIndex(ingested));
+    }
+
+    @Test
+    void sessionSavedDuringTheFirstLoadIsAppendedAfterIt() throws Exception {
+        // A first load whose snapshot is taken before the session commits, and which finishes after it
+        CountDownLatch snapshotTaken = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ShotColumnStore store = new ShotColumnStore();
+        ReflectionTestUtils.setField(store, "shotColumnRepository", new ShotColumnRepository() {
+            @Override
+            public ShotColumns loadAll() {
+                ShotColumns snapshot = shotColumnRepository.loadAll();
+                snapshotTaken.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return snapshot;
+            }
+
+            @Override
+            public void loadSession(Long sessionId, ShotColumns.Builder builder) {
+                shotColumnRepository.loadSession(sessionId, builder);
+            }
+        });
+
+        Thread firstLoad = new Thread(store::getColumns);
+        firstLoad.start();
+        snapshotTaken.await();
+
+        Session late = new Session("Late");
+        add(late, "Driver", NOON, 210.0, 151.0);
+        Long lateId = sessionRepository.save(late).getId();
+        Thread saved = new Thread(() -> store.sessionSaved(lateId));
+        saved.start();
+        while (saved.getState() != Thread.State.BLOCKED && saved.isAlive()) {
+            Thread.sleep(1);
+        }
+
+        finish.countDown();
+        firstLoad.join();
+        saved.join();
+        assertTrue(store.getColumns().sessionIndex(lateId) >= 0);
+    }
+
+    @Test
+    void appendingLeavesEarlierColumnsAsTheyWere() {
+        ShotColumns.Builder builder = new ShotColumns.Builder();
+        builder.startSession(1);
+        builder.addRow("Driver", NOON, metrics(250.0));
+        ShotColumns one = builder.build();
+
+        ShotColumns.Builder more = one.append();
+        more.startSession(2);
+        more.addRow("Wedge", null, metrics(Double.NaN));
+        more.addRow("Driver", NOON, metrics(240.0));
+        ShotColumns two = more.build();
+
+        assertEquals(1, one.size());
+        assertEquals(1, one.sessionCount());
+        assertEquals(-1, one.clubCode("Wedge"));
+        assertEquals(3, two.size());
+        assertEquals(1, two.sessionStart(two.sessionIndex(2)));
+        assertEquals(two.clubCode("Driver"), two.clubs()[2]);
+        assertTrue(Double.isNaN(two.metric(ShotMetric.CARRY_DISTANCE)[1]));
+
+        ShotColumns withoutOne = two.without(1);
+        assertEquals(2, withoutOne.size());
+        assertEquals(0, withoutOne.sessionStart(withoutOne.sessionIndex(2)));
+        assertEquals(240.0, withoutOne.metric(ShotMetric.CARRY_DISTANCE)[1]);
+        assertEquals(ShotColumns.NO_TIME, withoutOne.shotTimes()[0]);
+    }
+
+    /**
+     * Whether the shot passes the filter; a bound on time or carry excludes shots without one
+     */
+    private static boolean matches(Shot shot, ShotStatsFilter filter) {
+        if (filter.getClub() != null && !filter.getClub().equals(shot.getClub())) return false;
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            if (shot.getShotTime() == null) return false;
+            if (filter.getFrom() != null && shot.getShotTime().isBefore(filter.getFrom())) return false;
+            if (filter.getTo() != null && !shot.getShotTime().isBefore(filter.getTo())) return false;
+        }
+        return filter.getMinCarry() == null || (shot.getCarryDistance() != null && shot.getCarryDistance() >= filter.getMinCarry());
+    }
+
+    private static double[] metrics(double carry) {
+        double[] values = new double[ShotMetric.values().length];
+        Arrays.fill(values, Double.NaN);
+        values[ShotMetric.CARRY_DISTANCE.ordinal()] = carry;
+        return values;
+    }
+
+    private static void add(Session session, String club, LocalDateTime time, Double carry, Double ballSpeed) {
+        Shot shot = TestShots.addShot(session, club, carry);
+        shot.setShotTime(time);
+        shot.setTotalDistance(carry != null ? carry + 12.0 : null);
+        shot.setBallSpeed(ballSpeed);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Shot;
+import com.example.demo.model.ShotMetric;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Decodes the binary layout documented on ShotColumnarEncoder (as the frontend does) and compares it with the shots
+ */
+class ShotColumnarEncoderTest {
+
+    @Test
+    void roundTripsValuesNullsAndDictionaries() {
+        List<Shot> shots = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            Shot shot = new Shot();
+            shot.setId(1000L + i);
+            shot.setShotNumber(i + 1);
+            shot.setClub(i % 3 == 0 ? "Driver" : "7 Iron");
+            shot.setShotTime(LocalDateTime.of(2025, 5, 14, 14, 0).plusSeconds(i * 30L));
+            shot.setCarryDistance(i % 4 == 0 ? null : 150.0 + i);
+            shot.setSmash(1.45);
+            shots.add(shot);
+        }
+        shots.get(5).setClub(null);
+        shots.get(2).setShotClassification("Push Slice");
+
+        Map<String, Object[]> columns = decode(ShotColumnarEncoder.encode(shots));
+
+        assertEquals(3 + ShotMetric.values().length + 3, columns.size());
+        for (int i = 0; i < shots.size(); i++) {
+            Shot shot = shots.get(i);
+            assertEquals(shot.getId().doubleValue(), columns.get("id")[i]);
+            assertEquals(shot.getClub(), columns.get("club")[i]);
+            assertEquals((double) shot.getShotTime().toInstant(ZoneOffset.UTC).toEpochMilli(), columns.get("shotTime")[i]);
+            assertEquals(shot.getShotClassification(), columns.get("shotClassification")[i]);
+            for (ShotMetric metric : ShotMetric.values()) {
+                assertEquals(metric.get(shot), columns.get(metric.getProperty())[i], metric.getProperty() + " of row " + i);
+            }
+        }
+        assertNull(columns.get("apex")[0]);
+    }
+
+    @Test
+    void emptyListEncodesHeaderAndEmptyColumns() {
+        Map<String, Object[]> columns = decode(ShotColumnarEncoder.encode(List.of()));
+
+        assertEquals(0, columns.get("carryDistance").length);
+    }
+
+    private static Map<String, Object[]> decode(byte[] encoded) {
+        ByteBuffer in = ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[4];
+        in.get(magic);
+        assertEquals("GSC1", new String(magic, StandardCharsets.US_ASCII));
+        int rows = in.getInt();
+        int columnCount = in.getShort();
+        in.getShort();
+
+        Map<String, Object[]> columns = new HashMap<>();
+        for (int c = 0; c < columnCount; c++) {
+            byte type = in.get();
+            byte[] name = new byte[in.get()];
+            in.get(name);
+            byte[] bitmap = new byte[(rows + 7) / 8];
+            in.get(bitmap);
+
+            Object[] values = new Object[rows];
+            if (type == 1) {
+                in.position((in.position() + 7) / 8 * 8);
+                for (int i = 0; i < rows; i++) {
+                    double value = in.getDouble();
+                    values[i] = present(bitmap, i) ? value : null;
+                }
+            } else {
+                List<String> entries = new ArrayList<>();
+                int entryCount = in.getShort() & 0xFFFF;
+                for (int e = 0; e < entryCount; e++) {
+                    byte[] entry = new byte[in.getShort() & 0xFFFF];
+                    in.get(entry);
+                    entries.add(new String(entry, StandardCharsets.UTF_8));
+                }
+                in.position((in.position() + 1) / 2 * 2);
+                for (int i = 0; i < rows; i++) {
+                    int code = in.getShort() & 0xFFFF;
+                    values[i] = present(bitmap, i) ? entries.get(code) : null;
+                }
+            }
+            columns.put(new String(name, StandardCharsets.UTF_8), values);
+        }
+        assertEquals(encoded.length, in.position());
+        return columns;
+    }
+
+    private static boolean present(byte[] bitmap, int row) {
+        return (bitmap[row >> 3] & (1 << (row & 7))) != 0;
+    }
+}
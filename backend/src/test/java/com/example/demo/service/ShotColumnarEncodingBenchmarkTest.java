@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Shot;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ShotCsvParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and serialization time of the shot columns format against Jackson JSON, for an Awesome Golf session.
+ *
+ * Run with: ./mvnw test -Dtest=ShotColumnarEncodingBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShotColumnarEncodingBenchmarkTest {
+
+    private static final int SCALE = 50;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 50;
+
+    @Test
+    void columnsVersusJson() throws IOException {
+        List<Shot> shots = scaledSample();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        byte[] json = objectMapper.writeValueAsBytes(shots);
+        byte[] columns = ShotColumnarEncoder.encode(shots);
+        System.out.printf(Locale.ROOT, "%,d shots: JSON %,d bytes (%,d gzipped) | columns %,d bytes (%,d gzipped)%n",
+                shots.size(), json.length, gzipped(json), columns.length, gzipped(columns));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            objectMapper.writeValueAsBytes(shots);
+            ShotColumnarEncoder.encode(shots);
+        }
+        long jsonNanos = 0;
+        long columnNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            objectMapper.writeValueAsBytes(shots);
+            jsonNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ShotColumnarEncoder.encode(shots);
+            columnNanos += System.nanoTime() - start;
+        }
+        System.out.printf(Locale.ROOT, "serialize: JSON %.2f ms | columns %.2f ms%n",
+                jsonNanos / 1e6 / ROUNDS, columnNanos / 1e6 / ROUNDS);
+    }
+
+    private static int gzipped(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.size();
+    }
+
+    private static List<Shot> scaledSample() throws IOException {
+        byte[] csv = Files.readAllBytes(Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv"));
+        ShotCsvParser parser = new ShotCsvParser();
+        List<Shot> shots = new ArrayList<>();
+        for (int i = 0; i < SCALE; i++) {
+            parser.parse(CsvFormat.AWESOME_GOLF, new ByteArrayInputStream(csv), shots::add);
+        }
+        long id = 1;
+        for (Shot shot : shots) {
+            shot.setId(id++);
+        }
+        return shots;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Session;
+import com.example.demo.service.csv.CsvFormat;
+import com.example.demo.service.csv.ParseListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadJobServiceTest {
+
+    private final CsvService csvService = mock(CsvService.class);
+    private final UploadJobService uploadJobService = new UploadJobService();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(uploadJobService, "csvService", csvService);
+        ReflectionTestUtils.setField(uploadJobService, "threads", 1);
+        ReflectionTestUtils.setField(uploadJobService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(uploadJobService, "retentionMinutes", 60L);
+        uploadJobService.start();
+
+        // Report two good rows and one bad one, then wait until the test lets the job finish
+        when(csvService.processCsv(eq(CsvFormat.AWESOME_GOLF), any(ByteBuffer.class), anyString(), anyString(), any(ParseListener.class)))
+                .thenAnswer(invocation -> {
+                    ParseListener listener = invocation.getArgument(4);
+                    listener.rowParsed();
+                    listener.rowParsed();
+                    listener.rowRejected();
+                    release.await(10, TimeUnit.SECONDS);
+
+                    Session session = new Session("Range");
+                    session.setId(42L);
+                    return session;
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        uploadJobService.stop();
+    }
+
+    @Test
+    void jobReportsProgressAndSessionId() throws Exception {
+        UploadJob job = uploadJobService.submit(CsvFormat.AWESOME_GOLF, csv(), "Range", "");
+
+        assertEquals(job, uploadJobService.getJob(job.getId()).orElseThrow());
+        waitFor(() -> job.getRowsRejected() == 1);
+        assertEquals(UploadJob.Status.RUNNING, job.getStatus());
+        assertEquals(2, job.getRowsParsed());
+
+        release.countDown();
+        waitFor(job::isFinished);
+        assertEquals(UploadJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(42L, job.getSessionId());
+    }
+
+    @Test
+    void fullQueueRejectsNewUploads() throws Exception {
+        UploadJob running = uploadJobService.submit(CsvFormat.AWESOME_GOLF, csv(), "Range", "");
+        waitFor(() -> running.getStatus() == UploadJob.Status.RUNNING);
+        UploadJob queued = uploadJobService.submit(CsvFormat.AWESOME_GOLF, csv(), "Range", "");
+
+        // Refused before the upload is copied
+        MockMultipartFile refused = spy(csv());
+        assertThrows(RejectedExecutionException.class,
+                () -> uploadJobService.submit(CsvFormat.AWESOME_GOLF, refused, "Range", ""));
+        verify(refused, never()).transferTo(any(Path.class));
+        assertEquals(UploadJob.Status.QUEUED, queued.getStatus());
+
+        release.countDown();
+        waitFor(queued::isFinished);
+        assertEquals(UploadJob.Status.SUCCEEDED, queued.getStatus());
+    }
+
+    private static MockMultipartFile csv() {
+        return new MockMultipartFile("file", "shots.csv", "text/csv", "Date,Club\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the upload job");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvTokenizerTest {
+
+    @Test
+    void splitsQuotedFieldsWithCommasAndEscapedQuotes() throws IOException {
+        List<String[]> records = readAll("Club,Note,Tag\r\nDriver,\"wind, left\",\"the \"\"big\"\" one\"\r\n", 64 * 1024);
+
+        assertEquals(2, records.size());
+        assertEquals(List.of("Driver", "wind, left", "the \"big\" one"), List.of(records.get(1)));
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotes() throws IOException {
+        List<String[]> records = readAll("a,b\n1,\"two\nlines\"\n3,4", 64 * 1024);
+
+        assertEquals(3, records.size());
+        assertEquals("two\nlines", records.get(1)[1]);
+        assertEquals("4", records.get(2)[1]);
+    }
+
+    @Test
+    void keepsTrailingEmptyFields() throws IOException {
+        List<String[]> records = readAll("a,b,c\n1,,\n", 64 * 1024);
+
+        assertEquals(3, records.get(1).length);
+        assertEquals("", records.get(1)[2]);
+    }
+
+    @Test
+    void recordsSpanningBufferRefillsAreReassembled() throws IOException {
+        String csv = "Date,Club,Note\n"
+                + "2025-05-14 14:12:58,Driver,\"a fairly long note, with a comma\"\n"
+                + "2025-05-14 14:14:18,7 Iron,\"\"\"quoted\"\"\"\n";
+
+        // A tiny buffer forces refills (and growth) in the middle of fields and quotes
+        for (int size = 4; size < 40; size++) {
+            List<String[]> records = readAll(csv, size);
+            assertEquals(3, records.size(), "buffer size " + size);
+            assertEquals("a fairly long note, with a comma", records.get(1)[2], "buffer size " + size);
+            assertEquals("\"quoted\"", records.get(2)[2], "buffer size " + size);
+        }
+    }
+
+    @Test
+    void skipsUtf8ByteOrderMark() throws IOException {
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] body = "Date,Player\n".getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, data, 0, bom.length);
+        System.arraycopy(body, 0, data, bom.length, body.length);
+
+        CsvTokenizer tokenizer = new CsvTokenizer(new ByteArrayInputStream(data));
+        assertTrue(tokenizer.nextRecord());
+        assertEquals("Date", tokenizer.getString(0));
+    }
+
+    @Test
+    void readsFromByteBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+        buffer.put("x,y\n1.5,-2\n".getBytes(StandardCharsets.UTF_8)).flip();
+
+        CsvTokenizer tokenizer = new CsvTokenizer(buffer);
+        assertTrue(tokenizer.nextRecord());
+        assertTrue(tokenizer.nextRecord());
+        assertEquals(1.5, tokenizer.getDouble(0));
+        assertEquals(-2, tokenizer.getInt(1));
+        assertFalse(tokenizer.nextRecord());
+    }
+
+    @Test
+    void parsesNumbersWithUnitsAndSeparators() throws IOException {
+        CsvTokenizer tokenizer = tokenizer("\"1,234.5\",152.3 mph,[deg],-0.25,1.5E-05,12 [deg],-,7\n");
+        assertTrue(tokenizer.nextRecord());
+
+        assertEquals(1234.5, tokenizer.getDouble(0));
+        assertEquals(152.3, tokenizer.getDouble(1));
+        assertTrue(Double.isNaN(tokenizer.getDouble(2)));
+        assertEquals(-0.25, tokenizer.getDouble(3));
+        assertEquals(1.5E-05, tokenizer.getDouble(4));
+        assertEquals(12.0, tokenizer.getDouble(5));
+        assertTrue(Double.isNaN(tokenizer.getDouble(6)));
+        assertEquals(7, tokenizer.getInt(7));
+        assertNull(tokenizer.getInt(1));
+    }
+
+    @Test
+    void numbersMatchDoubleParseDoubleOnSampleData() throws IOException {
+        for (Path sample : List.of(
+                Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv"),
+                Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv"))) {
+            CsvTokenizer tokenizer = new CsvTokenizer(Files.newInputStream(sample));
+            while (tokenizer.nextRecord()) {
+                for (int i = 0; i < tokenizer.fieldCount(); i++) {
+                    String text = tokenizer.getString(i);
+                    double expected;
+                    try {
+                        expected = Double.parseDouble(text);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    double actual = tokenizer.getDouble(i);
+                    // Exact up to 15 digits, within one ulp for the long Garmin expansions
+                    assertTrue(Math.abs(expected - actual) <= Math.ulp(expected), text + " parsed as " + actual);
+                }
+            }
+        }
+    }
+
+    private static CsvTokenizer tokenizer(String csv) {
+        return new CsvTokenizer(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<String[]> readAll(String csv, int bufferSize) throws IOException {
+        CsvTokenizer tokenizer = new CsvTokenizer(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), bufferSize);
+        List<String[]> records = new ArrayList<>();
+        while (tokenizer.nextRecord()) {
+            records.add(tokenizer.fields());
+        }
+        return records;
+    }
+}
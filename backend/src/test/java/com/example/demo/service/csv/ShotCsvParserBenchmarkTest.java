@@ -0,0 +1,160 @@
+package com.example.demo.service.csv;
+
+import com.example.demo.model.Shot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rows/sec of the importer against the original line-based approach
+ * (readLine + split + per-cell header resolution + regex number cleanup),
+ * on the sample_data files scaled up 1000x.
+ *
+ * Run with: ./mvnw test -Dtest=ShotCsvParserBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShotCsvParserBenchmarkTest {
+
+    private static final int SCALE = 1000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    void garminR10() throws IOException {
+        run(CsvFormat.GARMIN_R10, Path.of("../sample_data/garmin/DrivingRange-2025-05-16_01-29-24_+0000.csv"), 1);
+    }
+
+    @Test
+    void awesomeGolf() throws IOException {
+        run(CsvFormat.AWESOME_GOLF, Path.of("../sample_data/awesome_golf/ags-shots-2025-05-14.csv"), 2);
+    }
+
+    private void run(CsvFormat format, Path sample, int headerLines) throws IOException {
+        List<String> lines = Files.readAllLines(sample, StandardCharsets.UTF_8);
+        List<String> header = lines.subList(0, headerLines);
+        List<String> rows = lines.subList(headerLines, lines.size());
+
+        StringBuilder csv = new StringBuilder();
+        header.forEach(line -> csv.append(line).append('\n'));
+        for (int i = 0; i < SCALE; i++) {
+            rows.forEach(line -> csv.append(line).append('\n'));
+        }
+        byte[] data = csv.toString().getBytes(StandardCharsets.UTF_8);
+        String[] names = header.get(0).split(",");
+        String[] units = headerLines > 1 ? header.get(1).split(",") : null;
+
+        ShotCsvParser parser = new ShotCsvParser();
+        long parserShots = 0;
+        long legacyShots = 0;
+        long parserNanos = Long.MAX_VALUE;
+        long legacyNanos = Long.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            List<Shot> shots = new ArrayList<>();
+            parser.parse(format, new ByteArrayInputStream(data), shots::add);
+            parserNanos = Math.min(parserNanos, System.nanoTime() - start);
+            parserShots = shots.size();
+
+            start = System.nanoTime();
+            legacyShots = parseLineByLine(format, data, headerLines, names, units);
+            legacyNanos = Math.min(legacyNanos, System.nanoTime() - start);
+        }
+
+        long rowCount = (long) rows.size() * SCALE;
+        System.out.printf(Locale.ROOT, "%s: %,d rows | line-based %,.0f rows/s | tokenizer + compiled plan %,.0f rows/s%n",
+                format, rowCount, rowCount / (legacyNanos / 1e9), rowCount / (parserNanos / 1e9));
+
+        // Rows dropped by split() (trailing empty cells) are the only expected difference
+        assertTrue(parserShots >= legacyShots);
+    }
+
+    /**
+     * The original approach: readLine, split on commas, then lower-case each header,
+     * look it up and regex-clean the value for every cell of every row
+     */
+    private long parseLineByLine(CsvFormat format, byte[] data, int headerLines, String[] names, String[] units) throws IOException {
+        long shots = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data)))) {
+            for (int i = 0; i < headerLines; i++) {
+                reader.readLine();
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] values = line.split(",");
+                if (format == CsvFormat.GARMIN_R10 ? values.length != names.length : values.length < names.length) continue;
+
+                SplitRow row = new SplitRow(values);
+                Shot shot = new Shot();
+                for (int c = 0; c < names.length && c < values.length; c++) {
+                    String name = names[c].trim().toLowerCase(Locale.ROOT);
+                    String unit = units != null && c < units.length ? units[c].trim().toLowerCase(Locale.ROOT) : "";
+                    if (row.isEmpty(c)) continue;
+
+                    FieldWriter writer = unit.isEmpty() ? null : ShotColumnMappings.lookup(format, name + " " + unit);
+                    if (writer == null) writer = ShotColumnMappings.lookup(format, name);
+                    if (writer == null) continue;
+                    writer.write(shot, row, c);
+                }
+                shots++;
+            }
+        }
+        return shots;
+    }
+
+    /**
+     * Cells from String.split, converted the way the importer used to
+     */
+    private static final class SplitRow implements CsvRow {
+        private final String[] values;
+
+        SplitRow(String[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int fieldCount() {
+            return values.length;
+        }
+
+        @Override
+        public boolean isEmpty(int field) {
+            return values[field].trim().isEmpty();
+        }
+
+        @Override
+        public String getString(int field) {
+            return values[field].trim();
+        }
+
+        @Override
+        public double getDouble(int field) {
+            try {
+                return Double.parseDouble(values[field].trim().replaceAll("[^\\d.-]", ""));
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        @Override
+        public Integer getInt(int field) {
+            try {
+                return Integer.parseInt(values[field].trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -11,19 +11,28 @@ CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 -- Note: These will likely be created by Hibernate but defining them here
 -- ensures the schema matches our expectations
 
+-- Id sequences, matching the @SequenceGenerator allocation sizes on the entities.
+-- Hibernate reserves a block of ids per nextval ("pooled-lo"), which lets it batch inserts;
+-- plain SQL inserts still get an id from the column default.
+CREATE SEQUENCE IF NOT EXISTS session_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS shot_seq START WITH 1 INCREMENT BY 1000;
+
 -- Session table
 CREATE TABLE IF NOT EXISTS session (
-  id BIGSERIAL PRIMARY KEY,
+  id BIGINT PRIMARY KEY DEFAULT nextval('session_seq'),
   title VARCHAR(255) NOT NULL,
   upload_date TIMESTAMP,
   session_date TIMESTAMP,
   location VARCHAR(255),
-  source_type VARCHAR(50)
+  source_type VARCHAR(50),
+  player VARCHAR(100),  -- who hit the shots; null if unknown
+  updated_at TIMESTAMP,  -- last change to the session row; versions the session for HTTP caching
+  content_hash VARCHAR(64)  -- SHA-256 of the uploaded file, detects re-uploads
 );
 
 -- Shot table
 CREATE TABLE IF NOT EXISTS shot (
-  id BIGSERIAL PRIMARY KEY,
+  id BIGINT PRIMARY KEY DEFAULT nextval('shot_seq'),
   session_id BIGINT REFERENCES session(id) ON DELETE CASCADE,
   shot_number INTEGER,
   shot_time TIMESTAMP,
@@ -41,6 +50,7 @@ CREATE TABLE IF NOT EXISTS shot (
   launch_direction DOUBLE PRECISION,
   spin_rate DOUBLE PRECISION,
   spin_axis DOUBLE PRECISION,
+  deviation DOUBLE PRECISION,
   apex DOUBLE PRECISION,
   
   -- Advanced metrics
@@ -67,13 +77,68 @@ CREATE TABLE IF NOT EXISTS shot (
   face_target DOUBLE PRECISION,
   swing_plane_tilt DOUBLE PRECISION,
   swing_plane_rotation DOUBLE PRECISION,
+  air_density DOUBLE PRECISION,  -- kg/m³
+  temperature DOUBLE PRECISION,  -- °F
   shot_classification VARCHAR(100),
+  fingerprint BIGINT,  -- hash of the shot's values, detects shots exported twice
 
   -- Add timestamp
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Session statistics, computed once at upload (see SessionSummary)
+CREATE TABLE IF NOT EXISTS session_summary (
+  session_id BIGINT PRIMARY KEY REFERENCES session(id) ON DELETE CASCADE,
+  total_shots BIGINT NOT NULL,
+  avg_carry_distance DOUBLE PRECISION NOT NULL,
+  avg_total_distance DOUBLE PRECISION NOT NULL,
+  avg_ball_speed DOUBLE PRECISION NOT NULL
+);
+
+-- Per-club statistics of a session
+CREATE TABLE IF NOT EXISTS session_club_summary (
+  session_id BIGINT NOT NULL REFERENCES session_summary(session_id) ON DELETE CASCADE,
+  club VARCHAR(100) NOT NULL,
+  shots BIGINT NOT NULL,
+  avg_carry DOUBLE PRECISION NOT NULL,
+  avg_total DOUBLE PRECISION NOT NULL,
+  avg_ball_speed DOUBLE PRECISION NOT NULL,
+  std_dev_carry DOUBLE PRECISION,
+  std_dev_total DOUBLE PRECISION,
+  median_carry DOUBLE PRECISION,
+  median_total DOUBLE PRECISION,
+  carry_sketch BYTEA,
+  lateral_sketch BYTEA,
+  PRIMARY KEY (session_id, club)
+);
+
+-- Weekly carry and ball speed per player and club, for trend charts (see ClubWeekRollup)
+CREATE TABLE IF NOT EXISTS club_week_rollup (
+  player VARCHAR(100) NOT NULL,  -- '' for sessions without a player
+  club VARCHAR(100) NOT NULL,
+  week_start DATE NOT NULL,  -- Monday
+  shots BIGINT NOT NULL,
+  carry_count BIGINT NOT NULL,
+  carry_sum DOUBLE PRECISION NOT NULL,
+  carry_sum_of_squares DOUBLE PRECISION NOT NULL,
+  carry_min DOUBLE PRECISION,
+  carry_max DOUBLE PRECISION,
+  carry_ewma DOUBLE PRECISION,
+  ball_speed_count BIGINT NOT NULL,
+  ball_speed_sum DOUBLE PRECISION NOT NULL,
+  ball_speed_sum_of_squares DOUBLE PRECISION NOT NULL,
+  ball_speed_min DOUBLE PRECISION,
+  ball_speed_max DOUBLE PRECISION,
+  ball_speed_ewma DOUBLE PRECISION,
+  last_session_date TIMESTAMP,
+  last_session_id BIGINT,
+  PRIMARY KEY (player, club, week_start)
+);
+
 -- Create indexes for common queries
 CREATE INDEX IF NOT EXISTS idx_shot_session_id ON shot(session_id);
 CREATE INDEX IF NOT EXISTS idx_session_date ON session(session_date);
+CREATE INDEX IF NOT EXISTS idx_session_upload_date_id ON session(upload_date DESC, id DESC);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_session_content_hash ON session(content_hash);
+CREATE INDEX IF NOT EXISTS idx_shot_fingerprint ON shot(fingerprint);
@@ -2,8 +2,9 @@
 -- This will create sample sessions with a few shots each from different launch monitors
 
 -- Sample Garmin R10 Session
-INSERT INTO session (title, upload_date, session_date, location, source_type)
+INSERT INTO session (id, title, upload_date, session_date, location, source_type)
 VALUES (
+  1,
   'Sample Garmin R10 Session',
   '2025-05-14 13:30:00',
   '2025-05-14 13:30:00',
@@ -12,8 +13,9 @@ VALUES (
 );
 
 -- Sample Awesome Golf Session
-INSERT INTO session (title, upload_date, session_date, location, source_type)
+INSERT INTO session (id, title, upload_date, session_date, location, source_type)
 VALUES (
+  2,
   'Sample Awesome Golf Session',
   '2025-05-15 10:15:00',
   '2025-05-15 10:15:00',
@@ -21,6 +23,9 @@ VALUES (
   'AWESOME_GOLF'
 );
 
+-- Move the session sequence past the explicit ids above
+SELECT setval('session_seq', (SELECT MAX(id) FROM session) + 1, false);
+
 -- Sample Garmin R10 Shots
 INSERT INTO shot (
   session_id, shot_number, club, ball_speed, club_head_speed, launch_angle, 
@@ -0,0 +1,24 @@
+-- Switch session and shot ids from BIGSERIAL/IDENTITY to the pooled sequences used by the entities.
+-- Fresh databases get this from init/01-init.sql; run this once against an existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/001-pooled-id-sequences.sql
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS session_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS shot_seq INCREMENT BY 1000;
+
+-- Tables created by Hibernate use identity columns, tables from 01-init.sql use serial defaults
+ALTER TABLE session ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE shot ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+ALTER TABLE session ALTER COLUMN id SET DEFAULT nextval('session_seq');
+ALTER TABLE shot ALTER COLUMN id SET DEFAULT nextval('shot_seq');
+
+DROP SEQUENCE IF EXISTS session_id_seq;
+DROP SEQUENCE IF EXISTS shot_id_seq;
+
+-- Start handing out ids after the existing rows
+SELECT setval('session_seq', COALESCE((SELECT MAX(id) FROM session), 0) + 1, false);
+SELECT setval('shot_seq', COALESCE((SELECT MAX(id) FROM shot), 0) + 1, false);
+
+COMMIT;
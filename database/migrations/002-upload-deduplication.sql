@@ -0,0 +1,16 @@
+-- Content hash on sessions and fingerprints on shots, used to recognise repeated and overlapping uploads.
+-- Fresh databases get this from init/01-init.sql; run this once against an existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/002-upload-deduplication.sql
+--
+-- Existing rows keep NULL hashes and fingerprints (they are computed by the application),
+-- so only data uploaded after this migration is deduplicated.
+
+BEGIN;
+
+ALTER TABLE session ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE shot ADD COLUMN IF NOT EXISTS fingerprint BIGINT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_session_content_hash ON session(content_hash);
+CREATE INDEX IF NOT EXISTS idx_shot_fingerprint ON shot(fingerprint);
+
+COMMIT;
@@ -0,0 +1,5 @@
+-- Index for the keyset-paginated session list (newest upload first).
+-- Fresh databases get this from init/01-init.sql; run this once against an existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/003-session-list-index.sql
+
+CREATE INDEX IF NOT EXISTS idx_session_upload_date_id ON session(upload_date DESC, id DESC);
@@ -0,0 +1,32 @@
+-- Stored session statistics, written when a session is uploaded and served by /api/sessions/{id}/stats.
+-- Fresh databases get this from init/01-init.sql; run this once against an existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/004-session-summary.sql
+--
+-- Sessions uploaded before this migration get their summary computed on the first stats request.
+-- Deleting a session cascades to its summary rows.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS session_summary (
+  session_id BIGINT PRIMARY KEY REFERENCES session(id) ON DELETE CASCADE,
+  total_shots BIGINT NOT NULL,
+  avg_carry_distance DOUBLE PRECISION NOT NULL,
+  avg_total_distance DOUBLE PRECISION NOT NULL,
+  avg_ball_speed DOUBLE PRECISION NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS session_club_summary (
+  session_id BIGINT NOT NULL REFERENCES session_summary(session_id) ON DELETE CASCADE,
+  club VARCHAR(100) NOT NULL,
+  shots BIGINT NOT NULL,
+  avg_carry DOUBLE PRECISION NOT NULL,
+  avg_total DOUBLE PRECISION NOT NULL,
+  avg_ball_speed DOUBLE PRECISION NOT NULL,
+  std_dev_carry DOUBLE PRECISION,
+  std_dev_total DOUBLE PRECISION,
+  median_carry DOUBLE PRECISION,
+  median_total DOUBLE PRECISION,
+  PRIMARY KEY (session_id, club)
+);
+
+COMMIT;
@@ -0,0 +1,12 @@
+-- Last-change timestamp on sessions, used for the ETag / Last-Modified headers of the session endpoints.
+-- Fresh databases get this from init/01-init.sql; run this once against an existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/005-session-updated-at.sql
+--
+-- Existing sessions have not been edited as far as we know, so they start out at their upload time.
+
+BEGIN;
+
+ALTER TABLE session ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+UPDATE session SET updated_at = date_trunc('milliseconds', upload_date) WHERE updated_at IS NULL;
+
+COMMIT;
@@ -0,0 +1,13 @@
+-- Quantile sketches of carry and lateral carry per club, merged by /api/analytics/percentiles.
+-- Fresh databases get this from init/01-init.sql; run this once against an existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/006-club-sketches.sql
+--
+-- Summaries stored before this have no sketches; the percentile endpoint sketches those sessions' shots instead.
+
+BEGIN;
+
+ALTER TABLE session_club_summary
+  ADD COLUMN IF NOT EXISTS carry_sketch BYTEA,
+  ADD COLUMN IF NOT EXISTS lateral_sketch BYTEA;
+
+COMMIT;
@@ -0,0 +1,33 @@
+-- Players on sessions, and the weekly per-player, per-club rollups behind /api/analytics/trends.
+-- Fresh databases get this from init/01-init.sql; run this once against an existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/007-club-week-rollup.sql
+--
+-- The rollup table starts empty; the backend fills it from the stored shots on the first trend request.
+
+BEGIN;
+
+ALTER TABLE session ADD COLUMN IF NOT EXISTS player VARCHAR(100);
+
+CREATE TABLE IF NOT EXISTS club_week_rollup (
+  player VARCHAR(100) NOT NULL,  -- '' for sessions without a player
+  club VARCHAR(100) NOT NULL,
+  week_start DATE NOT NULL,  -- Monday
+  shots BIGINT NOT NULL,
+  carry_count BIGINT NOT NULL,
+  carry_sum DOUBLE PRECISION NOT NULL,
+  carry_sum_of_squares DOUBLE PRECISION NOT NULL,
+  carry_min DOUBLE PRECISION,
+  carry_max DOUBLE PRECISION,
+  carry_ewma DOUBLE PRECISION,
+  ball_speed_count BIGINT NOT NULL,
+  ball_speed_sum DOUBLE PRECISION NOT NULL,
+  ball_speed_sum_of_squares DOUBLE PRECISION NOT NULL,
+  ball_speed_min DOUBLE PRECISION,
+  ball_speed_max DOUBLE PRECISION,
+  ball_speed_ewma DOUBLE PRECISION,
+  last_session_date TIMESTAMP,
+  last_session_id BIGINT,
+  PRIMARY KEY (player, club, week_start)
+);
+
+COMMIT;
@@ -0,0 +1,14 @@
+-- Air density and temperature of Garmin shots, used by the ball flight simulator behind
+-- /api/sessions/{id}/trajectories. Fresh databases get this from init/01-init.sql; run this once against an
+-- existing database:
+--   docker-compose exec -T db psql -U postgres -d golfdb < database/migrations/008-shot-air-conditions.sql
+--
+-- Shots stored before this have neither; they are simulated in standard air at their altitude.
+
+BEGIN;
+
+ALTER TABLE shot
+  ADD COLUMN IF NOT EXISTS air_density DOUBLE PRECISION,
+  ADD COLUMN IF NOT EXISTS temperature DOUBLE PRECISION;
+
+COMMIT;
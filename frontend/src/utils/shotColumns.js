@@ -0,0 +1,100 @@
+/**
+ * Decoder for the columnar binary shot format served by /api/sessions/{id}/shots
+ * 
+ * The backend sends it instead of JSON when asked with the SHOT_COLUMNS_TYPE Accept header.
+ * Each metric arrives as one Float64Array, and text columns are dictionary-encoded.
+ * The layout is documented in the backend's ShotColumnarEncoder.
+ */
+
+export const SHOT_COLUMNS_TYPE = 'application/vnd.golf.shot-columns';
+
+const FLOAT64 = 1;
+const DICTIONARY = 2;
+
+/**
+ * Decode a shot columns response body
+ * @param {ArrayBuffer} buffer - Response body (e.g. axios with responseType: 'arraybuffer')
+ * @returns {object} { rowCount, columns }. columns maps each field name to
+ *   { values, present }: values is a Float64Array (numbers) or an array of strings (text),
+ *   and present(i) tells whether row i has a value
+ */
+export const decodeShotColumns = (buffer) => {
+  const view = new DataView(buffer);
+  const magic = String.fromCharCode(view.getUint8(0), view.getUint8(1), view.getUint8(2), view.getUint8(3));
+  if (magic !== 'GSC1') {
+    throw new Error(`Not a shot columns payload (magic "${magic}")`);
+  }
+  
+  const rowCount = view.getUint32(4, true);
+  const columnCount = view.getUint16(8, true);
+  const bitmapLength = Math.ceil(rowCount / 8);
+  const decoder = new TextDecoder();
+  const columns = {};
+  
+  let offset = 12;
+  for (let c = 0; c < columnCount; c++) {
+    const type = view.getUint8(offset);
+    const nameLength = view.getUint8(offset + 1);
+    const name = decoder.decode(new Uint8Array(buffer, offset + 2, nameLength));
+    offset += 2 + nameLength;
+    
+    const bitmap = new Uint8Array(buffer, offset, bitmapLength);
+    const present = (i) => (bitmap[i >> 3] & (1 << (i & 7))) !== 0;
+    offset += bitmapLength;
+    
+    if (type === FLOAT64) {
+      offset = align(offset, 8);
+      // 8-byte aligned, so the column is viewed in place rather than copied
+      columns[name] = { values: new Float64Array(buffer, offset, rowCount), present };
+      offset += rowCount * 8;
+    } else if (type === DICTIONARY) {
+      const entryCount = view.getUint16(offset, true);
+      offset += 2;
+      const entries = [];
+      for (let e = 0; e < entryCount; e++) {
+        const length = view.getUint16(offset, true);
+        entries.push(decoder.decode(new Uint8Array(buffer, offset + 2, length)));
+        offset += 2 + length;
+      }
+      offset = align(offset, 2);
+      const codes = new Uint16Array(buffer, offset, rowCount);
+      offset += rowCount * 2;
+      
+      const values = new Array(rowCount);
+      for (let i = 0; i < rowCount; i++) {
+        values[i] = present(i) ? entries[codes[i]] : null;
+      }
+      columns[name] = { values, present, dictionary: entries, codes };
+    } else {
+      throw new Error(`Unknown column type ${type} for column ${name}`);
+    }
+  }
+  
+  return { rowCount, columns };
+};
+
+/**
+ * Turn decoded columns back into shot objects, shaped like the JSON response,
+ * for the chart code that works on one shot at a time
+ * @param {object} decoded - Result of decodeShotColumns
+ * @returns {Array} Shot objects; absent values are null
+ */
+export const columnsToShots = ({ rowCount, columns }) => {
+  const names = Object.keys(columns);
+  const shots = new Array(rowCount);
+  for (let i = 0; i < rowCount; i++) {
+    const shot = {};
+    for (const name of names) {
+      const column = columns[name];
+      shot[name] = column.present(i) ? column.values[i] : null;
+    }
+    if (shot.shotTime !== null) {
+      // Sent as epoch milliseconds of the stored local time; JSON has it as an ISO string without a zone
+      shot.shotTime = new Date(shot.shotTime).toISOString().slice(0, 19);
+    }
+    shots[i] = shot;
+  }
+  return shots;
+};
+
+const align = (offset, alignment) => Math.ceil(offset / alignment) * alignment;